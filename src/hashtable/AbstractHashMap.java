@@ -4,53 +4,81 @@ import interfaces.AbstractMap;
 import interfaces.Entry;
 
 import java.util.ArrayList;
-import java.util.Random;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 /**
  * An abstract base class supporting Map implementations that use hash
- * tables with MAD compression.
+ * tables.
  * <p>
  * The base class provides the following means of support:
- * 1) Support for calculating hash values with MAD compression
- * 2) Support for resizing table when load factor reaches 1/2
+ * 1) Support for calculating hash values with a HashStrategy: by default
+ * the MurmurHash3 finalizer over power-of-two tables, or MAD compression
+ * 2) Support for resizing table when load factor exceeds 1/2, and for
+ * shrinking it when load factor drops below 1/8
+ * <p>
+ * A resize rehashes incrementally. The old table is kept aside and emptied a
+ * few buckets at a time, by each later get, put and remove, so no single
+ * operation pays for rehashing the whole table. Before an operation on key k,
+ * any entry with key k still in the old table is moved to the new one, so
+ * the bucket methods only ever see the new table.
+ * <p>
+ * Every operation searches the bucket of its key once: locate(h,k) returns
+ * a locator for the entry with key k, or for the place where one would be
+ * added, and valueAt, replaceAt, insertAt and removeAt act on that locator
+ * without searching again.
  * <p>
  * Subclass is responsible for providing abstract methods:
- * createTable(), bucketGet(h,k), bucketPut(h,k,v),
- * bucketRemove(h,k), and entrySet()
- * and for accurately maintaining the protected member, n,
- * to reflect changes within bucketPut and bucketRemove.
+ * createTable(), locate(h,k), valueAt(h,loc), replaceAt(h,loc,v),
+ * insertAt(h,loc,k,v), removeAt(h,loc), entrySet(), and beginRehash(),
+ * rehashBucket(j) and endRehash() to move entries from the old table to
+ * the new one, and for accurately maintaining the protected member, n,
+ * to reflect changes within insertAt and removeAt.
+ * Iterations over the table should call finishRehash() first.
  */
 public abstract class AbstractHashMap<K, V> extends AbstractMap<K, V> {
     protected int n = 0;                 // number of entries in the dictionary
     protected int capacity;              // length of the table
-    private int prime = 0;                   // prime factor
-    private long scale = 0;
-    private long shift = 0;           // the shift and scaling factors
+    private final int minCapacity;       // below which the table never shrinks
+    private int oldCapacity = 0;         // length of the old table while rehashing, else 0
+    private int migrated = 0;            // number of buckets of the old table emptied so far
+    private int steps;                   // number of old buckets emptied by each operation
+    /** Number of old buckets emptied by each operation while rehashing. */
+    private static final int REHASH_STEPS = 8;
+    private final HashStrategy strategy; // maps hash codes to buckets
 
     /**
-     * Creates a hash table with the given capacity and prime factor.
+     * Creates a hash table with at least the given capacity, hashed by the given
+     * strategy.
      */
-    public AbstractHashMap(int cap, int p) {
-        this.capacity = cap;
-        this.prime = p;
-        Random rand = new Random();
-        this.scale = rand.nextInt(prime - 1) + 1;
-        this.shift = rand.nextInt(prime);
+    public AbstractHashMap(int cap, HashStrategy strategy) {
+        this.strategy = strategy;
+        this.capacity = capacityAtLeast(cap);
+        this.minCapacity = capacity;
         createTable();
     }
 
     /**
-     * Creates a hash table with given capacity and prime factor 109345121.
+     * Creates a hash table with the given capacity and MAD compression with the
+     * given prime factor.
+     */
+    public AbstractHashMap(int cap, int p) {
+        this(cap, HashStrategy.mad(p));
+    }
+
+    /**
+     * Creates a hash table with at least the given capacity, hashed by
+     * HashStrategy.powerOfTwo().
      */
     public AbstractHashMap(int cap) {
-        this(cap, 109345121);
-    }  // default prime
+        this(cap, HashStrategy.powerOfTwo());
+    }
 
     /**
-     * Creates a hash table with capacity 17 and prime factor 109345121.
+     * Creates a hash table with capacity 16, hashed by HashStrategy.powerOfTwo().
      */
     public AbstractHashMap() {
-        this(17);
+        this(16);
     }                     // default capacity
 
     // public methods
@@ -73,7 +101,10 @@ public abstract class AbstractHashMap<K, V> extends AbstractMap<K, V> {
      */
     @Override
     public V get(K key) {
-        return bucketGet(hashValue(key), key);
+        rehashStep(key);
+        int h = hashValue(key);
+        int loc = locate(h, key);
+        return loc < 0 ? null : valueAt(h, loc);
     }
 
     /**
@@ -85,13 +116,15 @@ public abstract class AbstractHashMap<K, V> extends AbstractMap<K, V> {
      */
     @Override
     public V remove(K key) {
-        V toRemove = bucketGet(hashValue(key), key);
-        if (toRemove != null) {
-            bucketRemove(hashValue(key), key);
-            n--;
-            return toRemove;
+        rehashStep(key);
+        int h = hashValue(key);
+        int loc = locate(h, key);
+        if (loc < 0) {
+            return null;
         }
-        return null;
+        V toRemove = removeAt(h, loc);
+        removed();
+        return toRemove;
     }
 
     /**
@@ -106,27 +139,202 @@ public abstract class AbstractHashMap<K, V> extends AbstractMap<K, V> {
      */
     @Override
     public V put(K key, V value) {
-        V oldvalue = bucketGet(hashValue(key), key);
-        bucketPut(hashValue(key), key, value);
-        return oldvalue;
+        rehashStep(key);
+        int h = hashValue(key);
+        int loc = locate(h, key);
+        if (loc >= 0) {
+            return replaceAt(h, loc, value);
+        }
+        insertAt(h, loc, key, value);
+        inserted();
+        return null;
+    }
+
+    /**
+     * Associates the given value with the given key, unless the key already has
+     * a non-null value.
+     *
+     * @param key   key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the value already associated with the key (or null, if none, in
+     *         which case value is now associated with it)
+     */
+    public V putIfAbsent(K key, V value) {
+        rehashStep(key);
+        int h = hashValue(key);
+        int loc = locate(h, key);
+        if (loc < 0) {
+            insertAt(h, loc, key, value);
+            inserted();
+            return null;
+        }
+        V old = valueAt(h, loc);
+        if (old == null) {
+            replaceAt(h, loc, value);
+        }
+        return old;
+    }
+
+    /**
+     * Returns the value associated with the given key. If there is none (or it is
+     * null), computes one with the given function and, unless that is null,
+     * associates it with the key. The function must not modify this map.
+     *
+     * @param key      the key of interest
+     * @param function computes a value for the key
+     * @return the current (existing or computed) value associated with the key,
+     *         or null if the computed value is null
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> function) {
+        rehashStep(key);
+        int h = hashValue(key);
+        int loc = locate(h, key);
+        if (loc >= 0) {
+            V old = valueAt(h, loc);
+            if (old != null) {
+                return old;
+            }
+        }
+        V value = function.apply(key);
+        if (value != null) {
+            if (loc >= 0) {
+                replaceAt(h, loc, value);
+            } else {
+                insertAt(h, loc, key, value);
+                inserted();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Associates the given value with the given key if it has no value (or a
+     * null one); otherwise replaces its value with the result of the given
+     * function applied to the old value and the given one, or removes the entry
+     * if that result is null. The function must not modify this map.
+     *
+     * @param key      the key of interest
+     * @param value    the value to associate, or to combine with the old one
+     * @param function combines the old value with the given one
+     * @return the new value associated with the key, or null if none
+     */
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> function) {
+        rehashStep(key);
+        int h = hashValue(key);
+        int loc = locate(h, key);
+        if (loc < 0) {
+            insertAt(h, loc, key, value);
+            inserted();
+            return value;
+        }
+        V old = valueAt(h, loc);
+        V merged = old == null ? value : function.apply(old, value);
+        if (merged == null) {
+            removeAt(h, loc);
+            removed();
+        } else {
+            replaceAt(h, loc, merged);
+        }
+        return merged;
+    }
+
+    /** Grows the table if an entry just added took the load factor above 1/2. */
+    private void inserted() {
+        if (n > capacity / 2) {
+            resize(capacityAtLeast(2 * capacity));
+        }
+    }
+
+    /**
+     * Shrinks the table if an entry just removed took the load factor below 1/8,
+     * unless a rehash is still under way; a later remove shrinks it then.
+     */
+    private void removed() {
+        if (n < capacity / 8 && !isRehashing()) {
+            int smaller = capacityAtLeast(Math.max(minCapacity, capacity / 2));
+            if (smaller < capacity) {
+                resize(smaller);
+            }
+        }
     }
 
     // private utilities
 
     /**
-     * Hash function applying MAD method to default hash code.
+     * Hash function applying the hash strategy to default hash code.
      */
-    private int hashValue(K key) {
-    	return (int) (( Math.abs(key.hashCode() * scale + shift) % prime ) % capacity);
+    protected int hashValue(K key) {
+        return hashValue(key, capacity);
     }
 
+    /** Hash function for a table of length cap. */
+    private int hashValue(K key, int cap) {
+        return strategy.bucket(key.hashCode(), cap);
+    }
 
+    /**
+     * Returns the capacity to use for a table that needs at least m buckets, as
+     * chosen by the hash strategy. Tables whose probing needs particular
+     * lengths override it.
+     */
+    protected int capacityAtLeast(int m) {
+        return strategy.capacityAtLeast(m);
+    }
 
     /**
-     * Updates the size of the hash table and rehashes all entries.
+     * Updates the size of the hash table and starts rehashing all entries into a
+     * new table, which the following operations finish. A rehash still under
+     * way is finished first, at once. No operation of this class relies on that:
+     * with REHASH_STEPS buckets per operation, a rehash ends before enough puts
+     * to grow the table again, whether it grew or shrank, and shrinking (like
+     * the compaction of ProbeHashMap) waits until no rehash is under way. A
+     * shrink moves four times as many buckets per operation, which are mostly
+     * empty, so that it ends before enough removes to shrink the table again.
+     * The only whole-table rehashes are those of finishRehash, before iterations.
      */
-    private void resize(int newCap) {
+    protected void resize(int newCap) {
+        finishRehash();
+        oldCapacity = capacity;
+        migrated = 0;
+        steps = newCap < capacity ? 4 * REHASH_STEPS : REHASH_STEPS;
         this.capacity = newCap;
+        beginRehash();
+    }
+
+    /** Returns true while entries remain to be moved from an old table. */
+    protected boolean isRehashing() {
+        return oldCapacity > 0;
+    }
+
+    /**
+     * Moves the old entry with key k, if any, and the next steps old buckets to
+     * the new table.
+     */
+    private void rehashStep(K key) {
+        if (oldCapacity > 0) {
+            rehashKey(hashValue(key, oldCapacity), key);
+            for (int i = 0; i < steps && migrated < oldCapacity; i++) {
+                rehashBucket(migrated++);
+            }
+            if (migrated == oldCapacity) {
+                endRehash();
+                oldCapacity = 0;
+            }
+        }
+    }
+
+    /**
+     * Moves every entry left in the old table to the new one, at once. Called
+     * before iterating over the table, which then holds every entry.
+     */
+    protected void finishRehash() {
+        if (oldCapacity > 0) {
+            while (migrated < oldCapacity) {
+                rehashBucket(migrated++);
+            }
+            endRehash();
+            oldCapacity = 0;
+        }
     }
 
     // protected abstract methods to be implemented by subclasses
@@ -137,33 +345,85 @@ public abstract class AbstractHashMap<K, V> extends AbstractMap<K, V> {
     protected abstract void createTable();
 
     /**
-     * Returns value associated with key k in bucket with hash value h.
-     * If no such entry exists, returns null.
+     * Searches bucket with hash value h for an entry having key k, and returns
+     * a locator for it. If there is none, returns a negative locator for the
+     * place where such an entry would be added, which stays valid until the
+     * table is next modified.
      *
      * @param h the hash value of the relevant bucket
      * @param k the key of interest
-     * @return associate value (or null, if no such entry)
+     * @return a nonnegative locator of the entry with key k, or a negative one
+     *         of the place to add it
      */
-    protected abstract V bucketGet(int h, K k);
+    protected abstract int locate(int h, K k);
 
     /**
-     * Associates key k with value v in bucket with hash value h, returning
-     * the previously associated value, if any.
+     * Returns value of the entry at nonnegative locator loc in bucket with hash value h.
      *
-     * @param h the hash value of the relevant bucket
-     * @param k the key of interest
-     * @param v the value to be associated
-     * @return previous value associated with k (or null, if no such entry)
+     * @param h   the hash value of the relevant bucket
+     * @param loc a locator returned by locate(h,k)
+     * @return value of the entry
      */
-    protected abstract V bucketPut(int h, K k, V v);
+    protected abstract V valueAt(int h, int loc);
 
     /**
-     * Removes entry having key k from bucket with hash value h, returning
-     * the previously associated value, if found.
+     * Replaces value of the entry at nonnegative locator loc in bucket with
+     * hash value h, returning the previous value.
      *
-     * @param h the hash value of the relevant bucket
+     * @param h   the hash value of the relevant bucket
+     * @param loc a locator returned by locate(h,k)
+     * @param v   the new value
+     * @return previous value of the entry
+     */
+    protected abstract V replaceAt(int h, int loc, V v);
+
+    /**
+     * Adds an entry with key k and value v at negative locator loc in bucket
+     * with hash value h.
+     *
+     * @param h   the hash value of the relevant bucket
+     * @param loc the locator returned by locate(h,k)
+     * @param k   the key, not yet in the map
+     * @param v   the value to be associated
+     */
+    protected abstract void insertAt(int h, int loc, K k, V v);
+
+    /**
+     * Removes the entry at nonnegative locator loc from bucket with hash value
+     * h, returning its value.
+     *
+     * @param h   the hash value of the relevant bucket
+     * @param loc a locator returned by locate(h,k)
+     * @return value of the removed entry
+     */
+    protected abstract V removeAt(int h, int loc);
+
+    /**
+     * Sets the current table aside as the old table, and creates an empty table
+     * having length equal to the (new) current capacity.
+     */
+    protected abstract void beginRehash();
+
+    /**
+     * Moves the entries of bucket j of the old table to the new table, placing
+     * them by hashValue.
+     *
+     * @param j the index of a bucket of the old table
+     */
+    protected abstract void rehashBucket(int j);
+
+    /**
+     * Moves the entry having key k, if any, from the old table to the new table.
+     * This version moves all of bucket h, where the entry would be when buckets
+     * are chained; probing tables override it.
+     *
+     * @param h the hash value of k in the old table
      * @param k the key of interest
-     * @return previous value associated with k (or null, if no such entry)
      */
-    protected abstract V bucketRemove(int h, K k);
+    protected void rehashKey(int h, K k) {
+        rehashBucket(h);
+    }
+
+    /** Discards the old table, from which every entry has been moved. */
+    protected abstract void endRehash();
 }
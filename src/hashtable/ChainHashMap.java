@@ -7,7 +7,11 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.Scanner;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 
 /*
  * Map implementation using hash table with separate chaining.
@@ -16,22 +20,28 @@ import java.util.Scanner;
 public class ChainHashMap<K extends Comparable<K>, V> extends AbstractHashMap<K, V> {
 	// a fixed capacity array of UnsortedTableMap that serve as buckets
 	private UnsortedTableMap<K, V>[] table; // initialized within createTable
+	private UnsortedTableMap<K, V>[] oldTable; // being emptied into table, or null
 
-	/** Creates a hash table with capacity 11 and prime factor 109345121. */
+	/** Creates a hash table with capacity 16, hashed by HashStrategy.powerOfTwo(). */
 	public ChainHashMap() {
 		super();
 	}
 
-	/** Creates a hash table with given capacity and prime factor 109345121. */
+	/** Creates a hash table with at least the given capacity, hashed by HashStrategy.powerOfTwo(). */
 	public ChainHashMap(int cap) {
 		super(cap);
 	}
 
-	/** Creates a hash table with the given capacity and prime factor. */
+	/** Creates a hash table with the given capacity and MAD compression with the given prime factor. */
 	public ChainHashMap(int cap, int p) {
 		super(cap, p);
 	}
 
+	/** Creates a hash table with at least the given capacity, hashed by the given strategy. */
+	public ChainHashMap(int cap, HashStrategy strategy) {
+		super(cap, strategy);
+	}
+
 	/** Creates an empty table having length equal to current capacity. */
 	@Override
 	@SuppressWarnings({ "unchecked" })
@@ -46,6 +56,7 @@ public class ChainHashMap<K extends Comparable<K>, V> extends AbstractHashMap<K,
 
 	@Override
 	public int numCollisions() {
+		finishRehash();
 		int collisions = 0;
 		for (UnsortedTableMap<K,V> bucket : table) {
 			if (bucket != null && bucket.size() > 1) {
@@ -55,82 +66,187 @@ public class ChainHashMap<K extends Comparable<K>, V> extends AbstractHashMap<K,
 		return collisions;
 	}
 	/**
-	 * Returns value associated with key k in bucket with hash value h. If no such
-	 * entry exists, returns null.
+	 * Returns the index of the entry with key k within bucket h, or -1 if the
+	 * bucket has none; an entry is always added at the end of its bucket.
 	 * 
 	 * @param h the hash value of the relevant bucket
 	 * @param k the key of interest
-	 * @return associate value (or null, if no such entry)
+	 * @return index of the entry within its bucket (or -1, if no such entry)
 	 */
 	@Override
-	protected V bucketGet(int h, K k) {
+	protected int locate(int h, K k) {
 		UnsortedTableMap<K, V> bucket = table[h];
-		if (bucket == null) {
-			return null;
-		}
-		return bucket.get(k);
+		return bucket == null ? -1 : bucket.indexOf(k);
 	}
 
-	/**
-	 * Associates key k with value v in bucket with hash value h, returning the
-	 * previously associated value, if any.
-	 * 
-	 * @param h the hash value of the relevant bucket
-	 * @param k the key of interest
-	 * @param v the value to be associated
-	 * @return previous value associated with k (or null, if no such entry)
-	 */
 	@Override
-	protected V bucketPut(int h, K k, V v) {
+	protected V valueAt(int h, int loc) {
+		return table[h].valueAt(loc);
+	}
+
+	@Override
+	protected V replaceAt(int h, int loc, V v) {
+		return table[h].setValueAt(loc, v);
+	}
+
+	@Override
+	protected void insertAt(int h, int loc, K k, V v) {
 		UnsortedTableMap<K, V> bucket = table[h];
 		if (bucket == null) {
 			bucket = table[h] = new UnsortedTableMap<>();
 		}
-		int oldSize = bucket.size();
-		V previous = bucket.put(k, v);
-		n += bucket.size() - oldSize;
-		return previous;
-	}		
+		bucket.add(k, v);
+		n++;
+	}
 
+	@Override
+	protected V removeAt(int h, int loc) {
+		n--;
+		return table[h].removeAt(loc);
+	}
+
+	@Override
+	protected void beginRehash() {
+		oldTable = table;
+		createTable();
+	}
 
 	/**
-	 * Removes entry having key k from bucket with hash value h, returning the
-	 * previously associated value, if found.
-	 * 
-	 * @param h the hash value of the relevant bucket
-	 * @param k the key of interest
-	 * @return previous value associated with k (or null, if no such entry)
+	 * Moves the entries of bucket j of the old table to the buckets of the new
+	 * table given by their hash values.
+	 *
+	 * @param j the index of a bucket of the old table
 	 */
 	@Override
-	protected V bucketRemove(int h, K k) {
-		UnsortedTableMap<K, V> bucket = table[h];
-		if (bucket == null) {
-			return null;
+	protected void rehashBucket(int j) {
+		UnsortedTableMap<K, V> old = oldTable[j];
+		if (old != null) {
+			oldTable[j] = null;
+			old.forEachEntry(e -> {
+				int h = hashValue(e.getKey());
+				UnsortedTableMap<K, V> bucket = table[h];
+				if (bucket == null) {
+					bucket = table[h] = new UnsortedTableMap<>();
+				}
+				bucket.add(e.getKey(), e.getValue());
+			});
 		}
-		V previous = bucketGet(h, k);
-		bucket.remove(k);
-		return previous;
 	}
 
+	@Override
+	protected void endRehash() {
+		oldTable = null;
+	}
+
+	// ---------------- nested EntrySpliterator class ----------------
+	/**
+	 * A spliterator over the buckets table[index, fence). It splits by halving
+	 * the range of buckets, so parallel streams divide the table in place, in the
+	 * manner of java.util.HashMap. Only the spliterator over the whole table
+	 * knows its exact size; the halves estimate half of their parent's.
+	 */
+	private class EntrySpliterator implements Spliterator<Entry<K, V>> {
+		private int index;                          // next bucket to visit
+		private final int fence;                    // one past the last bucket
+		private long est;                           // size estimate
+		private boolean whole;                      // true until the first split
+		private Iterator<Entry<K, V>> current;      // entries of the bucket being visited
+
+		EntrySpliterator(int index, int fence, long est, boolean whole) {
+			this.index = index;
+			this.fence = fence;
+			this.est = est;
+			this.whole = whole;
+		}
+
+		public boolean tryAdvance(Consumer<? super Entry<K, V>> action) {
+			while (current == null || !current.hasNext()) {
+				if (index >= fence) {
+					return false;
+				}
+				UnsortedTableMap<K, V> bucket = table[index++];
+				current = bucket == null ? null : bucket.entrySet().iterator();
+			}
+			action.accept(current.next());
+			return true;
+		}
+
+		public void forEachRemaining(Consumer<? super Entry<K, V>> action) {
+			if (current != null) {
+				while (current.hasNext()) {
+					action.accept(current.next());
+				}
+				current = null;
+			}
+			for (; index < fence; index++) {
+				UnsortedTableMap<K, V> bucket = table[index];
+				if (bucket != null) {
+					bucket.forEachEntry(action);
+				}
+			}
+		}
+
+		public Spliterator<Entry<K, V>> trySplit() {
+			int mid = (index + fence) >>> 1;
+			if (current != null || mid <= index) {
+				return null;
+			}
+			est >>>= 1;
+			whole = false;
+			EntrySpliterator prefix = new EntrySpliterator(index, mid, est, false);
+			index = mid;
+			return prefix;
+		}
+
+		public long estimateSize() {
+			return est;
+		}
+
+		public int characteristics() {
+			return (whole ? Spliterator.SIZED : 0) | Spliterator.DISTINCT | Spliterator.NONNULL;
+		}
+	} // ----------- end of nested EntrySpliterator class -----------
+
+	// ---------------- nested EntryIterable class ----------------
+	private class EntryIterable implements Iterable<Entry<K, V>> {
+		public Iterator<Entry<K, V>> iterator() {
+			return Spliterators.iterator(spliterator());
+		}
+
+		@Override
+		public Spliterator<Entry<K, V>> spliterator() {
+			finishRehash();
+			return new EntrySpliterator(0, table.length, n, true);
+		}
+
+		public String toString() {
+			StringBuilder sb = new StringBuilder("[");
+			for (Entry<K, V> e : this) {
+				if (sb.length() > 1) sb.append(", ");
+				sb.append(e);
+			}
+			return sb.append("]").toString();
+		}
+	} // ----------- end of nested EntryIterable class -----------
+
 	/**
 	 * Returns an iterable collection of all key-value entries of the map.
+	 * Entries are produced lazily, bucket by bucket, so iteration needs no copy
+	 * of the table; the map must not be modified during an iteration.
 	 *
 	 * @return iterable collection of the map's entries
 	 */
 	@Override
 	public Iterable<Entry<K, V>> entrySet() {
-		ArrayList<Entry<K, V>> buffer = new ArrayList<>();
-		for (UnsortedTableMap<K, V> bucket : table) {
-			if (bucket == null) {
-				continue;
-			}
-			for (Entry<K, V> entry : bucket.entrySet()) {
-				if (entry.getValue() != null) {
-					buffer.add(entry);
-				}
-			}
-		}
-		return buffer;
+		return new EntryIterable();
+	}
+
+	/**
+	 * Returns a spliterator that splits the table by ranges of buckets.
+	 */
+	@Override
+	protected Spliterator<Entry<K, V>> entrySpliterator() {
+		return new EntryIterable().spliterator();
 	}
 	
 	public String toString() {
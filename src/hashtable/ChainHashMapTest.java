@@ -4,6 +4,9 @@ import org.junit.jupiter.api.Test;
 import priorityqueue.DefaultComparator;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -97,4 +100,134 @@ class ChainHashMapTest {
 		assertEquals("[0, 1, 2, 3, 4, 5, 6, 7, 8, 9]", buf.toString());
 	}
 
+	@Test
+	void testStreams() {
+		ChainHashMap<Integer, String> map = new ChainHashMap<Integer, String>(101);
+
+		int n = 1000;
+		for(int i = 0; i < n; ++i) {
+			map.put(i, Integer.toString(i));
+		}
+		map.remove(500);
+		assertEquals(n - 1, map.entryStream().count());
+		assertEquals(n - 1, map.entrySpliterator().getExactSizeIfKnown());
+		long expected = (long) n * (n - 1) / 2 - 500;
+		assertEquals(expected, map.keyStream().mapToLong(Integer::longValue).sum());
+		assertEquals(expected, map.parallelKeyStream().mapToLong(Integer::longValue).sum());
+		assertEquals(expected, map.parallelValueStream().mapToLong(Long::parseLong).sum());
+
+		// the halves of a split cover disjoint ranges of buckets
+		Spliterator<interfaces.Entry<Integer, String>> rest = map.entrySpliterator();
+		Spliterator<interfaces.Entry<Integer, String>> prefix = rest.trySplit();
+		assertNotNull(prefix);
+		assertFalse(rest.hasCharacteristics(Spliterator.SIZED));
+		List<Integer> keys = new ArrayList<>();
+		prefix.forEachRemaining(e -> keys.add(e.getKey()));
+		rest.forEachRemaining(e -> keys.add(e.getKey()));
+		assertEquals(n - 1, keys.stream().distinct().count());
+		assertEquals(map.keyStream().collect(Collectors.toList()), keys);
+	}
+
+	@Test
+	void testResize() {
+		ChainHashMap<Integer, Integer> map = new ChainHashMap<Integer, Integer>();
+		java.util.HashMap<Integer, Integer> expected = new java.util.HashMap<>();
+		java.util.Random random = new java.util.Random(22);
+		for (int i = 0; i < 100000; i++) {
+			int key = random.nextInt();
+			assertEquals(expected.put(key, i), map.put(key, i));
+			assertTrue(map.loadFactor() <= 0.5);
+			if (i % 9973 == 0) {
+				// iterating mid-rehash sees every entry once
+				assertEquals(expected.size(), map.entryStream().count());
+			}
+		}
+		assertTrue(map.capacity >= 2 * map.size());
+		for (Integer key : expected.keySet()) {
+			assertEquals(expected.get(key), map.get(key));
+		}
+		List<Integer> keys = new ArrayList<>(expected.keySet());
+		for (int i = 0; i < keys.size(); i++) {
+			assertEquals(expected.remove(keys.get(i)), map.remove(keys.get(i)));
+			if (i % 9973 == 0) {
+				assertEquals(expected.size(), map.keyStream().distinct().count());
+			}
+		}
+		assertEquals(0, map.size());
+		assertTrue(map.capacity < 17 * 2, "shrinks back, to " + map.capacity);
+	}
+
+	@Test
+	void testNoOperationDrainsRehash() {
+		int[] drains = new int[1];
+		List<AbstractHashMap<Integer, Integer>> maps = List.of(
+				new ChainHashMap<Integer, Integer>() {
+					protected void finishRehash() {
+						if (isRehashing()) drains[0]++;
+						super.finishRehash();
+					}
+				},
+				new ProbeHashMap<Integer, Integer>(16, HashStrategy.mad(109345121), ProbeHashMap.Probing.QUADRATIC) {
+					protected void finishRehash() {
+						if (isRehashing()) drains[0]++;
+						super.finishRehash();
+					}
+				});
+		for (AbstractHashMap<Integer, Integer> map : maps) {
+			java.util.Random random = new java.util.Random(22);
+			java.util.HashSet<Integer> keys = new java.util.HashSet<>();     // so the test need not iterate the map
+			for (int round = 0; round < 4; round++) {
+				for (int i = 0; i < 50000; i++) {
+					int key = random.nextInt(1000000);
+					map.put(key, i);
+					keys.add(key);
+				}
+				for (int i = 0; i < 50000; i++) {
+					int key = random.nextInt(1000000);
+					map.remove(key);
+					keys.remove(key);
+				}
+				for (int key : keys) {
+					assertNotNull(map.remove(key));
+				}
+				keys.clear();
+			}
+			assertEquals(0, map.size());
+			assertTrue(map.capacity < 17 * 2, "shrinks back, to " + map.capacity);
+		}
+		assertEquals(0, drains[0]);
+	}
+
+	@Test
+	void testSingleLookupWrites() {
+		ChainHashMap<Integer, Integer> map = new ChainHashMap<Integer, Integer>();
+		checkSingleLookupWrites(map, "ChainHashMap");
+		assertNull(map.computeIfAbsent(-1, k -> null));
+		assertNull(map.get(-1));
+	}
+
+	/**
+	 * Runs random removes, putIfAbsents, computeIfAbsents and merges on the map
+	 * and on a java.util.HashMap, checking that they agree; shared with
+	 * ProbeHashMapTest.
+	 */
+	static void checkSingleLookupWrites(AbstractHashMap<Integer, Integer> map, String name) {
+		java.util.HashMap<Integer, Integer> expected = new java.util.HashMap<>();
+		java.util.Random random = new java.util.Random(24);
+		java.util.function.BiFunction<Integer, Integer, Integer> sumOrNull = (a, b) -> (a + b) % 5 == 0 ? null : a + b;
+		for (int step = 0; step < 50000; step++) {
+			int key = random.nextInt(2000);
+			switch (random.nextInt(4)) {
+				case 0 -> assertEquals(expected.remove(key), map.remove(key), name + " remove " + key);
+				case 1 -> assertEquals(expected.putIfAbsent(key, step), map.putIfAbsent(key, step), name + " putIfAbsent " + key);
+				case 2 -> assertEquals(expected.computeIfAbsent(key, k -> k + 1), map.computeIfAbsent(key, k -> k + 1), name + " computeIfAbsent " + key);
+				default -> assertEquals(expected.merge(key, step, sumOrNull), map.merge(key, step, sumOrNull), name + " merge " + key);
+			}
+			assertEquals(expected.size(), map.size(), name);
+		}
+		for (int key = 0; key < 2000; key++) {
+			assertEquals(expected.get(key), map.get(key), name + " get " + key);
+		}
+	}
+
 }
@@ -0,0 +1,98 @@
+package hashtable;
+
+import java.security.SecureRandom;
+import java.util.Random;
+
+/**
+ * How an AbstractHashMap turns the hash code of a key into the index of a
+ * bucket, and which table lengths it needs to do so.
+ * <p>
+ * mad() is the original compression, (|a h + b| mod p) mod N, which works for
+ * any table length but costs a long multiplication and two divisions.
+ * powerOfTwo() scrambles the hash code with the MurmurHash3 finalizer and keeps
+ * its low bits, which takes a few shifts and multiplications but needs tables
+ * whose length is a power of two. seeded() does the same with a secret random
+ * seed mixed in, so that which keys share a bucket cannot be worked out in
+ * advance; keys with equal hash codes still collide under every strategy.
+ */
+public interface HashStrategy {
+
+    /**
+     * Returns the length to use for a table that needs at least m buckets.
+     *
+     * @param m the least number of buckets
+     * @return a table length of at least m that this strategy supports
+     */
+    int capacityAtLeast(int m);
+
+    /**
+     * Returns the index of the bucket for a key with the given hash code.
+     *
+     * @param hashCode the hash code of the key
+     * @param capacity the length of the table, as returned by capacityAtLeast
+     * @return an index in [0, capacity)
+     */
+    int bucket(int hashCode, int capacity);
+
+    /** Returns the MAD method with the given prime factor and a random scale and shift. */
+    static HashStrategy mad(int prime) {
+        Random rand = new Random();
+        long scale = rand.nextInt(prime - 1) + 1;
+        long shift = rand.nextInt(prime);
+        return new HashStrategy() {
+            public int capacityAtLeast(int m) {
+                return m;
+            }
+
+            public int bucket(int hashCode, int capacity) {
+                return (int) ((Math.abs(hashCode * scale + shift) % prime) % capacity);
+            }
+        };
+    }
+
+    /** Returns the MurmurHash3 finalizer over tables whose length is a power of two. */
+    static HashStrategy powerOfTwo() {
+        return new PowerOfTwo() {
+            public int bucket(int hashCode, int capacity) {
+                return mix(hashCode) & (capacity - 1);
+            }
+        };
+    }
+
+    /**
+     * Returns the 64-bit MurmurHash3 finalizer applied to the hash code plus a
+     * seed drawn from a SecureRandom, over tables whose length is a power of two.
+     */
+    static HashStrategy seeded() {
+        return seeded(new SecureRandom().nextLong());
+    }
+
+    /** Returns the seeded strategy with the given seed, for reproducible tests. */
+    static HashStrategy seeded(long seed) {
+        return new PowerOfTwo() {
+            public int bucket(int hashCode, int capacity) {
+                long z = hashCode + seed;
+                z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+                z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+                return (int) (z ^ (z >>> 33)) & (capacity - 1);
+            }
+        };
+    }
+
+    /** The finalization step of MurmurHash3, which spreads every input bit over the output. */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /** The part shared by the strategies over tables whose length is a power of two. */
+    abstract class PowerOfTwo implements HashStrategy {
+        public int capacityAtLeast(int m) {
+            return m <= 1 ? 1 : Integer.highestOneBit(m - 1) << 1;
+        }
+    }
+}
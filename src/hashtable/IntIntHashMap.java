@@ -0,0 +1,255 @@
+package hashtable;
+
+import java.util.Arrays;
+
+/**
+ * A map from int keys to int values stored in two parallel int arrays, eight
+ * bytes per slot, so that neither get nor put allocates. An absent key reads
+ * as 0, which suits counters: addTo(key, 1) counts an occurrence of key with
+ * a single probe.
+ */
+public class IntIntHashMap extends PrimitiveHashTable {
+
+    /** An action on the entries of an IntIntHashMap. */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(int key, int value);
+    }
+
+    private int[] keys;
+    private int[] values;
+    private int zeroValue;          // value of key 0, if hasZero
+
+    /** Creates a map with capacity 16, hashed by HashStrategy.powerOfTwo(). */
+    public IntIntHashMap() {
+        this(16);
+    }
+
+    /** Creates a map with at least the given capacity, hashed by HashStrategy.powerOfTwo(). */
+    public IntIntHashMap(int cap) {
+        this(cap, HashStrategy.powerOfTwo());
+    }
+
+    /** Creates a map with at least the given capacity, hashed by the given strategy. */
+    public IntIntHashMap(int cap, HashStrategy strategy) {
+        super(cap, strategy);
+        keys = new int[capacity];
+        values = new int[capacity];
+    }
+
+    /**
+     * Returns the slot holding nonzero key k if found, and otherwise -(e + 1),
+     * where e is the empty slot that ends its probe sequence.
+     */
+    private int find(int k) {
+        int j = strategy.bucket(k, capacity);
+        while (true) {
+            int key = keys[j];
+            if (key == k) {
+                return j;
+            }
+            if (key == 0) {
+                return -j - 1;
+            }
+            j = next(j);
+        }
+    }
+
+    /**
+     * Tests whether the map has an entry with the given key.
+     *
+     * @param key the key of interest
+     * @return true if the key is in the map
+     */
+    public boolean containsKey(int key) {
+        return key == 0 ? hasZero : find(key) >= 0;
+    }
+
+    /**
+     * Returns the value associated with the given key, or 0 if there is none.
+     *
+     * @param key the key of interest
+     * @return the associated value, or 0 if no such entry exists
+     */
+    public int get(int key) {
+        return getOrDefault(key, 0);
+    }
+
+    /**
+     * Returns the value associated with the given key, or the given default if
+     * there is none.
+     *
+     * @param key          the key of interest
+     * @param defaultValue the value to return if the key is absent
+     * @return the associated value, or defaultValue if no such entry exists
+     */
+    public int getOrDefault(int key, int defaultValue) {
+        if (key == 0) {
+            return hasZero ? zeroValue : defaultValue;
+        }
+        int j = find(key);
+        return j < 0 ? defaultValue : values[j];
+    }
+
+    /**
+     * Associates the given value with the given key, returning the previous
+     * value, or 0 if there was none.
+     *
+     * @param key   key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with the key (or 0, if no such entry)
+     */
+    public int put(int key, int value) {
+        if (key == 0) {
+            int old = hasZero ? zeroValue : 0;
+            hasZero = true;
+            zeroValue = value;
+            return old;
+        }
+        int j = find(key);
+        if (j >= 0) {
+            int old = values[j];
+            values[j] = value;
+            return old;
+        }
+        j = -j - 1;
+        keys[j] = key;
+        values[j] = value;
+        added();
+        return 0;
+    }
+
+    /**
+     * Adds delta to the value associated with the given key, taking an absent
+     * key to have value 0.
+     *
+     * @param key   the key of interest
+     * @param delta the amount to add
+     * @return the new value associated with the key
+     */
+    public int addTo(int key, int delta) {
+        if (key == 0) {
+            zeroValue = hasZero ? zeroValue + delta : delta;
+            hasZero = true;
+            return zeroValue;
+        }
+        int j = find(key);
+        if (j >= 0) {
+            return values[j] += delta;
+        }
+        j = -j - 1;
+        keys[j] = key;
+        values[j] = delta;
+        added();
+        return delta;
+    }
+
+    /**
+     * Removes the entry with the given key, if present, returning its value, or
+     * 0 if there was none.
+     *
+     * @param key the key whose entry is to be removed
+     * @return the previous value associated with the key (or 0, if no such entry)
+     */
+    public int remove(int key) {
+        if (key == 0) {
+            int old = hasZero ? zeroValue : 0;
+            hasZero = false;
+            return old;
+        }
+        int j = find(key);
+        if (j < 0) {
+            return 0;
+        }
+        int old = values[j];
+        closeGap(j);
+        n--;
+        return old;
+    }
+
+    /**
+     * Empties slot j, moving each following entry up to an empty slot that
+     * would no longer be reached past the gap into it, as ProbeHashMap does.
+     */
+    private void closeGap(int j) {
+        for (int k = next(j); keys[k] != 0; k = next(k)) {
+            if (unreachable(strategy.bucket(keys[k], capacity), j, k)) {
+                keys[j] = keys[k];
+                values[j] = values[k];
+                j = k;
+            }
+        }
+        keys[j] = 0;
+    }
+
+    @Override
+    void rehash() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[capacity];
+        values = new int[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            int key = oldKeys[i];
+            if (key != 0) {
+                int j = strategy.bucket(key, capacity);
+                while (keys[j] != 0) {
+                    j = next(j);
+                }
+                keys[j] = key;
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    /** Removes every entry, keeping the current capacity. */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        n = 0;
+        hasZero = false;
+    }
+
+    /**
+     * Performs the given action on each entry, in no particular order. The map
+     * must not be modified by the action.
+     *
+     * @param action the action to be performed on each entry
+     */
+    public void forEach(EntryConsumer action) {
+        if (hasZero) {
+            action.accept(0, zeroValue);
+        }
+        for (int j = 0; j < keys.length; j++) {
+            if (keys[j] != 0) {
+                action.accept(keys[j], values[j]);
+            }
+        }
+    }
+
+    /**
+     * Returns the keys of the map, in no particular order.
+     *
+     * @return a new array of the keys
+     */
+    public int[] keys() {
+        int[] result = new int[size()];
+        int i = 0;
+        if (hasZero) {
+            result[i++] = 0;
+        }
+        for (int key : keys) {
+            if (key != 0) {
+                result[i++] = key;
+            }
+        }
+        return result;
+    }
+
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((key, value) -> {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(key).append('=').append(value);
+        });
+        return sb.append("}").toString();
+    }
+}
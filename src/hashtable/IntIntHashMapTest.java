@@ -0,0 +1,56 @@
+package hashtable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntIntHashMapTest {
+
+	@Test
+	void testMatchesHashMap() {
+		IntIntHashMap map = new IntIntHashMap(4);
+		java.util.HashMap<Integer, Integer> expected = new java.util.HashMap<>();
+		java.util.Random random = new java.util.Random(25);
+		for (int step = 0; step < 100000; step++) {
+			int key = random.nextInt(4000) - 2000;          // includes 0 and negative keys
+			switch (random.nextInt(3)) {
+				case 0 -> assertEquals(orZero(expected.remove(key)), map.remove(key), "remove " + key);
+				case 1 -> assertEquals(orZero(expected.put(key, step)), map.put(key, step), "put " + key);
+				default -> assertEquals(expected.merge(key, 1, Integer::sum), map.addTo(key, 1), "addTo " + key);
+			}
+			assertEquals(expected.size(), map.size());
+		}
+		for (int key = -2000; key < 2000; key++) {
+			assertEquals(expected.containsKey(key), map.containsKey(key));
+			assertEquals(orZero(expected.get(key)), map.get(key));
+			assertEquals(expected.getOrDefault(key, -1), map.getOrDefault(key, -1));
+		}
+		java.util.HashMap<Integer, Integer> seen = new java.util.HashMap<>();
+		map.forEach(seen::put);
+		assertEquals(expected, seen);
+		int[] keys = map.keys();
+		Arrays.sort(keys);
+		assertArrayEquals(expected.keySet().stream().mapToInt(Integer::intValue).sorted().toArray(), keys);
+		assertTrue(map.loadFactor() <= 0.5);
+	}
+
+	@Test
+	void testClear() {
+		IntIntHashMap map = new IntIntHashMap();
+		for (int i = 0; i < 100; i++) {
+			map.put(i, i);
+		}
+		map.clear();
+		assertTrue(map.isEmpty());
+		assertFalse(map.containsKey(0));
+		assertEquals(0, map.get(50));
+		map.put(7, 8);
+		assertEquals("{7=8}", map.toString());
+	}
+
+	private static int orZero(Integer value) {
+		return value == null ? 0 : value;
+	}
+}
@@ -0,0 +1,180 @@
+package hashtable;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A set of int values stored in a single int array, four bytes per slot, so
+ * that neither contains nor add allocates.
+ */
+public class IntSet extends PrimitiveHashTable {
+
+    private int[] keys;
+
+    /** Creates a set with capacity 16, hashed by HashStrategy.powerOfTwo(). */
+    public IntSet() {
+        this(16);
+    }
+
+    /** Creates a set with at least the given capacity, hashed by HashStrategy.powerOfTwo(). */
+    public IntSet(int cap) {
+        this(cap, HashStrategy.powerOfTwo());
+    }
+
+    /** Creates a set with at least the given capacity, hashed by the given strategy. */
+    public IntSet(int cap, HashStrategy strategy) {
+        super(cap, strategy);
+        keys = new int[capacity];
+    }
+
+    /**
+     * Returns the slot holding nonzero value k if found, and otherwise -(e + 1),
+     * where e is the empty slot that ends its probe sequence.
+     */
+    private int find(int k) {
+        int j = strategy.bucket(k, capacity);
+        while (true) {
+            int key = keys[j];
+            if (key == k) {
+                return j;
+            }
+            if (key == 0) {
+                return -j - 1;
+            }
+            j = next(j);
+        }
+    }
+
+    /**
+     * Tests whether the set contains the given value.
+     *
+     * @param value the value of interest
+     * @return true if the value is in the set
+     */
+    public boolean contains(int value) {
+        return value == 0 ? hasZero : find(value) >= 0;
+    }
+
+    /**
+     * Adds the given value to the set, if not already present.
+     *
+     * @param value the value to add
+     * @return true if the set did not already contain the value
+     */
+    public boolean add(int value) {
+        if (value == 0) {
+            boolean added = !hasZero;
+            hasZero = true;
+            return added;
+        }
+        int j = find(value);
+        if (j >= 0) {
+            return false;
+        }
+        keys[-j - 1] = value;
+        added();
+        return true;
+    }
+
+    /**
+     * Removes the given value from the set, if present.
+     *
+     * @param value the value to remove
+     * @return true if the set contained the value
+     */
+    public boolean remove(int value) {
+        if (value == 0) {
+            boolean removed = hasZero;
+            hasZero = false;
+            return removed;
+        }
+        int j = find(value);
+        if (j < 0) {
+            return false;
+        }
+        closeGap(j);
+        n--;
+        return true;
+    }
+
+    /**
+     * Empties slot j, moving each following value up to an empty slot that
+     * would no longer be reached past the gap into it, as ProbeHashMap does.
+     */
+    private void closeGap(int j) {
+        for (int k = next(j); keys[k] != 0; k = next(k)) {
+            if (unreachable(strategy.bucket(keys[k], capacity), j, k)) {
+                keys[j] = keys[k];
+                j = k;
+            }
+        }
+        keys[j] = 0;
+    }
+
+    @Override
+    void rehash() {
+        int[] oldKeys = keys;
+        keys = new int[capacity];
+        for (int key : oldKeys) {
+            if (key != 0) {
+                int j = strategy.bucket(key, capacity);
+                while (keys[j] != 0) {
+                    j = next(j);
+                }
+                keys[j] = key;
+            }
+        }
+    }
+
+    /** Removes every value, keeping the current capacity. */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        n = 0;
+        hasZero = false;
+    }
+
+    /**
+     * Performs the given action on each value, in no particular order. The set
+     * must not be modified by the action.
+     *
+     * @param action the action to be performed on each value
+     */
+    public void forEach(IntConsumer action) {
+        if (hasZero) {
+            action.accept(0);
+        }
+        for (int key : keys) {
+            if (key != 0) {
+                action.accept(key);
+            }
+        }
+    }
+
+    /**
+     * Returns the values of the set, in no particular order.
+     *
+     * @return a new array of the values
+     */
+    public int[] toArray() {
+        int[] result = new int[size()];
+        int i = 0;
+        if (hasZero) {
+            result[i++] = 0;
+        }
+        for (int key : keys) {
+            if (key != 0) {
+                result[i++] = key;
+            }
+        }
+        return result;
+    }
+
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        forEach(value -> {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(value);
+        });
+        return sb.append("]").toString();
+    }
+}
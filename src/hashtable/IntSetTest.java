@@ -0,0 +1,38 @@
+package hashtable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntSetTest {
+
+	@Test
+	void testMatchesHashSet() {
+		IntSet set = new IntSet(4);
+		java.util.HashSet<Integer> expected = new java.util.HashSet<>();
+		java.util.Random random = new java.util.Random(25);
+		for (int step = 0; step < 100000; step++) {
+			int value = random.nextInt(4000) - 2000;
+			if (random.nextBoolean()) {
+				assertEquals(expected.add(value), set.add(value), "add " + value);
+			} else {
+				assertEquals(expected.remove(value), set.remove(value), "remove " + value);
+			}
+			assertEquals(expected.size(), set.size());
+		}
+		for (int value = -2000; value < 2000; value++) {
+			assertEquals(expected.contains(value), set.contains(value));
+		}
+		java.util.HashSet<Integer> seen = new java.util.HashSet<>();
+		set.forEach(seen::add);
+		assertEquals(expected, seen);
+		int[] values = set.toArray();
+		Arrays.sort(values);
+		assertArrayEquals(expected.stream().mapToInt(Integer::intValue).sorted().toArray(), values);
+		set.clear();
+		assertTrue(set.isEmpty());
+		assertEquals("[]", set.toString());
+	}
+}
@@ -0,0 +1,277 @@
+package hashtable;
+
+import java.util.Arrays;
+import java.util.function.LongFunction;
+
+/**
+ * A map from long keys to object values stored in a long array and a parallel
+ * array of references, so that the keys are never boxed and neither get nor
+ * put allocates. An absent key reads as null.
+ *
+ * @param <V> the type of the values
+ */
+public class LongObjectHashMap<V> extends PrimitiveHashTable {
+
+    /** An action on the entries of a LongObjectHashMap. */
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(long key, V value);
+    }
+
+    private long[] keys;
+    private Object[] values;
+    private V zeroValue;            // value of key 0, if hasZero
+
+    /** Creates a map with capacity 16, hashed by HashStrategy.powerOfTwo(). */
+    public LongObjectHashMap() {
+        this(16);
+    }
+
+    /** Creates a map with at least the given capacity, hashed by HashStrategy.powerOfTwo(). */
+    public LongObjectHashMap(int cap) {
+        this(cap, HashStrategy.powerOfTwo());
+    }
+
+    /**
+     * Creates a map with at least the given capacity, hashed by the given
+     * strategy applied to Long.hashCode of the keys.
+     */
+    public LongObjectHashMap(int cap, HashStrategy strategy) {
+        super(cap, strategy);
+        keys = new long[capacity];
+        values = new Object[capacity];
+    }
+
+    /** Returns the home slot of key k. */
+    private int home(long k) {
+        return strategy.bucket(Long.hashCode(k), capacity);
+    }
+
+    /**
+     * Returns the slot holding nonzero key k if found, and otherwise -(e + 1),
+     * where e is the empty slot that ends its probe sequence.
+     */
+    private int find(long k) {
+        int j = home(k);
+        while (true) {
+            long key = keys[j];
+            if (key == k) {
+                return j;
+            }
+            if (key == 0) {
+                return -j - 1;
+            }
+            j = next(j);
+        }
+    }
+
+    @SuppressWarnings({"unchecked"})
+    private V valueAt(int j) {
+        return (V) values[j];
+    }
+
+    /**
+     * Tests whether the map has an entry with the given key.
+     *
+     * @param key the key of interest
+     * @return true if the key is in the map
+     */
+    public boolean containsKey(long key) {
+        return key == 0 ? hasZero : find(key) >= 0;
+    }
+
+    /**
+     * Returns the value associated with the given key, or null if there is none.
+     *
+     * @param key the key of interest
+     * @return the associated value, or null if no such entry exists
+     */
+    public V get(long key) {
+        if (key == 0) {
+            return zeroValue;
+        }
+        int j = find(key);
+        return j < 0 ? null : valueAt(j);
+    }
+
+    /**
+     * Associates the given value with the given key, returning the previous
+     * value, or null if there was none.
+     *
+     * @param key   key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with the key (or null, if no such entry)
+     */
+    public V put(long key, V value) {
+        if (key == 0) {
+            V old = zeroValue;
+            hasZero = true;
+            zeroValue = value;
+            return old;
+        }
+        int j = find(key);
+        if (j >= 0) {
+            V old = valueAt(j);
+            values[j] = value;
+            return old;
+        }
+        j = -j - 1;
+        keys[j] = key;
+        values[j] = value;
+        added();
+        return null;
+    }
+
+    /**
+     * Returns the value associated with the given key. If there is none (or it is
+     * null), computes one with the given function and, unless that is null,
+     * associates it with the key. The function must not modify this map.
+     *
+     * @param key      the key of interest
+     * @param function computes a value for the key
+     * @return the current (existing or computed) value associated with the key,
+     *         or null if the computed value is null
+     */
+    public V computeIfAbsent(long key, LongFunction<? extends V> function) {
+        if (key == 0) {
+            if (zeroValue != null) {
+                return zeroValue;
+            }
+            V value = function.apply(key);
+            if (value != null) {
+                hasZero = true;
+                zeroValue = value;
+            }
+            return value;
+        }
+        int j = find(key);
+        if (j >= 0 && values[j] != null) {
+            return valueAt(j);
+        }
+        V value = function.apply(key);
+        if (value != null) {
+            if (j >= 0) {
+                values[j] = value;
+            } else {
+                j = -j - 1;
+                keys[j] = key;
+                values[j] = value;
+                added();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Removes the entry with the given key, if present, returning its value, or
+     * null if there was none.
+     *
+     * @param key the key whose entry is to be removed
+     * @return the previous value associated with the key (or null, if no such entry)
+     */
+    public V remove(long key) {
+        if (key == 0) {
+            V old = zeroValue;
+            hasZero = false;
+            zeroValue = null;
+            return old;
+        }
+        int j = find(key);
+        if (j < 0) {
+            return null;
+        }
+        V old = valueAt(j);
+        closeGap(j);
+        n--;
+        return old;
+    }
+
+    /**
+     * Empties slot j, moving each following entry up to an empty slot that
+     * would no longer be reached past the gap into it, as ProbeHashMap does.
+     */
+    private void closeGap(int j) {
+        for (int k = next(j); keys[k] != 0; k = next(k)) {
+            if (unreachable(home(keys[k]), j, k)) {
+                keys[j] = keys[k];
+                values[j] = values[k];
+                j = k;
+            }
+        }
+        keys[j] = 0;
+        values[j] = null;           // lets the value be collected
+    }
+
+    @Override
+    void rehash() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != 0) {
+                int j = home(key);
+                while (keys[j] != 0) {
+                    j = next(j);
+                }
+                keys[j] = key;
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    /** Removes every entry, keeping the current capacity. */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, null);
+        n = 0;
+        hasZero = false;
+        zeroValue = null;
+    }
+
+    /**
+     * Performs the given action on each entry, in no particular order. The map
+     * must not be modified by the action.
+     *
+     * @param action the action to be performed on each entry
+     */
+    public void forEach(EntryConsumer<? super V> action) {
+        if (hasZero) {
+            action.accept(0, zeroValue);
+        }
+        for (int j = 0; j < keys.length; j++) {
+            if (keys[j] != 0) {
+                action.accept(keys[j], valueAt(j));
+            }
+        }
+    }
+
+    /**
+     * Returns the keys of the map, in no particular order.
+     *
+     * @return a new array of the keys
+     */
+    public long[] keys() {
+        long[] result = new long[size()];
+        int i = 0;
+        if (hasZero) {
+            result[i++] = 0;
+        }
+        for (long key : keys) {
+            if (key != 0) {
+                result[i++] = key;
+            }
+        }
+        return result;
+    }
+
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((key, value) -> {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(key).append('=').append(value);
+        });
+        return sb.append("}").toString();
+    }
+}
@@ -0,0 +1,48 @@
+package hashtable;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongObjectHashMapTest {
+
+	@Test
+	void testMatchesHashMap() {
+		LongObjectHashMap<String> map = new LongObjectHashMap<>(4);
+		java.util.HashMap<Long, String> expected = new java.util.HashMap<>();
+		java.util.Random random = new java.util.Random(25);
+		for (int step = 0; step < 100000; step++) {
+			long key = (random.nextInt(4000) - 2000) * 0x100000001L;   // includes 0 and keys differing in the high bits
+			switch (random.nextInt(3)) {
+				case 0 -> assertEquals(expected.remove(key), map.remove(key), "remove " + key);
+				case 1 -> assertEquals(expected.put(key, "v" + step), map.put(key, "v" + step), "put " + key);
+				default -> assertEquals(expected.computeIfAbsent(key, k -> "c" + k), map.computeIfAbsent(key, k -> "c" + k), "computeIfAbsent " + key);
+			}
+			assertEquals(expected.size(), map.size());
+		}
+		for (long i = -2000; i < 2000; i++) {
+			long key = i * 0x100000001L;
+			assertEquals(expected.containsKey(key), map.containsKey(key));
+			assertEquals(expected.get(key), map.get(key));
+		}
+		java.util.HashMap<Long, String> seen = new java.util.HashMap<>();
+		map.forEach(seen::put);
+		assertEquals(expected, seen);
+		assertEquals(expected.size(), map.keys().length);
+	}
+
+	@Test
+	void testNullValues() {
+		LongObjectHashMap<String> map = new LongObjectHashMap<>();
+		for (long key = 0; key < 3; key++) {
+			assertNull(map.put(key, null));
+			assertTrue(map.containsKey(key));
+			assertNull(map.computeIfAbsent(key, k -> null));
+			assertTrue(map.containsKey(key));
+			assertEquals("x", map.computeIfAbsent(key, k -> "x"));
+		}
+		assertEquals(3, map.size());
+		assertNull(map.computeIfAbsent(5, k -> null));
+		assertFalse(map.containsKey(5));
+	}
+}
@@ -0,0 +1,75 @@
+package hashtable;
+
+/**
+ * The part shared by the hash tables of primitive keys, IntIntHashMap,
+ * LongObjectHashMap and IntSet. Each keeps its keys, and its values if any, in
+ * flat arrays probed linearly, with no object per entry. The key 0 marks an
+ * empty slot, so an entry whose key is 0 is kept in fields of its own instead.
+ * <p>
+ * As in ProbeHashMap the load factor is kept at most 1/2, so a probe sequence
+ * always ends at an empty slot; removals close the gap by moving later entries
+ * back. The table doubles, rehashing all entries at once, when it passes half
+ * full, and never shrinks; clear() empties it but keeps its capacity.
+ */
+abstract class PrimitiveHashTable {
+    final HashStrategy strategy;
+    int capacity;                   // length of the arrays
+    int n;                          // number of entries in the arrays, not counting key 0
+    boolean hasZero;                // whether key 0 is present
+
+    /**
+     * Sets the capacity to the least the strategy allows of at least cap; the
+     * subclass then creates arrays of that length.
+     */
+    PrimitiveHashTable(int cap, HashStrategy strategy) {
+        this.strategy = strategy;
+        this.capacity = strategy.capacityAtLeast(Math.max(cap, 2));
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return number of entries
+     */
+    public int size() {
+        return n + (hasZero ? 1 : 0);
+    }
+
+    /**
+     * Tests whether there are no entries.
+     *
+     * @return true if there are no entries
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /** Returns the fraction of the slots in use. */
+    public double loadFactor() {
+        return (double) n / capacity;
+    }
+
+    /** Returns the slot after j, wrapping around at the end of the table. */
+    final int next(int j) {
+        return j + 1 == capacity ? 0 : j + 1;
+    }
+
+    /**
+     * Tests whether an entry with home slot h, found in slot k, would no longer
+     * be reached past a gap at slot j, and so must move into it.
+     */
+    final boolean unreachable(int h, int j, int k) {
+        return j <= k ? h <= j || k < h : h <= j && k < h;
+    }
+
+    /** Counts an entry just stored in the arrays, doubling them if more than half full. */
+    final void added() {
+        if (++n > capacity / 2) {
+            capacity = strategy.capacityAtLeast(2 * capacity);
+            rehash();
+        }
+    }
+
+    /** Moves every entry into new arrays whose length is the current capacity. */
+    abstract void rehash();
+}
@@ -1,77 +1,462 @@
 package hashtable;
 
 import interfaces.Entry;
-import interfaces.Position;
 import utils.MapEntry;
 
-import java.io.IOException;
-import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/*
+ * Map implementation using hash table with open addressing.
+ */
 
 public class ProbeHashMap<K extends Comparable<K>, V> extends AbstractHashMap<K, V> {
+
+    /** How the slots after a key's home slot are searched. */
+    public enum Probing {
+        /** Tries the following slots in turn; removals shift later entries back. */
+        LINEAR,
+        /**
+         * Tries the slots at distances 1, 3, 6, 10, ... from the home slot, which
+         * breaks up clusters; removals leave a DEFUNCT marker, and the markers are
+         * cleared by rehashing the table once they take up a quarter of it.
+         */
+        QUADRATIC,
+        /**
+         * Linear probing where an entry being inserted takes the slot of any entry
+         * closer to its own home slot, which evens out probe lengths and lets a
+         * search for an absent key stop early; removals shift later entries back.
+         */
+        ROBIN_HOOD
+    }
+
     private MapEntry<K, V>[] table;
-    private MapEntry<K,V> DEFUNCT = new MapEntry<>(null, null);
+    private int[] home;                 // home[j] is the hash value of the entry in table[j]
+    private final MapEntry<K, V> DEFUNCT = new MapEntry<>(null, null);
+    private int defunct;                // number of DEFUNCT markers in the table
+    private MapEntry<K, V>[] oldTable;  // being emptied into table, or null
+    private int[] oldHome;
+    private final Probing probing;
+
+    /** Creates a linear probing hash table with capacity 16, hashed by HashStrategy.powerOfTwo(). */
     public ProbeHashMap() {
-        super();
+        this(Probing.LINEAR);
     }
 
-    /** Creates a hash table with given capacity and prime factor 109345121. */
+    /** Creates a linear probing hash table with at least the given capacity, hashed by HashStrategy.powerOfTwo(). */
     public ProbeHashMap(int cap) {
-        super(cap);
+        this(cap, Probing.LINEAR);
     }
 
-    /** Creates a hash table with the given capacity and prime factor. */
+    /**
+     * Creates a linear probing hash table with at least the given capacity and
+     * MAD compression with the given prime factor.
+     */
     public ProbeHashMap(int cap, int p) {
         super(cap, p);
+        this.probing = Probing.LINEAR;
+    }
+
+    /**
+     * Creates a hash table with capacity 16, hashed by HashStrategy.powerOfTwo(),
+     * probing as given.
+     */
+    public ProbeHashMap(Probing probing) {
+        super();
+        this.probing = probing;
+    }
+
+    /**
+     * Creates a hash table with at least the given capacity, hashed by
+     * HashStrategy.powerOfTwo(), probing as given.
+     */
+    public ProbeHashMap(int cap, Probing probing) {
+        super(cap);
+        this.probing = probing;
+    }
+
+    /**
+     * Creates a hash table with at least the given capacity, hashed by the given
+     * strategy, probing as given.
+     */
+    public ProbeHashMap(int cap, HashStrategy strategy, Probing probing) {
+        super(cap, strategy);
+        this.probing = probing;
+    }
+
+    /** Returns the probing scheme of this table. */
+    public Probing getProbing() {
+        return probing;
     }
+
+    /** Creates an empty table having length equal to current capacity. */
     @Override
+    @SuppressWarnings({"unchecked"})
     protected void createTable() {
         table = new MapEntry[capacity];
+        home = new int[capacity];
+        defunct = 0;
+    }
+
+    /** Returns the slot probed i-th, in a table of length cap, for a key whose home slot is h. */
+    private int probe(int h, int i, int cap) {
+        long j = probing == Probing.QUADRATIC ? h + (long) i * (i + 1) / 2 : h + i;
+        return (int) (j % cap);
+    }
+
+    /** Returns how many slots past its home slot the entry in slot j lies, under linear probing. */
+    private int distance(int j) {
+        int d = j - home[j];
+        return d < 0 ? d + capacity : d;
     }
 
+    /**
+     * Searches for key k, whose hash value is h. Returns the slot holding k if
+     * found, and otherwise -(a + 1), where a is the first available slot of the
+     * probe sequence (or capacity, if the sequence reaches none).
+     */
     int findSlot(int h, K k) {
-        // TODO
-        return 0;
+        int avail = -1;
+        for (int i = 0; i < capacity; i++) {
+            int j = probe(h, i, capacity);
+            MapEntry<K, V> e = table[j];
+            if (e == null) {
+                return -(avail == -1 ? j : avail) - 1;
+            }
+            if (e == DEFUNCT) {
+                if (avail == -1) avail = j;
+            } else if (home[j] == h && e.getKey().equals(k)) {
+                return j;
+            } else if (probing == Probing.ROBIN_HOOD && distance(j) < i) {
+                return -j - 1;                  // k would have taken this slot
+            }
+        }
+        return -(avail == -1 ? capacity : avail) - 1;
+    }
 
+    /**
+     * Searches for key k in the probe sequence from slot h, returning the slot
+     * holding k, or else -(a + 1) for the slot a where k would be added, as
+     * findSlot does.
+     */
+    @Override
+    protected int locate(int h, K k) {
+        return findSlot(h, k);
     }
+
     @Override
-    protected V bucketGet(int h, K k) {
-        // TODO
-        return null;
+    protected V valueAt(int h, int loc) {
+        return table[loc].getValue();
     }
 
     @Override
-    protected V bucketPut(int h, K k, V v) {
-        // TODO
-        return null;
+    protected V replaceAt(int h, int loc, V v) {
+        return table[loc].setValue(v);
     }
 
+    /**
+     * Adds an entry with key k and value v at the available slot encoded by
+     * loc. If the probe sequence reached no available slot, the table is first
+     * grown and k located again in the new table, which the entries of the old
+     * one join incrementally as usual. That cannot happen while the table is at
+     * most half full: quadratic probing reaches every slot of a power-of-two
+     * capacity, and more than half of the slots of a prime one.
+     */
     @Override
-    protected V bucketRemove(int h, K k) {
-        // TODO
-        return null;
+    protected void insertAt(int h, int loc, K k, V v) {
+        while (-(loc + 1) == capacity) {
+            resize(capacityAtLeast(2 * capacity));
+            h = hashValue(k);
+            loc = findSlot(h, k);
+        }
+        place(-(loc + 1), h, new MapEntry<>(k, v));
+        n++;
     }
 
-    /** Returns true if location is either empty or the "defunct" sentinel. */
-    private boolean isAvailable(int j) {
-        // TODO
-        return false;
+    /**
+     * Stores entry e, whose hash value is h, at the available slot j found for
+     * it by findSlot.
+     */
+    private void place(int j, int h, MapEntry<K, V> e) {
+        if (probing == Probing.ROBIN_HOOD) {
+            insert(j, h, e);
+        } else {
+            if (table[j] == DEFUNCT) {
+                defunct--;
+            }
+            table[j] = e;
+            home[j] = h;
+        }
     }
-    
+
+    /**
+     * Places entry e, whose hash value is h, at slot j, Robin Hood style: the
+     * entries from j up to the next empty slot each move one slot on. Entries
+     * stay sorted by home slot, which is the arrangement Robin Hood insertion
+     * maintains.
+     */
+    private void insert(int j, int h, MapEntry<K, V> e) {
+        while (e != null) {
+            MapEntry<K, V> displaced = table[j];
+            int displacedHome = home[j];
+            table[j] = e;
+            home[j] = h;
+            e = displaced;
+            h = displacedHome;
+            j = j + 1 == capacity ? 0 : j + 1;
+        }
+    }
+
+    /** Empties slot loc in the manner of the probing scheme, returning the value it held. */
     @Override
-    public Iterable<Entry<K,V>> entrySet() {
-        // TODO
-        return null;
+    protected V removeAt(int h, int loc) {
+        V old = table[loc].getValue();
+        n--;
+        switch (probing) {
+            case QUADRATIC -> {
+                table[loc] = DEFUNCT;
+                if (++defunct > capacity / 4 && !isRehashing()) {
+                    resize(capacityAtLeast(capacity));   // rehashing in place drops the markers
+                }
+            }
+            case ROBIN_HOOD -> shiftBack(loc);
+            default -> closeGap(loc);
+        }
+        return old;
+    }
+
+    /**
+     * Empties slot j under Robin Hood probing by moving each following entry
+     * that is not in its home slot one slot back, up to an empty slot or an
+     * entry at home.
+     */
+    private void shiftBack(int j) {
+        int next = j + 1 == capacity ? 0 : j + 1;
+        while (table[next] != null && distance(next) > 0) {
+            table[j] = table[next];
+            home[j] = home[next];
+            j = next;
+            next = j + 1 == capacity ? 0 : j + 1;
+        }
+        table[j] = null;
+    }
+
+    /**
+     * Empties slot j under linear probing. Each following entry up to an empty
+     * slot whose home slot does not lie between the gap and itself would no
+     * longer be found past the gap, so it moves into the gap, leaving a new gap.
+     */
+    private void closeGap(int j) {
+        int k = j;
+        while (true) {
+            k = k + 1 == capacity ? 0 : k + 1;
+            if (table[k] == null) {
+                break;
+            }
+            int h = home[k];
+            boolean reachable = j <= k ? j < h && h <= k : j < h || h <= k;
+            if (!reachable) {
+                table[j] = table[k];
+                home[j] = h;
+                j = k;
+            }
+        }
+        table[j] = null;
+    }
+
+    @Override
+    protected void beginRehash() {
+        oldTable = table;
+        oldHome = home;
+        createTable();
+    }
+
+    /** Moves the entry in slot j of the old table, if any, to the new table. */
+    @Override
+    protected void rehashBucket(int j) {
+        MapEntry<K, V> e = oldTable[j];
+        if (e != null && e != DEFUNCT) {
+            oldTable[j] = DEFUNCT;          // keeps later searches of the old table going
+            int h = hashValue(e.getKey());
+            place(-(findSlot(h, e.getKey()) + 1), h, e);
+        }
+    }
+
+    /**
+     * Moves the entry having key k, if any, from the old table to the new table,
+     * searching the old table along the probe sequence of k.
+     */
+    @Override
+    protected void rehashKey(int h, K k) {
+        int oldCapacity = oldTable.length;
+        for (int i = 0; i < oldCapacity; i++) {
+            int j = probe(h, i, oldCapacity);
+            MapEntry<K, V> e = oldTable[j];
+            if (e == null) {
+                return;
+            }
+            if (e != DEFUNCT && oldHome[j] == h && e.getKey().equals(k)) {
+                rehashBucket(j);
+                return;
+            }
+        }
+    }
+
+    @Override
+    protected void endRehash() {
+        oldTable = null;
+        oldHome = null;
+    }
+
+    /**
+     * Returns the capacity chosen by the hash strategy if it is a power of two,
+     * where quadratic probing reaches every slot, and otherwise the least prime
+     * at least as large, where it reaches half of the slots and so finds a free
+     * one while the load stays under 1/2.
+     */
+    @Override
+    protected int capacityAtLeast(int m) {
+        int cap = super.capacityAtLeast(m);
+        return Integer.bitCount(cap) == 1 ? cap : nextPrime(cap);
+    }
+
+    /** Returns the least prime at least m. */
+    private static int nextPrime(int m) {
+        for (; ; m++) {
+            boolean prime = m > 1;
+            for (int d = 2; prime && (long) d * d <= m; d++) {
+                prime = m % d != 0;
+            }
+            if (prime) {
+                return m;
+            }
+        }
+    }
+
+    // ---------------- nested EntrySpliterator class ----------------
+    /**
+     * A spliterator over the slots table[index, fence), which splits by halving
+     * the range of slots, as the chained table's does by buckets.
+     */
+    private class EntrySpliterator implements Spliterator<Entry<K, V>> {
+        private int index;                          // next slot to visit
+        private final int fence;                    // one past the last slot
+        private long est;                           // size estimate
+        private boolean whole;                      // true until the first split
+
+        EntrySpliterator(int index, int fence, long est, boolean whole) {
+            this.index = index;
+            this.fence = fence;
+            this.est = est;
+            this.whole = whole;
+        }
+
+        public boolean tryAdvance(Consumer<? super Entry<K, V>> action) {
+            while (index < fence) {
+                MapEntry<K, V> e = table[index++];
+                if (e != null && e != DEFUNCT) {
+                    action.accept(e);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public void forEachRemaining(Consumer<? super Entry<K, V>> action) {
+            for (; index < fence; index++) {
+                MapEntry<K, V> e = table[index];
+                if (e != null && e != DEFUNCT) {
+                    action.accept(e);
+                }
+            }
+        }
+
+        public Spliterator<Entry<K, V>> trySplit() {
+            int mid = (index + fence) >>> 1;
+            if (mid <= index) {
+                return null;
+            }
+            est >>>= 1;
+            whole = false;
+            EntrySpliterator prefix = new EntrySpliterator(index, mid, est, false);
+            index = mid;
+            return prefix;
+        }
+
+        public long estimateSize() {
+            return est;
+        }
+
+        public int characteristics() {
+            return (whole ? Spliterator.SIZED : 0) | Spliterator.DISTINCT | Spliterator.NONNULL;
+        }
+    } // ----------- end of nested EntrySpliterator class -----------
+
+    // ---------------- nested EntryIterable class ----------------
+    private class EntryIterable implements Iterable<Entry<K, V>> {
+        public Iterator<Entry<K, V>> iterator() {
+            return Spliterators.iterator(spliterator());
+        }
+
+        @Override
+        public Spliterator<Entry<K, V>> spliterator() {
+            finishRehash();
+            return new EntrySpliterator(0, table.length, n, true);
+        }
+
+        public String toString() {
+            StringBuilder sb = new StringBuilder("[");
+            for (Entry<K, V> e : this) {
+                if (sb.length() > 1) sb.append(", ");
+                sb.append(e);
+            }
+            return sb.append("]").toString();
+        }
+    } // ----------- end of nested EntryIterable class -----------
+
+    /**
+     * Returns an iterable collection of all key-value entries of the map.
+     * Entries are produced lazily, slot by slot; the map must not be modified
+     * during an iteration.
+     *
+     * @return iterable collection of the map's entries
+     */
+    @Override
+    public Iterable<Entry<K, V>> entrySet() {
+        return new EntryIterable();
+    }
+
+    /**
+     * Returns a spliterator that splits the table by ranges of slots.
+     */
+    @Override
+    protected Spliterator<Entry<K, V>> entrySpliterator() {
+        return new EntryIterable().spliterator();
     }
 
     @Override
     public double loadFactor() {
-        // TODO
-        return 0;
+        return ((double) n / capacity);
     }
 
+    /**
+     * Returns the number of entries not stored in their home slot.
+     */
     @Override
     public int numCollisions() {
-        // TODO
-        return 0;
+        finishRehash();
+        int collisions = 0;
+        for (int j = 0; j < capacity; j++) {
+            if (table[j] != null && table[j] != DEFUNCT && home[j] != j) {
+                collisions++;
+            }
+        }
+        return collisions;
+    }
+
+    public String toString() {
+        return entrySet().toString();
     }
 }
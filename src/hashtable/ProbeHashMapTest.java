@@ -7,6 +7,7 @@ import priorityqueue.DefaultComparator;
 import java.util.ArrayList;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ProbeHashMapTest {
 
@@ -118,4 +119,55 @@ class ProbeHashMapTest {
 		assertEquals("[0, 1, 2, 3, 4, 5, 6, 7, 8, 9]", buf.toString());
 	}
 
+	@Test
+	void testProbingMatchesHashMap() {
+		for (ProbeHashMap.Probing probing : ProbeHashMap.Probing.values()) {
+			ProbeHashMap<Integer, Integer> map = new ProbeHashMap<>(10, probing);
+			java.util.HashMap<Integer, Integer> expected = new java.util.HashMap<>();
+			java.util.Random random = new java.util.Random(21);
+			for (int step = 0; step < 50000; step++) {
+				int key = random.nextInt(2000);
+				if (random.nextInt(3) == 0) {
+					assertEquals(expected.remove(key), map.remove(key), probing + " remove " + key);
+				} else {
+					assertEquals(expected.put(key, step), map.put(key, step), probing + " put " + key);
+				}
+				assertEquals(expected.size(), map.size());
+				if (step % 997 == 0) {
+					assertEquals(expected.size(), map.entryStream().count());
+				}
+			}
+			for (int key = 0; key < 2000; key++) {
+				assertEquals(expected.get(key), map.get(key), probing + " get " + key);
+			}
+			int count = 0;
+			for (Entry<Integer, Integer> entry : map.entrySet()) {
+				assertEquals(expected.get(entry.getKey()), entry.getValue());
+				count++;
+			}
+			assertEquals(expected.size(), count);
+			assertTrue(map.loadFactor() <= 0.5);
+			assertTrue(map.numCollisions() < map.size());
+		}
+	}
+
+	@Test
+	void testDefunctSlotsAreReclaimed() {
+		ProbeHashMap<Integer, Integer> map = new ProbeHashMap<>(ProbeHashMap.Probing.QUADRATIC);
+		int capacity = map.capacity;
+		for (int i = 0; i < 100000; i++) {
+			map.put(i, i);
+			assertEquals(i, map.remove(i));
+		}
+		assertEquals(0, map.size());
+		assertEquals(capacity, map.capacity);      // emptied slots were reused, never grown into
+	}
+
+	@Test
+	void testSingleLookupWrites() {
+		for (ProbeHashMap.Probing probing : ProbeHashMap.Probing.values()) {
+			ChainHashMapTest.checkSingleLookupWrites(new ProbeHashMap<>(10, probing), probing.toString());
+		}
+	}
+
 }
@@ -9,6 +9,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.function.Consumer;
 
 /**
  * An implementation of a map using an unsorted table.
@@ -22,9 +23,9 @@ public class UnsortedTableMap<K extends Comparable<K>, V> extends AbstractMap<K,
 	public UnsortedTableMap() {
 	}
 
-	// private utility
+	// utilities, also used by ChainHashMap to search each bucket once
 	/** Returns the index of an entry with equal key, or -1 if none found. */
-	private int findIndex(K key) {
+	int indexOf(K key) {
 		int i = 0;
 		while (i < table.size()) {
 			if (table.get(i).getKey().equals(key)){
@@ -35,6 +36,34 @@ public class UnsortedTableMap<K extends Comparable<K>, V> extends AbstractMap<K,
 		return -1;
 	}
 
+	/** Returns the value of the entry at index i. */
+	V valueAt(int i) {
+		return table.get(i).getValue();
+	}
+
+	/** Replaces the value of the entry at index i, returning the old value. */
+	V setValueAt(int i, V value) {
+		return table.get(i).setValue(value);
+	}
+
+	/** Adds an entry for a key known not to be in the map. */
+	void add(K key, V value) {
+		table.add(new MapEntry<>(key, value));
+	}
+
+	/**
+	 * Removes the entry at index i, returning its value. The last entry takes
+	 * its place, so no other entries move.
+	 */
+	V removeAt(int i) {
+		V oldValue = table.get(i).getValue();
+		MapEntry<K, V> last = table.remove(table.size() - 1);
+		if (i < table.size()) {
+			table.set(i, last);
+		}
+		return oldValue;
+	}
+
 	// public methods
 	/**
 	 * Returns the number of entries in the map.
@@ -55,11 +84,11 @@ public class UnsortedTableMap<K extends Comparable<K>, V> extends AbstractMap<K,
 	 */
 	@Override
 	public V get(K key) {
-		int index = findIndex(key);
+		int index = indexOf(key);
 		if (index == -1) {
 			return null;
 		}
-		return table.get(index).getValue();
+		return valueAt(index);
 	}
 
 	/**
@@ -74,13 +103,13 @@ public class UnsortedTableMap<K extends Comparable<K>, V> extends AbstractMap<K,
 	 */
 	@Override
 	public V put(K key, V value) {
-		int n = findIndex(key);
+		int n = indexOf(key);
 		if (n == -1) {
-			table.add(new MapEntry<>(key, value));
+			add(key, value);
 			return null;
 		}
 		else {
-			return table.get(n).setValue(value);
+			return setValueAt(n, value);
 		}
 	}
 
@@ -94,12 +123,11 @@ public class UnsortedTableMap<K extends Comparable<K>, V> extends AbstractMap<K,
 	 */
 	@Override
 	public V remove(K key) {
-		if (table.get(findIndex(key)) != null) {
-			V oldValue = table.get(findIndex(key)).getValue();
-			table.remove(findIndex(key));
-			return oldValue;
+		int n = indexOf(key);
+		if (n == -1) {
+			return null;
 		}
-		return null;
+		return removeAt(n);
 	}
 
 	// ---------------- nested EntryIterator class ----------------
@@ -139,6 +167,18 @@ public class UnsortedTableMap<K extends Comparable<K>, V> extends AbstractMap<K,
 		return new EntryIterable();
 	}
 	
+	/**
+	 * Performs the given action on each entry, in table order, without creating
+	 * an iterator; used by ChainHashMap to stream its buckets.
+	 *
+	 * @param action the action to be performed on each entry
+	 */
+	void forEachEntry(Consumer<? super Entry<K, V>> action) {
+		for (int j = 0; j < table.size(); j++) {
+			action.accept(table.get(j));
+		}
+	}
+
 	public String toString() {
 		return table.toString();
 	}
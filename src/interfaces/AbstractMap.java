@@ -1,6 +1,10 @@
 package interfaces;
 
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * An abstract base class to ease the implementation of the Map interface.
@@ -9,7 +13,9 @@ import java.util.Iterator;
  * implementation based upon the abstract size() method. 2) It defines a
  * protected MapEntry class as a concrete implementation of the entry interface
  * 3) It provides implemenations of the keySet and values methods, based upon
- * use of a presumed implementation of the entrySet method.
+ * use of a presumed implementation of the entrySet method. 4) It provides
+ * sequential and parallel streams of the entries, keys and values, based upon
+ * an entrySpliterator() that subclasses may override to split without copying.
  *
  */
 public abstract class AbstractMap<K, V> implements Map<K, V> {
@@ -97,4 +103,70 @@ public abstract class AbstractMap<K, V> implements Map<K, V> {
 	public Iterable<V> values() {
 		return new ValueIterable();
 	}
+
+	/**
+	 * Returns a spliterator over the entries of the map, used by the stream
+	 * methods. The default walks entrySet() and reports the size of the map, but
+	 * can only split by copying a batch of entries into an array; subclasses
+	 * whose structure can be divided in place should override it.
+	 *
+	 * @return spliterator over the map's entries
+	 */
+	protected Spliterator<Entry<K, V>> entrySpliterator() {
+		return Spliterators.spliterator(entrySet().iterator(), size(), Spliterator.DISTINCT | Spliterator.NONNULL);
+	}
+
+	/**
+	 * Returns a sequential stream of the entries of the map.
+	 *
+	 * @return stream of the map's entries
+	 */
+	public Stream<Entry<K, V>> entryStream() {
+		return StreamSupport.stream(entrySpliterator(), false);
+	}
+
+	/**
+	 * Returns a parallel stream of the entries of the map.
+	 *
+	 * @return parallel stream of the map's entries
+	 */
+	public Stream<Entry<K, V>> parallelEntryStream() {
+		return StreamSupport.stream(entrySpliterator(), true);
+	}
+
+	/**
+	 * Returns a sequential stream of the keys of the map.
+	 *
+	 * @return stream of the map's keys
+	 */
+	public Stream<K> keyStream() {
+		return entryStream().map(Entry::getKey);
+	}
+
+	/**
+	 * Returns a parallel stream of the keys of the map.
+	 *
+	 * @return parallel stream of the map's keys
+	 */
+	public Stream<K> parallelKeyStream() {
+		return parallelEntryStream().map(Entry::getKey);
+	}
+
+	/**
+	 * Returns a sequential stream of the values of the map.
+	 *
+	 * @return stream of the map's values
+	 */
+	public Stream<V> valueStream() {
+		return entryStream().map(Entry::getValue);
+	}
+
+	/**
+	 * Returns a parallel stream of the values of the map.
+	 *
+	 * @return parallel stream of the map's values
+	 */
+	public Stream<V> parallelValueStream() {
+		return parallelEntryStream().map(Entry::getValue);
+	}
 }
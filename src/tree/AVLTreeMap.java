@@ -2,10 +2,14 @@ package tree;
 
 import interfaces.Entry;
 import interfaces.Position;
+import tree.BalanceableBinaryTree.Leaves;
+import utils.MapEntry;
 
 import java.io.IOException;
 import java.util.Comparator;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 
 /**
@@ -28,6 +32,93 @@ public class AVLTreeMap<K extends Comparable<K>, V> extends TreeMap<K, V> {
 		super(comp);
 	}
 
+	/**
+	 * Constructs an empty map using the natural ordering of keys, whose tree
+	 * represents missing children as given.
+	 *
+	 * @param leaves the representation of missing children
+	 */
+	public AVLTreeMap(Leaves leaves) {
+		super(leaves);
+	}
+
+	/** The number of keys below which a parallel build stops forking tasks. */
+	private static final int PARALLEL_GRAIN = 1 << 13;
+
+	/**
+	 * Builds a map from keys given in strictly increasing order, pairing keys[i]
+	 * with values[i]; see fromSorted(K[], V[], Leaves, ForkJoinPool).
+	 *
+	 * @param keys   the keys, in strictly increasing order
+	 * @param values the values associated with the keys
+	 * @return a map holding the given entries
+	 * @throws IllegalArgumentException if the arrays differ in length or the keys
+	 *                                  are not strictly increasing
+	 */
+	public static <K extends Comparable<K>, V> AVLTreeMap<K, V> fromSorted(K[] keys, V[] values) throws IllegalArgumentException {
+		return fromSorted(keys, values, Leaves.SENTINEL, null);
+	}
+
+	/**
+	 * Builds a map from keys given in strictly increasing order, with the work
+	 * spread over the given pool; see fromSorted(K[], V[], Leaves, ForkJoinPool).
+	 */
+	public static <K extends Comparable<K>, V> AVLTreeMap<K, V> fromSorted(K[] keys, V[] values, ForkJoinPool pool) throws IllegalArgumentException {
+		return fromSorted(keys, values, Leaves.SENTINEL, pool);
+	}
+
+	/**
+	 * Builds a map from keys given in strictly increasing order, pairing keys[i]
+	 * with values[i], whose tree represents missing children as given. The
+	 * middle key becomes the root and each half is built the same way, so the
+	 * tree is perfectly balanced and is built in O(n) time, instead of the
+	 * O(n log n) of n insertions. If pool is not null, the two halves of large
+	 * ranges are built by separate ForkJoin tasks.
+	 *
+	 * @param keys   the keys, in strictly increasing order
+	 * @param values the values associated with the keys
+	 * @param leaves the representation of missing children
+	 * @param pool   the pool running the build, or null to build sequentially
+	 * @return a map holding the given entries
+	 * @throws IllegalArgumentException if the arrays differ in length or the keys
+	 *                                  are not strictly increasing
+	 */
+	public static <K extends Comparable<K>, V> AVLTreeMap<K, V> fromSorted(K[] keys, V[] values, Leaves leaves, ForkJoinPool pool) throws IllegalArgumentException {
+		if (keys.length != values.length) {
+			throw new IllegalArgumentException("Keys and values differ in length");
+		}
+		AVLTreeMap<K, V> map = new AVLTreeMap<>(leaves);
+		if (keys.length > 0) {
+			map.tree.setRootNode(pool == null
+					? map.build(keys, values, 0, keys.length, false)
+					: pool.invoke(ForkJoinTask.adapt(() -> map.build(keys, values, 0, keys.length, true))));
+		}
+		return map;
+	}
+
+	/** Returns the root of a balanced tree holding the entries with indices in [lo, hi). */
+	private LinkedBinaryTree.Node<Entry<K, V>> build(K[] keys, V[] values, int lo, int hi, boolean fork) {
+		if (lo >= hi) {
+			return null;
+		}
+		int mid = (lo + hi) >>> 1;
+		if (mid > 0 && compare(keys[mid - 1], keys[mid]) >= 0) {    // each index is a middle once
+			throw new IllegalArgumentException("Keys must be in strictly increasing order");
+		}
+		LinkedBinaryTree.Node<Entry<K, V>> left, right;
+		if (fork && hi - lo > PARALLEL_GRAIN) {
+			ForkJoinTask<LinkedBinaryTree.Node<Entry<K, V>>> task = ForkJoinTask.adapt(() -> build(keys, values, lo, mid, true)).fork();
+			right = build(keys, values, mid + 1, hi, true);
+			left = task.join();
+		} else {
+			left = build(keys, values, lo, mid, false);
+			right = build(keys, values, mid + 1, hi, false);
+		}
+		LinkedBinaryTree.Node<Entry<K, V>> n = tree.link(tree.createNode(new MapEntry<>(keys[mid], values[mid]), null, null, null), left, right);
+		tree.setAux(n, 1 + Math.max(height(n.getLeft()), height(n.getRight())));
+		return n;
+	}
+
 	public static void main(String [] args) throws IOException {
 		AVLTreeMap<Integer, String> map = new AVLTreeMap<>();
 		Integer[] arr = new Integer[]{35, 26, 15};//, 24, 33, 4, 12, 1, 23, 21, 2, 5};
@@ -48,15 +139,11 @@ public class AVLTreeMap<K extends Comparable<K>, V> extends TreeMap<K, V> {
 	 * Recomputes the height of the given position based on its children's heights.
 	 */
 	protected void recomputeHeight(Position<Entry<K, V>> p) {
-		int leftHeight = -1;
-		int rightHeight = -1;
-		if (tree.left(p) != null) {
-			leftHeight = height(tree.left(p));
-		}
-		if (tree.right(p) != null) {
-			rightHeight = height(tree.right(p));
+		int h = 0;                     // a position holding no entry has height 0
+		if (tree.isInternal(p)) {      // a missing (null) child also reads as height 0
+			h = 1 + Math.max(height(tree.left(p)), height(tree.right(p)));
 		}
-		tree.setAux(p, 1 + Math.max(leftHeight, rightHeight));
+		tree.setAux(p, h);
 	}
 
 	/** Returns whether a position has balance factor between -1 and 1 inclusive. */
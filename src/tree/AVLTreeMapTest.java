@@ -10,6 +10,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class AVLTreeMapTest {
 
@@ -230,4 +231,62 @@ class AVLTreeMapTest {
 		assertEquals("[12, 15, 21, 23, 24, 26, 33]", map.subMap(12, 34).toString());
 	}
 
+	@Test
+	void testNullLeaves() throws IOException {
+		AVLTreeMap<Integer, String> map = new AVLTreeMap<>(BalanceableBinaryTree.Leaves.NULL);
+		TreeMapTest.assertMatchesJdk(map, 7);
+		assertMatchesSentinelShape(new AVLTreeMap<>(), new AVLTreeMap<>(BalanceableBinaryTree.Leaves.NULL));
+	}
+
+	@Test
+	void testFromSorted() throws IOException {
+		Integer[] keys = new Integer[50_000];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = 2 * i;
+		}
+		java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(4);
+		for (AVLTreeMap<Integer, Integer> map : List.of(AVLTreeMap.fromSorted(keys, keys),
+				AVLTreeMap.fromSorted(keys, keys, pool),
+				AVLTreeMap.fromSorted(keys, keys, BalanceableBinaryTree.Leaves.NULL, pool))) {
+			assertEquals(keys.length, map.size());
+			assertEquals(16, map.height(map.tree.root()));          // ceil(log2(50001))
+			for (var p : map.tree.preorder()) {
+				if (map.tree.isInternal(p)) {
+					assertEquals(true, map.isBalanced(p));
+				}
+			}
+			assertEquals(500, map.get(500));
+			assertNull(map.get(501));
+
+			// the result is an ordinary AVL tree that accepts further updates
+			map.put(501, 501);
+			map.remove(500);
+			assertEquals(501, map.ceilingEntry(500).getKey());
+			assertEquals(keys.length, map.size());
+		}
+		assertThrows(IllegalArgumentException.class, () -> AVLTreeMap.fromSorted(new Integer[]{1, 3, 2}, new Integer[]{1, 3, 2}));
+		Integer[] unsorted = keys.clone();
+		unsorted[30_000] = unsorted[29_999];
+		assertThrows(IllegalArgumentException.class, () -> AVLTreeMap.fromSorted(unsorted, unsorted, pool));
+		assertEquals(0, AVLTreeMap.fromSorted(new Integer[0], new Integer[0], pool).size());
+		pool.shutdown();
+	}
+
+	/** Both representations must rebalance into the same shape. */
+	private static void assertMatchesSentinelShape(AVLTreeMap<Integer, String> sentinel, AVLTreeMap<Integer, String> nulls) throws IOException {
+		for (int i = 0; i < 500; i++) {
+			int key = i * 37 % 211;
+			if (i % 4 == 3) {
+				sentinel.remove(key / 2);
+				nulls.remove(key / 2);
+			} else {
+				sentinel.put(key, "v");
+				nulls.put(key, "v");
+			}
+		}
+		assertEquals(sentinel.tree.root().getElement().getKey(), nulls.tree.root().getElement().getKey());
+		assertEquals(sentinel.tree.height(sentinel.tree.root()) - 1, nulls.tree.height(nulls.tree.root()));
+		assertEquals(sentinel.tree.getRotations(), nulls.tree.getRotations());
+	}
+
 }
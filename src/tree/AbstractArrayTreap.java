@@ -0,0 +1,317 @@
+package tree;
+
+import interfaces.Entry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * An abstract base class for treaps whose nodes live in parallel arrays rather
+ * than in linked node objects.
+ * <p>
+ * Node i stores its value in values[i], its priority in priority[i] and the
+ * indices of its relatives in left[i], right[i] and parent[i] (NIL when
+ * absent). No sentinel leaves are stored. Slots of removed entries are chained
+ * through the left array into a free list and reused by later insertions, so
+ * the arrays only grow when every slot is in use.
+ * <p>
+ * The base class owns the shape of the tree: slot allocation, rotations,
+ * linking a new node and removing one. Subclasses own the key storage and the
+ * searches over it: each constructor creates a key array the length of values
+ * after calling super, and the subclass provides growKeys(capacity),
+ * clearKey(x), entry(x), and the key-based methods of the SortedMap interface.
+ */
+public abstract class AbstractArrayTreap<K, V> extends AbstractSortedMap<K, V> {
+
+    /** Index used to mark a missing node. */
+    protected static final int NIL = -1;
+
+    protected static final int DEFAULT_CAPACITY = 16;
+
+    protected V[] values;
+    protected int[] priority;
+    protected int[] left;
+    protected int[] right;
+    protected int[] parent;
+
+    protected int root = NIL;   // index of the root node
+    protected int n = 0;        // number of entries in the map
+    private int used = 0;       // slots [0, used) have been handed out at least once
+    private int free = NIL;     // head of the free list of removed slots
+
+    private final Random random = new Random();
+
+    /**
+     * Initializes empty arrays with the given number of slots; the subclass then
+     * creates its key array, the length of values.
+     *
+     * @param capacity initial number of slots
+     */
+    protected AbstractArrayTreap(int capacity) {
+        super();
+        allocate(Math.max(1, capacity));
+    }
+
+    /**
+     * Initializes empty arrays with the given number of slots and the comparator
+     * for the map; the subclass then creates its key array, the length of values.
+     *
+     * @param comp     comparator defining the order of keys in the map
+     * @param capacity initial number of slots
+     */
+    protected AbstractArrayTreap(Comparator<K> comp, int capacity) {
+        super(comp);
+        allocate(Math.max(1, capacity));
+    }
+
+    @SuppressWarnings({"unchecked"})
+    private void allocate(int capacity) {
+        values = (V[]) new Object[capacity];
+        priority = new int[capacity];
+        left = new int[capacity];
+        right = new int[capacity];
+        parent = new int[capacity];
+    }
+
+    /** Doubles the length of every array. */
+    private void grow() {
+        int capacity = 2 * values.length;
+        values = Arrays.copyOf(values, capacity);
+        priority = Arrays.copyOf(priority, capacity);
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        parent = Arrays.copyOf(parent, capacity);
+        growKeys(capacity);
+    }
+
+    // protected abstract methods to be implemented by subclasses
+
+    /** Resizes the key storage to hold the given number of slots. */
+    protected abstract void growKeys(int capacity);
+
+    /** Clears the key stored in slot x (so it can be garbage collected). */
+    protected abstract void clearKey(int x);
+
+    // structural utilities for subclasses
+
+    /**
+     * Returns a free slot holding the given value and a fresh priority. The
+     * caller stores the key in the returned slot and then links it with link().
+     */
+    protected int newNode(V value) {
+        int x;
+        if (free != NIL) {
+            x = free;
+            free = left[x];
+        } else {
+            if (used == values.length) {
+                grow();
+            }
+            x = used++;
+        }
+        values[x] = value;
+        priority[x] = random.nextInt();
+        left[x] = right[x] = parent[x] = NIL;
+        return x;
+    }
+
+    /**
+     * Links the new node x as a child of p (or as the root, if p is NIL) and
+     * rotates it up until the heap property is restored.
+     *
+     * @param p      the last node reached by the search for x's key
+     * @param asLeft whether x becomes the left child of p
+     * @param x      a slot returned by newNode()
+     */
+    protected void link(int p, boolean asLeft, int x) {
+        parent[x] = p;
+        if (p == NIL) {
+            root = x;
+        } else if (asLeft) {
+            left[p] = x;
+        } else {
+            right[p] = x;
+        }
+        n++;
+        while (parent[x] != NIL && priority[parent[x]] < priority[x]) {
+            rotate(x);
+        }
+    }
+
+    /**
+     * Removes node x from the tree, returns its slot to the free list and
+     * returns the value it held.
+     */
+    protected V removeNode(int x) {
+        V old = values[x];
+        // rotate x down below its higher priority child until it is a leaf
+        while (left[x] != NIL || right[x] != NIL) {
+            int c;
+            if (left[x] == NIL) {
+                c = right[x];
+            } else if (right[x] == NIL) {
+                c = left[x];
+            } else {
+                c = priority[left[x]] >= priority[right[x]] ? left[x] : right[x];
+            }
+            rotate(c);
+        }
+        int p = parent[x];
+        if (p == NIL) {
+            root = NIL;
+        } else if (left[p] == x) {
+            left[p] = NIL;
+        } else {
+            right[p] = NIL;
+        }
+        clearKey(x);
+        values[x] = null;           // help the garbage collector
+        left[x] = free;
+        free = x;
+        n--;
+        return old;
+    }
+
+    /**
+     * Rotates node x above its parent, keeping the BST order.
+     * Caller should ensure that x is not the root.
+     */
+    protected void rotate(int x) {
+        int y = parent[x];
+        int z = parent[y];
+        if (x == left[y]) {
+            left[y] = right[x];
+            if (right[x] != NIL) parent[right[x]] = y;
+            right[x] = y;
+        } else {
+            right[y] = left[x];
+            if (left[x] != NIL) parent[left[x]] = y;
+            left[x] = y;
+        }
+        parent[y] = x;
+        parent[x] = z;
+        if (z == NIL) {
+            root = x;
+        } else if (left[z] == y) {
+            left[z] = x;
+        } else {
+            right[z] = x;
+        }
+    }
+
+    /** Returns the slot with the least key in the subtree rooted at x. */
+    protected int min(int x) {
+        while (left[x] != NIL) {
+            x = left[x];
+        }
+        return x;
+    }
+
+    /** Returns the slot with the greatest key in the subtree rooted at x. */
+    protected int max(int x) {
+        while (right[x] != NIL) {
+            x = right[x];
+        }
+        return x;
+    }
+
+    /** Returns the inorder successor of x, or NIL if x holds the greatest key. */
+    protected int successor(int x) {
+        if (right[x] != NIL) {
+            return min(right[x]);
+        }
+        int p = parent[x];
+        while (p != NIL && x == right[p]) {
+            x = p;
+            p = parent[p];
+        }
+        return p;
+    }
+
+    /** Wraps the contents of slot x into an entry (or returns null for NIL). */
+    protected abstract Entry<K, V> entry(int x);
+
+    // public methods
+
+    /**
+     * Returns the number of entries in the map.
+     *
+     * @return number of entries in the map
+     */
+    @Override
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Returns the number of slots currently allocated in the arrays.
+     *
+     * @return length of the parallel arrays
+     */
+    public int capacity() {
+        return values.length;
+    }
+
+    /**
+     * Returns the entry having the least key (or null if map is empty).
+     *
+     * @return entry with least key (or null if map is empty)
+     */
+    @Override
+    public Entry<K, V> firstEntry() {
+        return root == NIL ? null : entry(min(root));
+    }
+
+    /**
+     * Returns the entry having the greatest key (or null if map is empty).
+     *
+     * @return entry with greatest key (or null if map is empty)
+     */
+    @Override
+    public Entry<K, V> lastEntry() {
+        return root == NIL ? null : entry(max(root));
+    }
+
+    /**
+     * Returns an iterable collection of all key-value entries of the map.
+     *
+     * @return iterable collection of the map's entries
+     */
+    @Override
+    public Iterable<Entry<K, V>> entrySet() {
+        ArrayList<Entry<K, V>> buffer = new ArrayList<>(n);
+        for (int x = root == NIL ? NIL : min(root); x != NIL; x = successor(x)) {
+            buffer.add(entry(x));
+        }
+        return buffer;
+    }
+
+    @Override
+    public double loadFactor() {
+        return 0;
+    }
+
+    @Override
+    public int numCollisions() {
+        return 0;
+    }
+
+    /**
+     * Returns true if every node's priority is at least that of its children.
+     */
+    public boolean checkHeap() {
+        for (int x = root == NIL ? NIL : min(root); x != NIL; x = successor(x)) {
+            if ((left[x] != NIL && priority[left[x]] > priority[x])
+                    || (right[x] != NIL && priority[right[x]] > priority[x])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String toString() {
+        return entrySet().toString();
+    }
+}
@@ -0,0 +1,243 @@
+package tree;
+
+import interfaces.Entry;
+import utils.MapEntry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * An implementation of a sorted map using a treap whose nodes live in parallel
+ * arrays rather than in linked node objects.
+ * <p>
+ * Node i stores its key in keys[i]; the value, priority and links of the node
+ * are kept by AbstractArrayTreap. No sentinel leaves and no per-entry objects
+ * are stored.
+ */
+public class ArrayTreap<K extends Comparable<K>, V> extends AbstractArrayTreap<K, V> {
+
+    private K[] keys;
+
+    /** Constructs an empty map using the natural ordering of keys. */
+    public ArrayTreap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty map with room for the given number of entries before
+     * the arrays have to grow.
+     *
+     * @param capacity initial number of slots
+     */
+    public ArrayTreap(int capacity) {
+        super(capacity);
+        keys = newKeys(values.length);
+    }
+
+    /**
+     * Constructs an empty map using the given comparator to order keys.
+     *
+     * @param comp comparator defining the order of keys in the map
+     */
+    public ArrayTreap(Comparator<K> comp) {
+        super(comp, DEFAULT_CAPACITY);
+        keys = newKeys(values.length);
+    }
+
+    @SuppressWarnings({"unchecked"})
+    private K[] newKeys(int capacity) {
+        return (K[]) new Comparable<?>[capacity];
+    }
+
+    @Override
+    protected void growKeys(int capacity) {
+        keys = Arrays.copyOf(keys, capacity);
+    }
+
+    @Override
+    protected void clearKey(int x) {
+        keys[x] = null;
+    }
+
+    @Override
+    protected Entry<K, V> entry(int x) {
+        return x == NIL ? null : new MapEntry<>(keys[x], values[x]);
+    }
+
+    /** Returns the slot holding key, or NIL if there is none. */
+    private int find(K key) {
+        int x = root;
+        while (x != NIL) {
+            int c = compare(key, keys[x]);
+            if (c == 0) {
+                return x;
+            }
+            x = c < 0 ? left[x] : right[x];
+        }
+        return NIL;
+    }
+
+    /**
+     * Returns the value associated with the specified key, or null if no such entry
+     * exists.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the associated value, or null if no such entry exists
+     */
+    @Override
+    public V get(K key) {
+        int x = find(key);
+        return x == NIL ? null : values[x];
+    }
+
+    /**
+     * Associates the given value with the given key. If an entry with the key was
+     * already in the map, this replaced the previous value with the new one and
+     * returns the old value. Otherwise, a new entry is added and null is returned.
+     *
+     * @param key   key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with the key (or null, if no such
+     *         entry)
+     */
+    @Override
+    public V put(K key, V value) {
+        int p = NIL;
+        int x = root;
+        int c = 0;
+        while (x != NIL) {
+            c = compare(key, keys[x]);
+            if (c == 0) {
+                V old = values[x];
+                values[x] = value;
+                return old;
+            }
+            p = x;
+            x = c < 0 ? left[x] : right[x];
+        }
+        x = newNode(value);
+        keys[x] = key;
+        link(p, c < 0, x);
+        return null;
+    }
+
+    /**
+     * Removes the entry with the specified key, if present, and returns its
+     * associated value. Otherwise does nothing and returns null.
+     *
+     * @param key the key whose entry is to be removed from the map
+     * @return the previous value associated with the removed key, or null if no
+     *         such entry exists
+     */
+    @Override
+    public V remove(K key) {
+        int x = find(key);
+        return x == NIL ? null : removeNode(x);
+    }
+
+    /** Returns the slot with least key greater than (or equal to, if inclusive) key. */
+    private int ceiling(K key, boolean inclusive) {
+        int x = root;
+        int best = NIL;
+        while (x != NIL) {
+            int c = compare(key, keys[x]);
+            if (c < 0 || (inclusive && c == 0)) {
+                best = x;
+                if (c == 0) {
+                    break;
+                }
+                x = left[x];
+            } else {
+                x = right[x];
+            }
+        }
+        return best;
+    }
+
+    /** Returns the slot with greatest key less than (or equal to, if inclusive) key. */
+    private int floor(K key, boolean inclusive) {
+        int x = root;
+        int best = NIL;
+        while (x != NIL) {
+            int c = compare(key, keys[x]);
+            if (c > 0 || (inclusive && c == 0)) {
+                best = x;
+                if (c == 0) {
+                    break;
+                }
+                x = right[x];
+            } else {
+                x = left[x];
+            }
+        }
+        return best;
+    }
+
+    // additional behaviors of the SortedMap interface
+
+    /**
+     * Returns the entry with least key greater than or equal to given key (or null
+     * if no such key exists).
+     *
+     * @return entry with least key greater than or equal to given (or null if no
+     *         such entry)
+     */
+    @Override
+    public Entry<K, V> ceilingEntry(K key) {
+        return entry(ceiling(key, true));
+    }
+
+    /**
+     * Returns the entry with greatest key less than or equal to given key (or null
+     * if no such key exists).
+     *
+     * @return entry with greatest key less than or equal to given (or null if no
+     *         such entry)
+     */
+    @Override
+    public Entry<K, V> floorEntry(K key) {
+        return entry(floor(key, true));
+    }
+
+    /**
+     * Returns the entry with greatest key strictly less than given key (or null if
+     * no such key exists).
+     *
+     * @return entry with greatest key strictly less than given (or null if no such
+     *         entry)
+     */
+    @Override
+    public Entry<K, V> lowerEntry(K key) {
+        return entry(floor(key, false));
+    }
+
+    /**
+     * Returns the entry with least key strictly greater than given key (or null if
+     * no such key exists).
+     *
+     * @return entry with least key strictly greater than given (or null if no such
+     *         entry)
+     */
+    @Override
+    public Entry<K, V> higherEntry(K key) {
+        return entry(ceiling(key, false));
+    }
+
+    /**
+     * Returns an iterable containing all entries with keys in the range from
+     * <code>fromKey</code> inclusive to <code>toKey</code> exclusive.
+     *
+     * @return iterable with keys in desired range
+     */
+    @Override
+    public Iterable<Entry<K, V>> subMap(K fromKey, K toKey) {
+        ArrayList<Entry<K, V>> buffer = new ArrayList<>();
+        if (compare(fromKey, toKey) < 0) {
+            for (int x = ceiling(fromKey, true); x != NIL && compare(keys[x], toKey) < 0; x = successor(x)) {
+                buffer.add(entry(x));
+            }
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,116 @@
+package tree;
+
+import interfaces.Entry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArrayTreapTest {
+
+    private ArrayTreap<Integer, String> sample() {
+        ArrayTreap<Integer, String> map = new ArrayTreap<>();
+        Integer[] arr = new Integer[] {35, 26, 15, 24, 33, 4, 12, 1, 23, 21, 2, 5};
+        for (Integer i : arr) {
+            map.put(i, Integer.toString(i));
+        }
+        return map;
+    }
+
+    @Test
+    void size() {
+        ArrayTreap<Integer, String> map = sample();
+        assertEquals(12, map.size());
+        map.remove(35);
+        assertEquals(11, map.size());
+        map.remove(100);
+        assertEquals(11, map.size());
+    }
+
+    @Test
+    void get() {
+        ArrayTreap<Integer, String> map = sample();
+        assertEquals("15", map.get(15));
+        assertEquals("24", map.get(24));
+        assertNull(map.get(-1));
+    }
+
+    @Test
+    void put() {
+        ArrayTreap<Integer, String> map = new ArrayTreap<>();
+        assertNull(map.put(10, "A"));
+        assertEquals("A", map.put(10, "B"));
+        assertEquals("B", map.get(10));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void remove() {
+        ArrayTreap<Integer, String> map = sample();
+        assertEquals("12", map.remove(12));
+        assertNull(map.get(12));
+        assertNull(map.remove(12));
+        assertTrue(map.checkHeap());
+    }
+
+    @Test
+    void reusesFreedSlots() {
+        ArrayTreap<Integer, Integer> map = new ArrayTreap<>(4);
+        for (int i = 0; i < 4; i++) {
+            map.put(i, i);
+        }
+        map.remove(1);
+        map.remove(2);
+        map.put(7, 7);
+        map.put(8, 8);
+        assertEquals(4, map.capacity());
+        map.put(9, 9);
+        assertEquals(8, map.capacity());
+        assertEquals(5, map.size());
+    }
+
+    @Test
+    void entrySet() {
+        ArrayTreap<Integer, String> map = sample();
+        List<Integer> keys = new ArrayList<>();
+        for (Entry<Integer, String> e : map.entrySet()) {
+            keys.add(e.getKey());
+        }
+        assertEquals(List.of(1, 2, 4, 5, 12, 15, 21, 23, 24, 26, 33, 35), keys);
+    }
+
+    @Test
+    void navigation() {
+        ArrayTreap<Integer, String> map = sample();
+        assertEquals(1, map.firstEntry().getKey());
+        assertEquals(35, map.lastEntry().getKey());
+        assertEquals(12, map.ceilingEntry(6).getKey());
+        assertEquals(12, map.ceilingEntry(12).getKey());
+        assertEquals(5, map.floorEntry(6).getKey());
+        assertEquals(5, map.lowerEntry(12).getKey());
+        assertEquals(15, map.higherEntry(12).getKey());
+        assertNull(map.higherEntry(35));
+        assertNull(map.lowerEntry(1));
+    }
+
+    @Test
+    void subMap() {
+        ArrayTreap<Integer, String> map = sample();
+        assertEquals("[12, 15, 21, 23, 24, 26, 33]", map.subMap(12, 34).toString());
+    }
+
+    @Test
+    void heapProperty() {
+        ArrayTreap<Integer, Integer> map = new ArrayTreap<>();
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+        for (int i = 0; i < 1000; i += 3) {
+            map.remove(i);
+        }
+        assertTrue(map.checkHeap());
+        assertEquals(666, map.size());
+    }
+}
@@ -0,0 +1,104 @@
+package tree;
+
+/**
+ * Describes how an AugmentedTreap summarizes its values and updates them in
+ * bulk.
+ * <p>
+ * Aggregates of type A form a monoid: combine is associative and identity() is
+ * its neutral element, so the aggregate of any range of values can be assembled
+ * from the aggregates of the subtrees covering it, in key order. Updates of type
+ * U act on values, and must act on aggregates consistently: applying an update
+ * to the aggregate of size values gives the aggregate of the updated values.
+ * compose merges two pending updates into one, so that an update waiting at a
+ * subtree root can absorb another in O(1) before either reaches the nodes below.
+ *
+ * @param <V> the type of the values
+ * @param <A> the type of the aggregates
+ * @param <U> the type of the updates
+ */
+public interface Augmentation<V, A, U> {
+
+    /** Returns the aggregate of no values. */
+    A identity();
+
+    /** Returns the aggregate of a single value. */
+    A of(V value);
+
+    /** Returns the aggregate of the values summarized by left followed by those summarized by right. */
+    A combine(A left, A right);
+
+    /** Returns value after update. */
+    V apply(U update, V value);
+
+    /** Returns the aggregate of size values summarized by aggregate, after update is applied to each. */
+    A apply(U update, A aggregate, int size);
+
+    /** Returns the update equivalent to first followed by second. */
+    U compose(U first, U second);
+
+    /** Returns an augmentation summing Long values, updated by adding a delta to each. */
+    static Augmentation<Long, Long, Long> sum() {
+        return new Additive() {
+            public Long identity() {
+                return 0L;
+            }
+
+            public Long combine(Long left, Long right) {
+                return left + right;
+            }
+
+            public Long apply(Long delta, Long sum, int size) {
+                return sum + delta * size;
+            }
+        };
+    }
+
+    /** Returns an augmentation taking the minimum of Long values, updated by adding a delta to each. */
+    static Augmentation<Long, Long, Long> min() {
+        return new Additive() {
+            public Long identity() {
+                return Long.MAX_VALUE;
+            }
+
+            public Long combine(Long left, Long right) {
+                return Math.min(left, right);
+            }
+
+            public Long apply(Long delta, Long min, int size) {
+                return size == 0 ? min : min + delta;
+            }
+        };
+    }
+
+    /** Returns an augmentation taking the maximum of Long values, updated by adding a delta to each. */
+    static Augmentation<Long, Long, Long> max() {
+        return new Additive() {
+            public Long identity() {
+                return Long.MIN_VALUE;
+            }
+
+            public Long combine(Long left, Long right) {
+                return Math.max(left, right);
+            }
+
+            public Long apply(Long delta, Long max, int size) {
+                return size == 0 ? max : max + delta;
+            }
+        };
+    }
+
+    /** The part shared by the augmentations over Long values with additive updates. */
+    abstract class Additive implements Augmentation<Long, Long, Long> {
+        public Long of(Long value) {
+            return value;
+        }
+
+        public Long apply(Long delta, Long value) {
+            return value + delta;
+        }
+
+        public Long compose(Long first, Long second) {
+            return first + second;
+        }
+    }
+}
@@ -0,0 +1,498 @@
+package tree;
+
+import interfaces.Entry;
+import utils.MapEntry;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * A sorted map in a treap whose nodes also keep the aggregate of the values in
+ * their subtree, as defined by an Augmentation, so that the aggregate of the
+ * values in any key range is found in expected O(log n) time, and an update can
+ * be applied to every value in a key range in expected O(log n) time too.
+ * <p>
+ * Range updates are lazy: the update is applied to the value and aggregate of
+ * the root of each subtree covering the range, and kept there as a pending tag
+ * for its children. A tag is pushed one level down whenever an operation
+ * passes through its node, and every node whose children change recomputes its
+ * aggregate from theirs, so the aggregates stay consistent under the splits
+ * and merges that all operations are built from.
+ *
+ * @param <A> the type of the aggregates
+ * @param <U> the type of the updates
+ */
+public class AugmentedTreap<K extends Comparable<K>, V, A, U> extends AbstractSortedMap<K, V> {
+
+    // ---------------- nested Node class ----------------
+    private static final class Node<K, V, A, U> {
+        final K key;
+        V value;
+        final int priority;
+        Node<K, V, A, U> left;
+        Node<K, V, A, U> right;
+        int size = 1;           // number of nodes in the subtree rooted here
+        A aggregate;            // of the values in the subtree, pending tags above excluded
+        U pending;              // update applied here but not yet to the children, or null
+
+        Node(K key, V value, int priority, A aggregate) {
+            this.key = key;
+            this.value = value;
+            this.priority = priority;
+            this.aggregate = aggregate;
+        }
+    } // ----------- end of nested Node class -----------
+
+    /** The parts of a subtree before and from a key. */
+    private final class Split {
+        Node<K, V, A, U> less, rest;
+    }
+
+    private final Augmentation<V, A, U> augmentation;
+    private final SplittableRandom random = new SplittableRandom();
+    private Node<K, V, A, U> root;     // null if the map is empty
+
+    /**
+     * Constructs an empty map using the natural ordering of keys.
+     *
+     * @param augmentation how values are aggregated and updated
+     */
+    public AugmentedTreap(Augmentation<V, A, U> augmentation) {
+        super();
+        this.augmentation = augmentation;
+    }
+
+    /**
+     * Constructs an empty map using the given comparator to order keys.
+     *
+     * @param comp         comparator defining the order of keys in the map
+     * @param augmentation how values are aggregated and updated
+     */
+    public AugmentedTreap(Comparator<K> comp, Augmentation<V, A, U> augmentation) {
+        super(comp);
+        this.augmentation = augmentation;
+    }
+
+    // utilities over the tree
+
+    private static int size(Node<?, ?, ?, ?> n) {
+        return n == null ? 0 : n.size;
+    }
+
+    private A aggregate(Node<K, V, A, U> n) {
+        return n == null ? augmentation.identity() : n.aggregate;
+    }
+
+    /** Applies update u to every value in the subtree rooted at n, lazily. */
+    private void apply(Node<K, V, A, U> n, U u) {
+        if (n != null) {
+            n.value = augmentation.apply(u, n.value);
+            n.aggregate = augmentation.apply(u, n.aggregate, n.size);
+            n.pending = n.pending == null ? u : augmentation.compose(n.pending, u);
+        }
+    }
+
+    /** Passes the pending update of n, if any, on to its children. */
+    private void push(Node<K, V, A, U> n) {
+        if (n.pending != null) {
+            apply(n.left, n.pending);
+            apply(n.right, n.pending);
+            n.pending = null;
+        }
+    }
+
+    /** Recomputes the size and aggregate of n from its children; returns n. */
+    private Node<K, V, A, U> pull(Node<K, V, A, U> n) {
+        n.size = 1 + size(n.left) + size(n.right);
+        n.aggregate = augmentation.combine(augmentation.combine(aggregate(n.left), augmentation.of(n.value)), aggregate(n.right));
+        return n;
+    }
+
+    /**
+     * Splits the subtree rooted at t into the keys less than key (or, if
+     * inclusive, less than or equal to key) and the rest.
+     */
+    private Split split(Node<K, V, A, U> t, K key, boolean inclusive) {
+        if (t == null) {
+            return new Split();
+        }
+        push(t);
+        int c = compare(t.key, key);
+        Split parts;
+        if (c < 0 || (c == 0 && inclusive)) {
+            parts = split(t.right, key, inclusive);
+            t.right = parts.less;
+            parts.less = pull(t);
+        } else {
+            parts = split(t.left, key, inclusive);
+            t.left = parts.rest;
+            parts.rest = pull(t);
+        }
+        return parts;
+    }
+
+    /** Returns the root of a tree holding the nodes of a followed by those of b. */
+    private Node<K, V, A, U> merge(Node<K, V, A, U> a, Node<K, V, A, U> b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority >= b.priority) {
+            push(a);
+            a.right = merge(a.right, b);
+            return pull(a);
+        }
+        push(b);
+        b.left = merge(a, b.left);
+        return pull(b);
+    }
+
+    /** Returns the node holding key, or null, pushing pending updates along the way. */
+    private Node<K, V, A, U> find(K key) {
+        Node<K, V, A, U> t = root;
+        while (t != null) {
+            push(t);
+            int c = compare(key, t.key);
+            if (c == 0) {
+                return t;
+            }
+            t = c < 0 ? t.left : t.right;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the node with least key greater than (or, if inclusive, equal to)
+     * the given key, or null if no such key exists.
+     */
+    private Node<K, V, A, U> above(K key, boolean inclusive) {
+        Node<K, V, A, U> t = root;
+        Node<K, V, A, U> best = null;
+        while (t != null) {
+            push(t);
+            int c = compare(key, t.key);
+            if (c < 0 || (c == 0 && inclusive)) {
+                best = t;                       // a candidate; look for a smaller one
+                t = t.left;
+            } else {
+                t = t.right;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the node with greatest key less than (or, if inclusive, equal to)
+     * the given key, or null if no such key exists.
+     */
+    private Node<K, V, A, U> below(K key, boolean inclusive) {
+        Node<K, V, A, U> t = root;
+        Node<K, V, A, U> best = null;
+        while (t != null) {
+            push(t);
+            int c = compare(key, t.key);
+            if (c > 0 || (c == 0 && inclusive)) {
+                best = t;                       // a candidate; look for a greater one
+                t = t.right;
+            } else {
+                t = t.left;
+            }
+        }
+        return best;
+    }
+
+    /** Returns the entry held by n, or null if n is null. */
+    private Entry<K, V> entryOf(Node<K, V, A, U> n) {
+        return n == null ? null : new MapEntry<>(n.key, n.value);
+    }
+
+    // public methods
+
+    /**
+     * Returns the number of entries in the map.
+     *
+     * @return number of entries in the map
+     */
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Returns the value associated with the specified key, or null if no such entry
+     * exists.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the associated value, or null if no such entry exists
+     */
+    @Override
+    public V get(K key) {
+        Node<K, V, A, U> n = find(key);
+        return n == null ? null : n.value;
+    }
+
+    /**
+     * Associates the given value with the given key. If an entry with the key was
+     * already in the map, this replaced the previous value with the new one and
+     * returns the old value. Otherwise, a new entry is added and null is returned.
+     *
+     * @param key   key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with the key (or null, if no such
+     *         entry)
+     */
+    @Override
+    public V put(K key, V value) {
+        Split below = split(root, key, false);
+        Split at = split(below.rest, key, true);
+        V old = null;
+        Node<K, V, A, U> n = at.less;
+        if (n == null) {
+            n = new Node<>(key, value, random.nextInt(), augmentation.of(value));
+        } else {
+            old = n.value;
+            n.value = value;
+            pull(n);
+        }
+        root = merge(merge(below.less, n), at.rest);
+        return old;
+    }
+
+    /**
+     * Removes the entry with the specified key, if present, and returns its
+     * associated value. Otherwise does nothing and returns null.
+     *
+     * @param key the key whose entry is to be removed from the map
+     * @return the previous value associated with the removed key, or null if no
+     *         such entry exists
+     */
+    @Override
+    public V remove(K key) {
+        if (find(key) == null) {
+            return null;
+        }
+        Split below = split(root, key, false);
+        Split at = split(below.rest, key, true);
+        root = merge(below.less, at.rest);
+        return at.less.value;
+    }
+
+    /**
+     * Returns the aggregate of all values in the map, in O(1) time.
+     *
+     * @return the aggregate of all values
+     */
+    public A aggregate() {
+        return aggregate(root);
+    }
+
+    /**
+     * Returns the aggregate of the values with keys in the range from
+     * <code>fromKey</code> inclusive to <code>toKey</code> exclusive, in expected
+     * O(log n) time.
+     *
+     * @return the aggregate of the values in the range (the identity, if it is empty)
+     */
+    public A aggregate(K fromKey, K toKey) {
+        if (compare(fromKey, toKey) >= 0) {
+            return augmentation.identity();
+        }
+        Split below = split(root, fromKey, false);
+        Split range = split(below.rest, toKey, false);
+        A result = aggregate(range.less);
+        root = merge(below.less, merge(range.less, range.rest));
+        return result;
+    }
+
+    /**
+     * Applies the given update to every value with a key in the range from
+     * <code>fromKey</code> inclusive to <code>toKey</code> exclusive, in expected
+     * O(log n) time.
+     *
+     * @param update the update to apply
+     */
+    public void update(K fromKey, K toKey, U update) {
+        if (compare(fromKey, toKey) >= 0) {
+            return;
+        }
+        Split below = split(root, fromKey, false);
+        Split range = split(below.rest, toKey, false);
+        apply(range.less, update);
+        root = merge(below.less, merge(range.less, range.rest));
+    }
+
+    // additional behaviors of the SortedMap interface
+
+    /**
+     * Returns the entry having the least key (or null if map is empty).
+     *
+     * @return entry with least key (or null if map is empty)
+     */
+    @Override
+    public Entry<K, V> firstEntry() {
+        Node<K, V, A, U> t = root;
+        while (t != null && t.left != null) {
+            push(t);
+            t = t.left;
+        }
+        return entryOf(t);
+    }
+
+    /**
+     * Returns the entry having the greatest key (or null if map is empty).
+     *
+     * @return entry with greatest key (or null if map is empty)
+     */
+    @Override
+    public Entry<K, V> lastEntry() {
+        Node<K, V, A, U> t = root;
+        while (t != null && t.right != null) {
+            push(t);
+            t = t.right;
+        }
+        return entryOf(t);
+    }
+
+    /**
+     * Returns the entry with least key greater than or equal to given key (or null
+     * if no such key exists).
+     *
+     * @return entry with least key greater than or equal to given (or null if no
+     *         such entry)
+     */
+    @Override
+    public Entry<K, V> ceilingEntry(K key) {
+        return entryOf(above(key, true));
+    }
+
+    /**
+     * Returns the entry with greatest key less than or equal to given key (or null
+     * if no such key exists).
+     *
+     * @return entry with greatest key less than or equal to given (or null if no
+     *         such entry)
+     */
+    @Override
+    public Entry<K, V> floorEntry(K key) {
+        return entryOf(below(key, true));
+    }
+
+    /**
+     * Returns the entry with greatest key strictly less than given key (or null if
+     * no such key exists).
+     *
+     * @return entry with greatest key strictly less than given (or null if no such
+     *         entry)
+     */
+    @Override
+    public Entry<K, V> lowerEntry(K key) {
+        return entryOf(below(key, false));
+    }
+
+    /**
+     * Returns the entry with least key strictly greater than given key (or null if
+     * no such key exists).
+     *
+     * @return entry with least key strictly greater than given (or null if no such
+     *         entry)
+     */
+    @Override
+    public Entry<K, V> higherEntry(K key) {
+        return entryOf(above(key, false));
+    }
+
+    /**
+     * Returns an iterable collection of all key-value entries of the map, in key
+     * order. Entries are produced lazily, pushing pending updates down as the
+     * iteration reaches them; the map must not be modified during an iteration.
+     *
+     * @return iterable collection of the map's entries
+     */
+    @Override
+    public Iterable<Entry<K, V>> entrySet() {
+        return new EntryIterable(null, null);
+    }
+
+    /**
+     * Returns an iterable containing all entries with keys in the range from
+     * <code>fromKey</code> inclusive to <code>toKey</code> exclusive, produced
+     * lazily as entrySet() does.
+     *
+     * @return iterable with keys in desired range
+     */
+    @Override
+    public Iterable<Entry<K, V>> subMap(K fromKey, K toKey) {
+        return new EntryIterable(fromKey, toKey);
+    }
+
+    // ---------------- nested EntryIterable class ----------------
+    private class EntryIterable implements Iterable<Entry<K, V>> {
+        private final K fromKey, toKey;             // both null for the whole map
+
+        EntryIterable(K fromKey, K toKey) {
+            this.fromKey = fromKey;
+            this.toKey = toKey;
+        }
+
+        public Iterator<Entry<K, V>> iterator() {
+            return new Iterator<>() {
+                // the nodes whose entry and right subtree remain, deepest last
+                private final ArrayList<Node<K, V, A, U>> path = new ArrayList<>();
+
+                {
+                    if (fromKey == null || compare(fromKey, toKey) < 0) {
+                        for (Node<K, V, A, U> t = root; t != null; ) {
+                            push(t);
+                            if (fromKey == null || compare(t.key, fromKey) >= 0) {
+                                path.add(t);
+                                t = t.left;
+                            } else {
+                                t = t.right;
+                            }
+                        }
+                    }
+                }
+
+                public boolean hasNext() {
+                    return !path.isEmpty() && (toKey == null || compare(path.get(path.size() - 1).key, toKey) < 0);
+                }
+
+                public Entry<K, V> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException("No further entries");
+                    }
+                    Node<K, V, A, U> n = path.remove(path.size() - 1);
+                    for (Node<K, V, A, U> t = n.right; t != null; t = t.left) {
+                        push(t);
+                        path.add(t);
+                    }
+                    return entryOf(n);
+                }
+            };
+        }
+
+        public String toString() {
+            StringBuilder sb = new StringBuilder("[");
+            for (Entry<K, V> e : this) {
+                if (sb.length() > 1) sb.append(", ");
+                sb.append(e);
+            }
+            return sb.append("]").toString();
+        }
+    } // ----------- end of nested EntryIterable class -----------
+
+    @Override
+    public double loadFactor() {
+        return 0;
+    }
+
+    @Override
+    public int numCollisions() {
+        return 0;
+    }
+
+    public String toString() {
+        return entrySet().toString();
+    }
+}
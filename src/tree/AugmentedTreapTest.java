@@ -0,0 +1,109 @@
+package tree;
+
+import interfaces.Entry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AugmentedTreapTest {
+
+    @Test
+    void mapOperations() {
+        AugmentedTreap<Integer, Long, Long, Long> map = new AugmentedTreap<>(Augmentation.sum());
+        assertNull(map.put(2, 20L));
+        assertNull(map.put(1, 10L));
+        assertNull(map.put(3, 30L));
+        assertEquals(20L, map.put(2, 25L));
+        assertEquals(65L, map.aggregate());
+        assertEquals(25L, map.get(2));
+        assertEquals(1, map.firstEntry().getKey());
+        assertEquals(3, map.lastEntry().getKey());
+        assertEquals(2, map.ceilingEntry(2).getKey());
+        assertEquals(3, map.higherEntry(2).getKey());
+        assertEquals(1, map.lowerEntry(2).getKey());
+        assertNull(map.floorEntry(0));
+        assertEquals(25L, map.remove(2));
+        assertNull(map.remove(2));
+        assertEquals(2, map.size());
+        assertEquals(40L, map.aggregate());
+        assertEquals(0L, map.aggregate(5, 9));
+    }
+
+    @Test
+    void rangeQueriesMatchScan() {
+        Random random = new Random(19);
+        AugmentedTreap<Integer, Long, Long, Long> sum = new AugmentedTreap<>(Augmentation.sum());
+        AugmentedTreap<Integer, Long, Long, Long> min = new AugmentedTreap<>(Augmentation.min());
+        AugmentedTreap<Integer, Long, Long, Long> max = new AugmentedTreap<>(Augmentation.max());
+        java.util.TreeMap<Integer, Long> expected = new java.util.TreeMap<>();
+        for (int step = 0; step < 5000; step++) {
+            int from = random.nextInt(1000);
+            int to = from + random.nextInt(200);
+            switch (random.nextInt(4)) {
+                case 0 -> {
+                    long value = random.nextInt(2001) - 1000;
+                    sum.put(from, value);
+                    min.put(from, value);
+                    max.put(from, value);
+                    expected.put(from, value);
+                }
+                case 1 -> {
+                    assertEquals(expected.remove(from), sum.remove(from));
+                    min.remove(from);
+                    max.remove(from);
+                }
+                case 2 -> {
+                    long delta = random.nextInt(21) - 10;
+                    sum.update(from, to, delta);
+                    min.update(from, to, delta);
+                    max.update(from, to, delta);
+                    expected.subMap(from, to).replaceAll((k, v) -> v + delta);
+                }
+                default -> {
+                    java.util.Collection<Long> range = expected.subMap(from, to).values();
+                    assertEquals(range.stream().mapToLong(Long::longValue).sum(), sum.aggregate(from, to));
+                    assertEquals(range.stream().mapToLong(Long::longValue).min().orElse(Long.MAX_VALUE), min.aggregate(from, to));
+                    assertEquals(range.stream().mapToLong(Long::longValue).max().orElse(Long.MIN_VALUE), max.aggregate(from, to));
+                }
+            }
+        }
+        assertEquals(expected.size(), sum.size());
+        assertEquals(expected.values().stream().mapToLong(Long::longValue).sum(), sum.aggregate());
+        java.util.Iterator<java.util.Map.Entry<Integer, Long>> scan = expected.entrySet().iterator();
+        for (Entry<Integer, Long> e : max.entrySet()) {
+            java.util.Map.Entry<Integer, Long> next = scan.next();
+            assertEquals(next.getKey(), e.getKey());
+            assertEquals(next.getValue(), e.getValue());
+        }
+        assertFalse(scan.hasNext());
+    }
+
+    @Test
+    void lazyUpdatesReachIteration() {
+        AugmentedTreap<Integer, Long, Long, Long> map = new AugmentedTreap<>(Augmentation.sum());
+        for (int i = 0; i < 100; i++) {
+            map.put(i, 0L);
+        }
+        map.update(0, 100, 1L);
+        map.update(10, 20, 5L);
+        map.update(15, 50, -2L);
+        long total = 0;
+        for (Entry<Integer, Long> e : map.entrySet()) {
+            int k = e.getKey();
+            long expected = 1 + (k >= 10 && k < 20 ? 5 : 0) + (k >= 15 && k < 50 ? -2 : 0);
+            assertEquals(expected, e.getValue());
+            total += e.getValue();
+        }
+        assertEquals(total, map.aggregate());
+        int count = 0;
+        for (Entry<Integer, Long> e : map.subMap(12, 17)) {
+            assertEquals(12 + count, e.getKey());
+            count++;
+        }
+        assertEquals(5, count);
+        assertEquals(4L, map.get(16));
+        assertEquals(4L + 4L + 6L, map.aggregate(14, 17));
+    }
+}
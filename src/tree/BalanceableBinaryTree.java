@@ -4,18 +4,231 @@ import interfaces.Entry;
 import interfaces.Position;
 
 import java.io.IOException;
+import java.util.ArrayList;
 
 public class BalanceableBinaryTree<K extends Comparable<K>, V> extends LinkedBinaryTree<Entry<K, V>> {
 
+    /** How a tree represents the missing children of the nodes holding entries. */
+    public enum Leaves {
+        /** Every missing child is a sentinel leaf holding no entry, so half of the nodes are leaves. */
+        SENTINEL,
+        /** Missing children are null references, so every node holds an entry. */
+        NULL
+    }
+
+    private final Leaves leaves;
+
+    private long rotations = 0;     // number of rotations performed on this tree
+    private long unlinks = 0;       // number of changes that may have taken nodes out of this tree
+
+    /** Constructs an empty tree that uses sentinel leaves. */
+    public BalanceableBinaryTree() {
+        this(Leaves.SENTINEL);
+    }
+
+    /**
+     * Constructs an empty tree that represents missing children as given.
+     *
+     * @param leaves the representation of missing children
+     */
+    public BalanceableBinaryTree(Leaves leaves) {
+        this.leaves = leaves;
+    }
+
+    /**
+     * Returns a tree holding no entries: a single sentinel leaf, or no node at
+     * all when missing children are null.
+     *
+     * @param leaves the representation of missing children
+     * @return a tree holding no entries
+     */
+    public static <K extends Comparable<K>, V> BalanceableBinaryTree<K, V> empty(Leaves leaves) {
+        BalanceableBinaryTree<K, V> t = new BalanceableBinaryTree<>(leaves);
+        if (leaves == Leaves.SENTINEL) {
+            t.addRoot(null);
+        }
+        return t;
+    }
+
+    /** Returns the representation of missing children used by this tree. */
+    public Leaves getLeaves() {
+        return leaves;
+    }
+
+    /** Returns true if missing children are sentinel leaves. */
+    public boolean hasSentinels() {
+        return leaves == Leaves.SENTINEL;
+    }
+
+    /**
+     * Returns true if Position p holds no entry. With sentinel leaves these are
+     * the leaves. With null leaves, p is either null (a missing child) or a node
+     * whose entry was cleared so that it can stand in for a sentinel leaf while
+     * it is being removed.
+     */
+    @Override
+    public boolean isExternal(Position<Entry<K, V>> p) {
+        if (hasSentinels()) {
+            return super.isExternal(p);
+        }
+        return p == null || p.getElement() == null;
+    }
+
+    /** Returns true if Position p holds an entry; see isExternal. */
+    @Override
+    public boolean isInternal(Position<Entry<K, V>> p) {
+        if (hasSentinels()) {
+            return super.isInternal(p);
+        }
+        return !isExternal(p);
+    }
+
     // positional-based methods related to aux field
+    /**
+     * Returns the aux field of Position p. A missing (null) child reads as 0,
+     * the value of a freshly created sentinel leaf.
+     */
     public int getAux(Position<Entry<K, V>> p) {
-        return ((BSTNode<Entry<K,V>>) p ).getAux();
+        return p == null ? 0 : ((BSTNode<Entry<K,V>>) p ).getAux();
     }
 
     public void setAux(Position<Entry<K, V>> p, int value) {
         ((BSTNode<Entry<K,V>>) p ).setAux(value);
     }
 
+    // positional-based methods related to subtree sizes
+    /**
+     * Returns the number of nodes (sentinel leaves included) in the subtree rooted
+     * at Position p, or 0 if p is null.
+     */
+    public int subtreeSize(Position<Entry<K, V>> p) {
+        return p == null ? 0 : ((BSTNode<Entry<K,V>>) p ).getCount();
+    }
+
+    /**
+     * Returns the number of entries in the subtree rooted at Position p, or 0 if
+     * p is null.
+     */
+    public int entryCount(Position<Entry<K, V>> p) {
+        int n = subtreeSize(p);
+        return hasSentinels() ? (n - 1) / 2 : n;     // n internal nodes have n + 1 leaves
+    }
+
+    /**
+     * Recomputes the subtree size of node n from the sizes of its children.
+     */
+    private void recount(Node<Entry<K, V>> n) {
+        ((BSTNode<Entry<K,V>>) n ).setCount(1 + subtreeSize(n.getLeft()) + subtreeSize(n.getRight()));
+    }
+
+    /**
+     * Adds delta to the subtree size of n and of each of its ancestors.
+     */
+    private void adjustCounts(Node<Entry<K, V>> n, int delta) {
+        while (n != null) {
+            BSTNode<Entry<K,V>> b = (BSTNode<Entry<K,V>>) n;
+            b.setCount(b.getCount() + delta);
+            n = n.getParent();
+        }
+    }
+
+    @Override
+    public Position<Entry<K, V>> addLeft(Position<Entry<K, V>> p, Entry<K, V> e) throws IllegalArgumentException {
+        Position<Entry<K, V>> child = super.addLeft(p, e);
+        adjustCounts(validate(p), 1);
+        return child;
+    }
+
+    @Override
+    public Position<Entry<K, V>> addRight(Position<Entry<K, V>> p, Entry<K, V> e) throws IllegalArgumentException {
+        Position<Entry<K, V>> child = super.addRight(p, e);
+        adjustCounts(validate(p), 1);
+        return child;
+    }
+
+    @Override
+    public Entry<K, V> remove(Position<Entry<K, V>> p) throws IllegalArgumentException {
+        Node<Entry<K, V>> parent = validate(p).getParent();
+        Entry<K, V> old = super.remove(p);
+        adjustCounts(parent, -1);
+        unlinks++;
+        return old;
+    }
+
+    @Override
+    public void attach(Position<Entry<K, V>> p, LinkedBinaryTree<Entry<K, V>> t1, LinkedBinaryTree<Entry<K, V>> t2) throws IllegalArgumentException {
+        int added = t1.size() + t2.size();
+        super.attach(p, t1, t2);
+        adjustCounts(validate(p), added);
+    }
+
+    /**
+     * Detaches the subtree rooted at Position p and returns it as a tree of its
+     * own. Within this tree, p is replaced by a new sentinel leaf (or by null,
+     * when missing children are null).
+     *
+     * @param p a valid Position within the tree
+     * @return a new tree whose root is p
+     * @throws IllegalArgumentException if p is not a valid Position for this tree
+     */
+    public BalanceableBinaryTree<K, V> detach(Position<Entry<K, V>> p) throws IllegalArgumentException {
+        Node<Entry<K, V>> node = validate(p);
+        Node<Entry<K, V>> parent = node.getParent();
+        Node<Entry<K, V>> leaf = hasSentinels() ? createNode(null, parent, null, null) : null;
+        int delta = subtreeSize(leaf) - subtreeSize(node);
+        if (parent == null) {
+            root = leaf;
+        } else if (node == parent.getLeft()) {
+            parent.setLeft(leaf);
+        } else {
+            parent.setRight(leaf);
+        }
+        size += delta;
+        adjustCounts(parent, delta);
+        unlinks++;
+
+        BalanceableBinaryTree<K, V> t = new BalanceableBinaryTree<>(leaves);
+        node.setParent(null);
+        t.root = node;
+        t.size = subtreeSize(node);
+        return t;
+    }
+
+    /**
+     * Makes left and right the children of node n and recomputes the subtree
+     * size of n. Either child may be null for a missing child, which becomes a
+     * new sentinel leaf if this tree uses them. Together with setRootNode, this
+     * lets whole subtrees be rearranged at once without rotations.
+     *
+     * @return n
+     */
+    protected Node<Entry<K, V>> link(Node<Entry<K, V>> n, Node<Entry<K, V>> left, Node<Entry<K, V>> right) {
+        n.setLeft(childOf(n, left));
+        n.setRight(childOf(n, right));
+        recount(n);
+        unlinks++;
+        return n;
+    }
+
+    /**
+     * Makes node r, whose subtree sizes are up to date, the root of this tree;
+     * r may be null for a tree holding no entries.
+     */
+    protected void setRootNode(Node<Entry<K, V>> r) {
+        root = childOf(null, r);
+        size = subtreeSize(root);
+        unlinks++;
+    }
+
+    /** Returns child with its parent set, or a new sentinel leaf (or null) if child is null. */
+    private Node<Entry<K, V>> childOf(Node<Entry<K, V>> parent, Node<Entry<K, V>> child) {
+        if (child == null) {
+            return hasSentinels() ? createNode(null, parent, null, null) : null;
+        }
+        child.setParent(parent);
+        return child;
+    }
+
     // Override node factory function to produce a BSTNode (rather than a Node)
     @Override
     protected Node<Entry<K, V>> createNode(Entry<K, V> e, Node<Entry<K, V>> parent, Node<Entry<K, V>> left, Node<Entry<K, V>> right) {
@@ -23,10 +236,56 @@ public class BalanceableBinaryTree<K extends Comparable<K>, V> extends LinkedBin
     }
 
     /**
-     * Relinks a parent node with its oriented child node.
+     * Replaces the contents of this tree with the detached structure rooted at
+     * node r, whose nodes hold entries and may lack children. Missing children
+     * are filled in with sentinel leaves (if this tree uses them) and every
+     * subtree size is computed, in time linear in the number of nodes.
+     *
+     * @param r the root of a structure built from nodes created by this tree
+     */
+    protected void install(Node<Entry<K, V>> r) {
+        setRootNode(complete(r));
+    }
+
+    /**
+     * Fills in the missing children of the detached structure rooted at node r
+     * with sentinel leaves (if this tree uses them) and computes every subtree
+     * size, as install does, but leaves r detached so that several structures
+     * can be completed independently, for instance by parallel tasks.
+     *
+     * @param r the root of a structure built from nodes created by this tree
+     * @return r
+     */
+    protected Node<Entry<K, V>> complete(Node<Entry<K, V>> r) {
+        // collect the nodes in preorder, so that reversed, children precede parents
+        ArrayList<Node<Entry<K, V>>> order = new ArrayList<>();
+        ArrayList<Node<Entry<K, V>>> stack = new ArrayList<>();
+        stack.add(r);
+        while (!stack.isEmpty()) {
+            Node<Entry<K, V>> x = stack.remove(stack.size() - 1);
+            order.add(x);
+            if (x.getLeft() != null) stack.add(x.getLeft());
+            if (x.getRight() != null) stack.add(x.getRight());
+        }
+        for (int i = order.size() - 1; i >= 0; i--) {
+            Node<Entry<K, V>> x = order.get(i);
+            if (hasSentinels()) {
+                if (x.getLeft() == null) x.setLeft(createNode(null, x, null, null));
+                if (x.getRight() == null) x.setRight(createNode(null, x, null, null));
+            }
+            recount(x);
+        }
+        return r;
+    }
+
+    /**
+     * Relinks a parent node with its oriented child node, which may be a missing
+     * (null) child when leaves are not kept as sentinels.
      */
     private void relink(Node<Entry<K, V>> parent, Node<Entry<K, V>> child, boolean makeLeftChild) {
-        child.setParent(parent);
+        if (child != null) {
+            child.setParent(parent);
+        }
         if(makeLeftChild){
             parent.setLeft(child);
         } else {
@@ -69,6 +328,30 @@ public class BalanceableBinaryTree<K extends Comparable<K>, V> extends LinkedBin
             relink(y, x.getLeft(), false);
             relink(x, y, true);
         }
+        recount(y);                                 // y is now the child of x
+        recount(x);
+        rotations++;
+    }
+
+    /**
+     * Returns the number of rotations performed on this tree so far.
+     *
+     * @return the rotation count
+     */
+    public long getRotations() {
+        return rotations;
+    }
+
+    /**
+     * Returns the number of changes so far that may have taken nodes out of this
+     * tree: removals, detachments and relinkings, but not insertions or
+     * rotations. A holder of a position can compare two readings to tell whether
+     * the position may have become stale.
+     *
+     * @return the count of such changes
+     */
+    public long getUnlinks() {
+        return unlinks;
     }
 
     /**
@@ -117,6 +400,7 @@ public class BalanceableBinaryTree<K extends Comparable<K>, V> extends LinkedBin
 
     protected static class BSTNode<E> extends Node<E> {
         int aux = 0;
+        int count = 1; // number of nodes in the subtree rooted at this node
 
         BSTNode(E e, Node<E> parent, Node<E> leftChild, Node<E> rightChild) {
             super(e, parent, leftChild, rightChild);
@@ -130,9 +414,17 @@ public class BalanceableBinaryTree<K extends Comparable<K>, V> extends LinkedBin
             aux = value;
         }
 
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int value) {
+            count = value;
+        }
+
         public String toString() {
             String s = this.getElement() == null ? "" : this.getElement().toString();
             return s + "/" + getAux();
         }
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
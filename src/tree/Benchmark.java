@@ -1,15 +1,101 @@
 package tree;
 
+import com.sun.management.ThreadMXBean;
+import hashtable.AbstractHashMap;
+import hashtable.ChainHashMap;
+import hashtable.HashStrategy;
+import hashtable.IntIntHashMap;
+import hashtable.ProbeHashMap;
+import interfaces.AbstractMap;
 import interfaces.Entry;
 import interfaces.Position;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
 
 public class Benchmark {
 
     public static void main(String[] args) throws IOException {
+        // Benchmark mode (default: compare the tree maps on all patterns)
+        String mode = args.length > 0 ? args[0] : "maps";
+
+        switch (mode) {
+            case "primitive":
+                benchmarkPrimitive(new int[]{10000, 100000, 1000000});
+                break;
+            case "concurrent":
+                benchmarkConcurrent(100000, new int[]{1, 2, 4, 8});
+                break;
+            case "persistent":
+                benchmarkPersistent(new int[]{10000, 100000, 1000000}, 1000);
+                break;
+            case "priorities":
+                benchmarkPriorities(new int[]{10000, 100000, 1000000});
+                break;
+            case "deep":
+                benchmarkDeep(new int[]{10000, 20000, 40000}, 10_000_000);
+                break;
+            case "traversal":
+                benchmarkTraversal(new int[]{100000, 1000000, 5000000});
+                break;
+            case "leaves":
+                benchmarkLeaves(new int[]{100000, 1000000});
+                break;
+            case "batch":
+                benchmarkBatch(1000000, new int[]{1000, 10000, 100000});
+                break;
+            case "setops":
+                benchmarkSetOperations(new int[]{100000, 1000000});
+                break;
+            case "parallel":
+                benchmarkParallel(new int[]{1000000, 2000000});
+                break;
+            case "streams":
+                benchmarkStreams(new int[]{100000, 1000000});
+                break;
+            case "finger":
+                benchmarkFinger(1000000, new int[]{1, 16, 256, 4096});
+                break;
+            case "expiry":
+                benchmarkExpiry(new int[]{100000, 1000000}, 100);
+                break;
+            case "sequence":
+                benchmarkSequence(new int[]{10000, 100000, 1000000}, 10000);
+                break;
+            case "augmented":
+                benchmarkAugmented(100000, new int[]{10, 1000, 10000}, 2000);
+                break;
+            case "metrics":
+                benchmarkMetrics(new int[]{100000, 1000000});
+                break;
+            case "probing":
+                benchmarkProbing(new int[]{100000, 1000000});
+                break;
+            case "rehash":
+                benchmarkRehash(1000000);
+                break;
+            case "hashing":
+                benchmarkHashing(new int[]{100000, 1000000});
+                break;
+            case "writes":
+                benchmarkWrites(new int[]{10000, 100000, 1000000});
+                break;
+            case "primitivehash":
+                benchmarkPrimitiveHash(new int[]{100000, 1000000});
+                break;
+            default:
+                benchmarkMaps();
+        }
+    }
+
+    private static void benchmarkMaps() throws IOException {
         // Test sizes
         int[] sizes = {100, 500, 1000, 2000, 5000, 10000};
 
@@ -72,6 +158,15 @@ public class Benchmark {
     }
 
 
+    private static boolean isStrictlyAscending(Integer[] data) {
+        for (int i = 1; i < data.length; i++) {
+            if (data[i - 1] >= data[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private static void benchmarkTreap(Integer[] data) {
         System.out.println("\nTreap:");
         Treap<Integer, Integer> treap = new Treap<>();
@@ -121,6 +216,14 @@ public class Benchmark {
         end = System.nanoTime();
         System.out.printf("Traversal time: %.3f ms%n", (end - start) / 1_000_000.0);
 
+        // Bulk load, only possible when the keys are strictly increasing
+        if (isStrictlyAscending(data)) {
+            start = System.nanoTime();
+            Treap.fromSorted(data, data);
+            end = System.nanoTime();
+            System.out.printf("Bulk load time: %.3f ms%n", (end - start) / 1_000_000.0);
+        }
+
         // Deletion
 //        start = System.nanoTime();
 //        for (Integer key : data) {
@@ -223,4 +326,1045 @@ public class Benchmark {
         end = System.nanoTime();
         System.out.printf("Deletion time: %.3f ms%n", (end - start) / 1_000_000.0);
     }
-}
\ No newline at end of file
+
+    /**
+     * Compares the generic Treap against the array-backed ArrayTreap and the
+     * primitive-keyed IntTreap on random int keys. All maps store the same value
+     * object, so the difference comes from key boxing and node layout.
+     */
+    private static void benchmarkPrimitive(int[] sizes) throws IOException {
+        for (int n : sizes) {
+            System.out.println("\n=== Primitive keys with n = " + n + " ===");
+            Random random = new Random();
+            int[] keys = new int[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = random.nextInt();
+            }
+            Integer value = 1;
+
+            System.out.println("\nTreap:");
+            Treap<Integer, Integer> treap = new Treap<>();
+            long start = System.nanoTime();
+            for (int key : keys) {
+                treap.put(key, value);
+            }
+            long end = System.nanoTime();
+            System.out.printf("Insertion time: %.3f ms%n", (end - start) / 1_000_000.0);
+            start = System.nanoTime();
+            for (int key : keys) {
+                treap.get(key);
+            }
+            end = System.nanoTime();
+            System.out.printf("Successful search time: %.3f ms%n", (end - start) / 1_000_000.0);
+
+            System.out.println("\nArrayTreap:");
+            ArrayTreap<Integer, Integer> arrayTreap = new ArrayTreap<>();
+            start = System.nanoTime();
+            for (int key : keys) {
+                arrayTreap.put(key, value);
+            }
+            end = System.nanoTime();
+            System.out.printf("Insertion time: %.3f ms%n", (end - start) / 1_000_000.0);
+            start = System.nanoTime();
+            for (int key : keys) {
+                arrayTreap.get(key);
+            }
+            end = System.nanoTime();
+            System.out.printf("Successful search time: %.3f ms%n", (end - start) / 1_000_000.0);
+
+            System.out.println("\nIntTreap:");
+            IntTreap<Integer> intTreap = new IntTreap<>();
+            start = System.nanoTime();
+            for (int key : keys) {
+                intTreap.put(key, value);
+            }
+            end = System.nanoTime();
+            System.out.printf("Insertion time: %.3f ms%n", (end - start) / 1_000_000.0);
+            start = System.nanoTime();
+            for (int key : keys) {
+                intTreap.get(key);
+            }
+            end = System.nanoTime();
+            System.out.printf("Successful search time: %.3f ms%n", (end - start) / 1_000_000.0);
+
+            System.out.println("\nLongTreap:");
+            LongTreap<Integer> longTreap = new LongTreap<>();
+            start = System.nanoTime();
+            for (int key : keys) {
+                longTreap.put(key, value);
+            }
+            end = System.nanoTime();
+            System.out.printf("Insertion time: %.3f ms%n", (end - start) / 1_000_000.0);
+            start = System.nanoTime();
+            for (int key : keys) {
+                longTreap.get(key);
+            }
+            end = System.nanoTime();
+            System.out.printf("Successful search time: %.3f ms%n", (end - start) / 1_000_000.0);
+        }
+    }
+
+    private static void benchmarkConcurrent(int n, int[] threadCounts) throws IOException {
+        int opsPerThread = 1_000_000;
+        System.out.println("\n=== Concurrent access with n = " + n + ", 90% reads / 10% writes ===");
+
+        Treap<Integer, Integer> treap = new Treap<>();
+        ConcurrentTreap<Integer, Integer> concurrentTreap = new ConcurrentTreap<>();
+        for (int i = 0; i < n; i++) {
+            treap.put(i, i);
+            concurrentTreap.put(i, i);
+        }
+
+        for (int threads : threadCounts) {
+            System.out.println("\nThreads: " + threads);
+
+            // the status quo: every operation holds one global lock
+            double locked = runConcurrent(threads, opsPerThread, (key, write) -> {
+                synchronized (treap) {
+                    try {
+                        if (write) {
+                            treap.put(key % n, key);
+                        } else {
+                            treap.get(key % n);
+                        }
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                }
+            });
+            System.out.printf("Locked Treap throughput: %.0f ops/ms%n", locked);
+
+            double lockFree = runConcurrent(threads, opsPerThread, (key, write) -> {
+                if (write) {
+                    concurrentTreap.put(key % n, key);
+                } else {
+                    concurrentTreap.get(key % n);
+                }
+            });
+            System.out.printf("ConcurrentTreap throughput: %.0f ops/ms%n", lockFree);
+        }
+    }
+
+    /** An operation of the concurrent benchmark, either a read or a write of key. */
+    private interface MapOperation {
+        void apply(int key, boolean write);
+    }
+
+    /** Runs opsPerThread operations on each of the given number of threads and returns ops/ms. */
+    private static double runConcurrent(int threads, int opsPerThread, MapOperation op) {
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom();
+                for (int i = 0; i < opsPerThread; i++) {
+                    int key = random.nextInt(Integer.MAX_VALUE);
+                    op.apply(key, key % 10 == 0);
+                }
+            });
+        }
+        long start = System.nanoTime();
+        for (Thread w : workers) {
+            w.start();
+        }
+        for (Thread w : workers) {
+            try {
+                w.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        long end = System.nanoTime();
+        return (double) threads * opsPerThread / ((end - start) / 1_000_000.0);
+    }
+
+    private static void benchmarkPersistent(int[] sizes, int versions) {
+        for (int n : sizes) {
+            System.out.println("\n=== Persistent versions with n = " + n + " ===");
+            Random random = new Random();
+
+            PersistentTreap<Integer, Integer> map = new PersistentTreap<>();
+            for (int i = 0; i < n; i++) {
+                map = map.put(random.nextInt(), i);
+            }
+
+            // keep every version alive, as a holder of snapshots would
+            List<PersistentTreap<Integer, Integer>> history = new ArrayList<>();
+            history.add(map);
+            long start = System.nanoTime();
+            for (int i = 0; i < versions; i++) {
+                map = random.nextBoolean() ? map.put(random.nextInt(), i) : map.remove(map.firstEntry().getKey());
+                history.add(map);
+            }
+            long end = System.nanoTime();
+            System.out.printf("Update time (%d versions): %.3f ms%n", versions, (end - start) / 1_000_000.0);
+
+            long copied = 0;
+            for (PersistentTreap<Integer, Integer> version : history) {
+                copied += version.size();
+            }
+            long shared = countDistinctNodes(history);
+            System.out.printf("Nodes if each version were copied: %d%n", copied);
+            System.out.printf("Nodes with structural sharing: %d (%.1f new nodes per version)%n",
+                    shared, (double) (shared - history.getFirst().size()) / versions);
+        }
+    }
+
+    /** Returns the number of distinct nodes reachable from the given versions. */
+    private static long countDistinctNodes(List<PersistentTreap<Integer, Integer>> history) {
+        Set<PersistentTreap.Node<Integer, Integer>> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        ArrayList<PersistentTreap.Node<Integer, Integer>> stack = new ArrayList<>();
+        for (PersistentTreap<Integer, Integer> version : history) {
+            if (version.root != null) stack.add(version.root);
+            while (!stack.isEmpty()) {
+                PersistentTreap.Node<Integer, Integer> t = stack.remove(stack.size() - 1);
+                if (seen.add(t)) {          // a shared subtree is only walked once
+                    if (t.left != null) stack.add(t.left);
+                    if (t.right != null) stack.add(t.right);
+                }
+            }
+        }
+        return seen.size();
+    }
+
+    private static void benchmarkPriorities(int[] sizes) throws IOException {
+        String[] modes = {"random", "seeded", "threadLocal", "hashOfKey"};
+        String[] patterns = {"random", "ascending"};
+
+        for (int n : sizes) {
+            System.out.println("\n=== Priority sources with n = " + n + " ===");
+
+            for (String pattern : patterns) {
+                System.out.println("\nPattern: " + pattern);
+                Integer[] data = generateData(n, pattern);
+
+                for (String mode : modes) {
+                    PriorityGenerator<Integer> priorities = switch (mode) {
+                        case "seeded" -> PriorityGenerator.seeded(42);
+                        case "threadLocal" -> PriorityGenerator.threadLocal();
+                        case "hashOfKey" -> PriorityGenerator.hashOfKey();
+                        default -> PriorityGenerator.random();
+                    };
+                    Treap<Integer, Integer> treap = new Treap<>(priorities);
+                    long start = System.nanoTime();
+                    for (Integer key : data) {
+                        treap.put(key, key);
+                    }
+                    long end = System.nanoTime();
+                    System.out.printf("%-12s insertion time: %.3f ms, height: %d, rotations: %d%n",
+                            mode, (end - start) / 1_000_000.0, treap.tree.height(treap.tree.root()), treap.tree.getRotations());
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the unbalanced TreeMap on ascending keys, which degenerates into a
+     * path as deep as the map is large, and a Treap on ten million ascending
+     * keys. Building the degenerate TreeMap takes quadratic time, which bounds
+     * the sizes it can be run at.
+     */
+    private static void benchmarkDeep(int[] sizes, int treapSize) throws IOException {
+        for (int n : sizes) {
+            System.out.println("\n=== Degenerate TreeMap with n = " + n + " (ascending) ===");
+            Integer[] data = generateData(n, "ascending");
+            TreeMap<Integer, Integer> map = new TreeMap<>();
+            try {
+                long start = System.nanoTime();
+                for (Integer key : data) {
+                    map.put(key, key);
+                }
+                long end = System.nanoTime();
+                System.out.printf("Insertion time: %.3f ms%n", (end - start) / 1_000_000.0);
+                start = System.nanoTime();
+                for (Integer key : data) {
+                    map.get(key);
+                }
+                end = System.nanoTime();
+                System.out.printf("Successful search time: %.1f ns per lookup%n", (double) (end - start) / n);
+                start = System.nanoTime();
+                int entries = 0;
+                for (Entry<Integer, Integer> e : map.subMap(0, n)) {
+                    entries++;
+                }
+                int positions = 0;
+                for (Position<Entry<Integer, Integer>> p : map.tree.inorder()) {
+                    positions++;
+                }
+                end = System.nanoTime();
+                System.out.printf("Range and traversal time: %.3f ms (%d entries, %d positions)%n",
+                        (end - start) / 1_000_000.0, entries, positions);
+            } catch (StackOverflowError e) {
+                System.out.println("StackOverflowError");
+            }
+        }
+
+        System.out.println("\n=== Treap with n = " + treapSize + " (ascending) ===");
+        Treap<Integer, Integer> treap = new Treap<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < treapSize; i++) {
+            treap.put(i, i);
+        }
+        long end = System.nanoTime();
+        System.out.printf("Insertion time: %.3f ms%n", (end - start) / 1_000_000.0);
+        start = System.nanoTime();
+        for (int i = 0; i < treapSize; i++) {
+            treap.get(i);
+        }
+        end = System.nanoTime();
+        System.out.printf("Successful search time: %.1f ns per lookup%n", (double) (end - start) / treapSize);
+    }
+
+    /**
+     * Measures how long a Treap takes to report the first key of keySet() and
+     * to scan all of its keys, a range of a tenth of them, and its positions.
+     */
+    private static void benchmarkTraversal(int[] sizes) {
+        for (int n : sizes) {
+            System.out.println("\n=== Traversal with n = " + n + " ===");
+            Integer[] keys = IntStream.range(0, n).boxed().toArray(Integer[]::new);
+            Treap<Integer, Integer> treap = Treap.fromSorted(keys, keys);
+
+            long start = System.nanoTime();
+            Integer first = treap.keySet().iterator().next();
+            long end = System.nanoTime();
+            System.out.printf("First key (%d) after: %.3f ms%n", first, (end - start) / 1_000_000.0);
+
+            start = System.nanoTime();
+            long sum = 0;
+            for (Integer key : treap.keySet()) {
+                sum += key;
+            }
+            end = System.nanoTime();
+            System.out.printf("keySet scan time: %.3f ms (checksum %d)%n", (end - start) / 1_000_000.0, sum);
+
+            start = System.nanoTime();
+            int count = 0;
+            for (Entry<Integer, Integer> e : treap.subMap(n / 2, n / 2 + n / 10)) {
+                count++;
+            }
+            end = System.nanoTime();
+            System.out.printf("subMap scan time: %.3f ms (%d entries)%n", (end - start) / 1_000_000.0, count);
+
+            start = System.nanoTime();
+            count = 0;
+            for (Position<Entry<Integer, Integer>> p : treap.tree.inorder()) {
+                count++;
+            }
+            end = System.nanoTime();
+            System.out.printf("inorder scan time: %.3f ms (%d positions)%n", (end - start) / 1_000_000.0, count);
+        }
+    }
+
+    /**
+     * Compares sentinel leaves with null children: insertion and lookup time
+     * and the number of tree nodes allocated, for each balanced map.
+     */
+    private static void benchmarkLeaves(int[] sizes) throws IOException {
+        for (int n : sizes) {
+            System.out.println("\n=== Leaf representations with n = " + n + " ===");
+            Integer[] data = generateData(n, "random");
+            for (BalanceableBinaryTree.Leaves leaves : BalanceableBinaryTree.Leaves.values()) {
+                List<TreeMap<Integer, Integer>> maps = List.of(
+                        new AVLTreeMap<>(leaves), new RBTreeMap<>(leaves),
+                        new SplayTreeMap<>(leaves), new Treap<>(PriorityGenerator.random(), leaves));
+                for (TreeMap<Integer, Integer> map : maps) {
+                    long start = System.nanoTime();
+                    for (Integer key : data) {
+                        map.put(key, key);
+                    }
+                    long mid = System.nanoTime();
+                    long sum = 0;
+                    for (Integer key : data) {
+                        sum += map.get(key);
+                    }
+                    long end = System.nanoTime();
+                    System.out.printf("%-12s %-8s insert: %8.3f ms, get: %8.3f ms, nodes: %d (checksum %d)%n",
+                            map.getClass().getSimpleName(), leaves,
+                            (mid - start) / 1_000_000.0, (end - mid) / 1_000_000.0, map.tree.size(), sum);
+                }
+            }
+        }
+    }
+
+    /**
+     * Compares per-key put and remove with putAll and removeAll, applying batches
+     * of random keys to a treap of n entries. Each time is the best of a few
+     * rounds, so that JIT warm-up does not count against either side.
+     */
+    private static void benchmarkBatch(int n, int[] batchSizes) throws IOException {
+        Integer[] keys = IntStream.range(0, n).map(i -> 2 * i).boxed().toArray(Integer[]::new);
+        Random random = new Random(42);
+        int rounds = 5;
+        for (int m : batchSizes) {
+            System.out.println("\n=== Batches of m = " + m + " into n = " + n + " ===");
+            double[] best = {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE};
+            for (int round = 0; round < rounds; round++) {
+                Integer[] batch = new Integer[m];
+                for (int i = 0; i < m; i++) {
+                    batch[i] = random.nextInt(2 * n);
+                }
+
+                Treap<Integer, Integer> single = Treap.fromSorted(keys, keys);
+                long start = System.nanoTime();
+                for (Integer key : batch) {
+                    single.put(key, key);
+                }
+                long mid = System.nanoTime();
+                for (Integer key : batch) {
+                    single.remove(key);
+                }
+                long end = System.nanoTime();
+                best[0] = Math.min(best[0], (mid - start) / 1_000_000.0);
+                best[1] = Math.min(best[1], (end - mid) / 1_000_000.0);
+
+                Treap<Integer, Integer> batched = Treap.fromSorted(keys, keys);
+                start = System.nanoTime();
+                batched.putAll(batch, batch);
+                mid = System.nanoTime();
+                batched.removeAll(batch);
+                end = System.nanoTime();
+                best[2] = Math.min(best[2], (mid - start) / 1_000_000.0);
+                best[3] = Math.min(best[3], (end - mid) / 1_000_000.0);
+            }
+            System.out.printf("put:    %8.3f ms, remove:    %8.3f ms%n", best[0], best[1]);
+            System.out.printf("putAll: %8.3f ms, removeAll: %8.3f ms%n", best[2], best[3]);
+        }
+    }
+
+    /**
+     * Compares merging two treaps of n entries each (half of the keys shared)
+     * by putting the entries of one into the other with union, sequentially and
+     * on the common ForkJoinPool, along with intersection and difference.
+     */
+    private static void benchmarkSetOperations(int[] sizes) throws IOException {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        for (int n : sizes) {
+            System.out.println("\n=== Set operations on two treaps of n = " + n + " (parallelism " + pool.getParallelism() + ") ===");
+            Integer[] evens = IntStream.range(0, n).map(i -> 2 * i).boxed().toArray(Integer[]::new);
+            Integer[] mixed = IntStream.range(0, n).map(i -> i < n / 2 ? 2 * i : 2 * i + 1).boxed().toArray(Integer[]::new);
+
+            Treap<Integer, Integer> a = Treap.fromSorted(evens, evens);
+            Treap<Integer, Integer> b = Treap.fromSorted(mixed, mixed);
+            long start = System.nanoTime();
+            for (Entry<Integer, Integer> e : b.entrySet()) {
+                a.put(e.getKey(), e.getValue());
+            }
+            long end = System.nanoTime();
+            System.out.printf("%-27s %8.3f ms (size %d)%n", "put loop:", (end - start) / 1_000_000.0, a.size());
+
+            for (ForkJoinPool p : Arrays.asList(null, pool)) {
+                String how = p == null ? "sequential" : "parallel";
+                a = Treap.fromSorted(evens, evens);
+                b = Treap.fromSorted(mixed, mixed);
+                start = System.nanoTime();
+                Treap<Integer, Integer> union = p == null ? Treap.union(a, b) : Treap.union(a, b, p);
+                end = System.nanoTime();
+                System.out.printf("%-27s %8.3f ms (size %d)%n", "union (" + how + "):", (end - start) / 1_000_000.0, union.size());
+
+                a = Treap.fromSorted(evens, evens);
+                b = Treap.fromSorted(mixed, mixed);
+                start = System.nanoTime();
+                Treap<Integer, Integer> common = p == null ? Treap.intersection(a, b) : Treap.intersection(a, b, p);
+                end = System.nanoTime();
+                System.out.printf("%-27s %8.3f ms (size %d)%n", "intersection (" + how + "):", (end - start) / 1_000_000.0, common.size());
+
+                a = Treap.fromSorted(evens, evens);
+                b = Treap.fromSorted(mixed, mixed);
+                start = System.nanoTime();
+                Treap<Integer, Integer> rest = p == null ? Treap.difference(a, b) : Treap.difference(a, b, p);
+                end = System.nanoTime();
+                System.out.printf("%-27s %8.3f ms (size %d)%n", "difference (" + how + "):", (end - start) / 1_000_000.0, rest.size());
+            }
+        }
+    }
+
+    /**
+     * Compares sequential and parallel bulk builds from sorted keys, and
+     * sequential and parallel stream aggregations over the entries. Each map is
+     * dropped and the heap collected before the next timing, so that the
+     * collection of earlier maps is not charged to later steps.
+     */
+    private static void benchmarkParallel(int[] sizes) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        for (int n : sizes) {
+            System.out.println("\n=== Parallel build and traversal with n = " + n + " (parallelism " + pool.getParallelism() + ") ===");
+            Integer[] keys = IntStream.range(0, n).boxed().toArray(Integer[]::new);
+            for (int round = 0; round < 3; round++) {           // the last round runs warm
+                double seq = timeBuild(() -> Treap.fromSorted(keys, keys));
+                double par = timeBuild(() -> Treap.fromSorted(keys, keys, pool));
+                System.out.printf("Treap build:      sequential %8.3f ms, parallel %8.3f ms%n", seq, par);
+
+                seq = timeBuild(() -> AVLTreeMap.fromSorted(keys, keys));
+                par = timeBuild(() -> AVLTreeMap.fromSorted(keys, keys, pool));
+                System.out.printf("AVLTreeMap build: sequential %8.3f ms, parallel %8.3f ms%n", seq, par);
+
+                Treap<Integer, Integer> treap = Treap.fromSorted(keys, keys);
+                System.gc();
+                long start = System.nanoTime();
+                long sum = StreamSupport.stream(treap.entrySet().spliterator(), false).mapToLong(e -> e.getValue()).sum();
+                long mid = System.nanoTime();
+                long parallelSum = StreamSupport.stream(treap.entrySet().spliterator(), true).mapToLong(e -> e.getValue()).sum();
+                long end = System.nanoTime();
+                System.out.printf("Stream sum:       sequential %8.3f ms, parallel %8.3f ms (checksums %d, %d)%n",
+                        (mid - start) / 1_000_000.0, (end - mid) / 1_000_000.0, sum, parallelSum);
+            }
+        }
+    }
+
+    /**
+     * Compares summing the values of a map by first copying its entries into a
+     * java.util.ArrayList, as callers had to before the maps offered streams,
+     * with summing them through entryStream() and parallelEntryStream().
+     */
+    private static void benchmarkStreams(int[] sizes) throws IOException {
+        for (int n : sizes) {
+            System.out.println("\n=== Streams over maps with n = " + n + " ===");
+            Integer[] keys = IntStream.range(0, n).boxed().toArray(Integer[]::new);
+            ChainHashMap<Integer, Integer> hash = new ChainHashMap<>(2 * n + 1);
+            for (int key = 0; key < n; key++) {             // fresh boxes, allocated next to the entries
+                hash.put(key, key);
+            }
+            List<AbstractMap<Integer, Integer>> maps = List.of(AVLTreeMap.fromSorted(keys, keys), hash);
+            for (AbstractMap<Integer, Integer> map : maps) {
+                double copy = Double.MAX_VALUE, seq = Double.MAX_VALUE, par = Double.MAX_VALUE;
+                long checksum = 0;
+                for (int round = 0; round < 10; round++) {      // best of 10, to let the JIT warm up
+                    long start = System.nanoTime();
+                    List<Entry<Integer, Integer>> buffer = new ArrayList<>();
+                    map.entrySet().forEach(buffer::add);
+                    checksum += buffer.stream().mapToLong(Entry::getValue).sum();
+                    long t1 = System.nanoTime();
+                    checksum += map.entryStream().mapToLong(Entry::getValue).sum();
+                    long t2 = System.nanoTime();
+                    checksum += map.parallelEntryStream().mapToLong(Entry::getValue).sum();
+                    long t3 = System.nanoTime();
+                    copy = Math.min(copy, (t1 - start) / 1_000_000.0);
+                    seq = Math.min(seq, (t2 - t1) / 1_000_000.0);
+                    par = Math.min(par, (t3 - t2) / 1_000_000.0);
+                }
+                System.out.printf("%-12s copy+stream %8.3f ms, entryStream %8.3f ms, parallelEntryStream %8.3f ms (checksum %d)%n",
+                        map.getClass().getSimpleName(), copy, seq, par, checksum);
+            }
+        }
+    }
+
+    /**
+     * Compares lookups from the root (Treap.get) with lookups through a cursor
+     * (Treap.Cursor.get) on a treap of n keys, for a walk whose successive keys
+     * are at most maxStep apart in rank.
+     */
+    private static void benchmarkFinger(int n, int[] maxSteps) throws IOException {
+        System.out.println("\n=== Finger search with n = " + n + " ===");
+        Integer[] keys = IntStream.range(0, n).boxed().toArray(Integer[]::new);
+        Treap<Integer, Integer> treap = Treap.fromSorted(keys, keys);
+        int lookups = 1_000_000;
+        for (int maxStep : maxSteps) {
+            Random random = new Random(42);
+            int[] walk = new int[lookups];
+            int key = n / 2;
+            for (int i = 0; i < lookups; i++) {
+                key = Math.floorMod(key + random.nextInt(2 * maxStep + 1) - maxStep, n);
+                walk[i] = key;
+            }
+            double root = Double.MAX_VALUE, finger = Double.MAX_VALUE;
+            long checksum = 0;
+            for (int round = 0; round < 5; round++) {           // best of 5, to let the JIT warm up
+                long start = System.nanoTime();
+                for (int k : walk) {
+                    checksum += treap.get(k);
+                }
+                long mid = System.nanoTime();
+                Treap<Integer, Integer>.Cursor cursor = treap.cursor(walk[0]);
+                for (int k : walk) {
+                    checksum += cursor.get(k);
+                }
+                long end = System.nanoTime();
+                root = Math.min(root, (mid - start) / 1_000_000.0);
+                finger = Math.min(finger, (end - mid) / 1_000_000.0);
+            }
+            System.out.printf("max step %5d: from root %8.3f ms, from cursor %8.3f ms (checksum %d)%n",
+                    maxStep, root, finger, checksum);
+        }
+    }
+
+    /**
+     * Compares expiring n sessions in the given number of sweeps, by removing
+     * the first entry of a Treap keyed by expiry time (and its session from a
+     * HashMap index) until it is not yet due, with ExpiringTreap.evictBefore.
+     * The expiry times are random in [0, n).
+     */
+    private static void benchmarkExpiry(int[] sizes, int sweeps) throws IOException {
+        for (int n : sizes) {
+            System.out.println("\n=== Expiring n = " + n + " sessions in " + sweeps + " sweeps ===");
+            Random random = new Random(42);
+            long[] expiry = new long[n];
+            for (int i = 0; i < n; i++) {
+                expiry[i] = random.nextInt(n);
+            }
+            for (int round = 0; round < 3; round++) {
+                Treap<Long, Integer> timers = new Treap<>();
+                HashMap<Integer, Long> index = new HashMap<>();
+                ExpiringTreap<Integer, Integer> sessions = new ExpiringTreap<>();
+                for (int i = 0; i < n; i++) {
+                    timers.put(expiry[i] * n + i, i);        // unique keys in order of expiry
+                    index.put(i, expiry[i]);
+                    sessions.put(i, i, expiry[i]);
+                }
+                long start = System.nanoTime();
+                int removed = 0;
+                for (int s = 1; s <= sweeps; s++) {
+                    long now = (long) n * s / sweeps;
+                    for (Entry<Long, Integer> first = timers.firstEntry(); first != null && first.getKey() < now * n; first = timers.firstEntry()) {
+                        timers.remove(first.getKey());
+                        index.remove(first.getValue());
+                        removed++;
+                    }
+                }
+                long mid = System.nanoTime();
+                int evicted = 0;
+                for (int s = 1; s <= sweeps; s++) {
+                    evicted += sessions.evictBefore((long) n * s / sweeps);
+                }
+                long end = System.nanoTime();
+                System.out.printf("firstEntry/remove %8.3f ms, evictBefore %8.3f ms (%d and %d expired)%n",
+                        (mid - start) / 1_000_000.0, (end - mid) / 1_000_000.0, removed, evicted);
+            }
+        }
+    }
+
+    /**
+     * Compares random positional inserts and reads on a DoublyLinkedList and an
+     * ImplicitTreap of n elements. The linked list is skipped for large n, where
+     * each of its operations walks half a million nodes.
+     */
+    private static void benchmarkSequence(int[] sizes, int ops) {
+        for (int n : sizes) {
+            System.out.println("\n=== " + ops + " positional inserts and reads on n = " + n + " elements ===");
+            Integer[] elements = IntStream.range(0, n).boxed().toArray(Integer[]::new);
+            List<interfaces.List<Integer>> lists = new ArrayList<>();
+            if (n <= 100000) {
+                list.DoublyLinkedList<Integer> linked = new list.DoublyLinkedList<>();
+                for (Integer e : elements) {
+                    linked.addLast(e);
+                }
+                lists.add(linked);
+            }
+            lists.add(ImplicitTreap.fromArray(elements));
+            for (interfaces.List<Integer> seq : lists) {
+                Random random = new Random(42);
+                long checksum = 0;
+                long start = System.nanoTime();
+                for (int i = 0; i < ops; i++) {
+                    seq.add(random.nextInt(seq.size() + 1), i);
+                    checksum += seq.get(random.nextInt(seq.size()));
+                }
+                System.out.printf("%-16s %10.3f ms (checksum %d)%n", seq.getClass().getSimpleName(),
+                        (System.nanoTime() - start) / 1_000_000.0, checksum);
+            }
+        }
+    }
+
+    /**
+     * Compares range sums and range additions over n keys done by walking
+     * Treap.subMap (and putting each updated value back) with the aggregate and
+     * update of an AugmentedTreap. Each op is one query and one update over a
+     * random range of the given width.
+     */
+    private static void benchmarkAugmented(int n, int[] widths, int ops) throws IOException {
+        for (int width : widths) {
+            System.out.println("\n=== " + ops + " range sums and updates of width " + width + " over n = " + n + " keys ===");
+            for (int round = 0; round < 3; round++) {
+                Treap<Integer, Long> plain = new Treap<>();
+                AugmentedTreap<Integer, Long, Long, Long> augmented = new AugmentedTreap<>(Augmentation.sum());
+                for (int key = 0; key < n; key++) {
+                    plain.put(key, (long) key);
+                    augmented.put(key, (long) key);
+                }
+                Random random = new Random(42);
+                long checksum = 0;
+                long start = System.nanoTime();
+                for (int i = 0; i < ops; i++) {
+                    int from = random.nextInt(n - width + 1);
+                    for (Entry<Integer, Long> e : plain.subMap(from, from + width)) {
+                        checksum += e.getValue();
+                    }
+                    List<Entry<Integer, Long>> range = new ArrayList<>();
+                    plain.subMap(from, from + width).forEach(range::add);
+                    for (Entry<Integer, Long> e : range) {
+                        plain.put(e.getKey(), e.getValue() + i);
+                    }
+                }
+                long mid = System.nanoTime();
+                random = new Random(42);
+                long augmentedChecksum = 0;
+                for (int i = 0; i < ops; i++) {
+                    int from = random.nextInt(n - width + 1);
+                    augmentedChecksum += augmented.aggregate(from, from + width);
+                    augmented.update(from, from + width, (long) i);
+                }
+                long end = System.nanoTime();
+                System.out.printf("subMap walk %10.3f ms, AugmentedTreap %8.3f ms (checksums %s)%n",
+                        (mid - start) / 1_000_000.0, (end - mid) / 1_000_000.0, checksum == augmentedChecksum ? "agree" : "DIFFER");
+            }
+        }
+    }
+
+    /**
+     * Measures what TreeMetrics costs: n random puts followed by n gets on each
+     * kind of tree, with metrics disabled and then enabled, and prints what the
+     * enabled metrics recorded.
+     */
+    private static void benchmarkMetrics(int[] sizes) throws IOException {
+        for (int n : sizes) {
+            System.out.println("\n=== " + n + " random puts and gets ===");
+            Integer[] keys = new Integer[n];
+            Random random = new Random(42);
+            for (int i = 0; i < n; i++) {
+                keys[i] = random.nextInt();
+            }
+            List<Supplier<TreeMap<Integer, Integer>>> kinds = List.of(
+                    Treap::new, AVLTreeMap::new, RBTreeMap::new, SplayTreeMap::new);
+            for (Supplier<TreeMap<Integer, Integer>> kind : kinds) {
+                double[] best = {Double.MAX_VALUE, Double.MAX_VALUE};
+                TreeMetrics metrics = null;
+                for (int round = 0; round < 3; round++) {
+                    for (int enabled = 0; enabled < 2; enabled++) {
+                        TreeMap<Integer, Integer> map = kind.get();
+                        if (enabled == 1) {
+                            metrics = map.enableMetrics();
+                        }
+                        System.gc();
+                        long start = System.nanoTime();
+                        for (Integer key : keys) {
+                            map.put(key, key);
+                        }
+                        for (Integer key : keys) {
+                            map.get(key);
+                        }
+                        best[enabled] = Math.min(best[enabled], (System.nanoTime() - start) / 1_000_000.0);
+                    }
+                }
+                System.out.printf("%-12s disabled %9.3f ms, enabled %9.3f ms%n  %s%n",
+                        kind.get().getClass().getSimpleName(), best[0], best[1], metrics);
+            }
+        }
+    }
+
+    /**
+     * Compares n puts, n successful gets, n unsuccessful gets and n removes on a
+     * ChainHashMap and on a ProbeHashMap with each probing scheme, each starting
+     * at its default capacity and growing as it fills.
+     */
+    private static void benchmarkProbing(int[] sizes) throws IOException {
+        for (int n : sizes) {
+            System.out.println("\n=== n = " + n + " random keys ===");
+            Random random = new Random(42);
+            Integer[] keys = new Integer[n];
+            Integer[] absent = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = random.nextInt() & ~1;             // even keys are stored,
+                absent[i] = random.nextInt() | 1;            // odd ones never are
+            }
+            List<Supplier<AbstractMap<Integer, Integer>>> kinds = List.of(
+                    () -> new ChainHashMap<>(),
+                    () -> new ProbeHashMap<>(ProbeHashMap.Probing.LINEAR),
+                    () -> new ProbeHashMap<>(ProbeHashMap.Probing.QUADRATIC),
+                    () -> new ProbeHashMap<>(ProbeHashMap.Probing.ROBIN_HOOD));
+            for (Supplier<AbstractMap<Integer, Integer>> kind : kinds) {
+                double[] best = {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE};
+                String name = "";
+                long found = 0;
+                for (int round = 0; round < 3; round++) {
+                    AbstractMap<Integer, Integer> map = kind.get();
+                    name = map instanceof ProbeHashMap<Integer, Integer> p ? "Probe/" + p.getProbing() : "ChainHashMap";
+                    System.gc();
+                    long t0 = System.nanoTime();
+                    for (Integer key : keys) {
+                        map.put(key, key);
+                    }
+                    long t1 = System.nanoTime();
+                    found = 0;
+                    for (Integer key : keys) {
+                        if (map.get(key) != null) found++;
+                    }
+                    long t2 = System.nanoTime();
+                    for (Integer key : absent) {
+                        if (map.get(key) != null) found++;
+                    }
+                    long t3 = System.nanoTime();
+                    for (Integer key : keys) {
+                        map.remove(key);
+                    }
+                    long t4 = System.nanoTime();
+                    long[] t = {t0, t1, t2, t3, t4};
+                    for (int phase = 0; phase < 4; phase++) {
+                        best[phase] = Math.min(best[phase], (t[phase + 1] - t[phase]) / 1_000_000.0);
+                    }
+                }
+                System.out.printf("%-20s put %8.3f ms, get hit %8.3f ms, get miss %8.3f ms, remove %8.3f ms (%d found)%n",
+                        name, best[0], best[1], best[2], best[3], found);
+            }
+        }
+    }
+
+    /**
+     * Times each of n puts of random keys into an initially empty map, whose
+     * table grows as they go, and reports the total and the slowest puts:
+     * ChainHashMap and ProbeHashMap rehash incrementally, java.util.HashMap all
+     * at once.
+     */
+    private static void benchmarkRehash(int n) throws IOException {
+        System.out.println("\n=== Latency of " + n + " puts into a growing table ===");
+        Random random = new Random(42);
+        Integer[] keys = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = random.nextInt();
+        }
+        long[] latency = new long[n];
+        for (int round = 0; round < 3; round++) {
+            for (int kind = 0; kind < 3; kind++) {
+                AbstractMap<Integer, Integer> map = kind == 0 ? new ChainHashMap<>() : kind == 1 ? new ProbeHashMap<>() : null;
+                HashMap<Integer, Integer> reference = new HashMap<>();
+                System.gc();
+                long start = System.nanoTime();
+                for (int i = 0; i < n; i++) {
+                    long t = System.nanoTime();
+                    if (map != null) {
+                        map.put(keys[i], i);
+                    } else {
+                        reference.put(keys[i], i);
+                    }
+                    latency[i] = System.nanoTime() - t;
+                }
+                double total = (System.nanoTime() - start) / 1_000_000.0;
+                Arrays.sort(latency);
+                System.out.printf("%-18s total %9.3f ms, p99 %7.2f us, p99.9 %8.2f us, p99.99 %8.2f us, max %9.2f us%n",
+                        map == null ? "java.util.HashMap" : map.getClass().getSimpleName(), total,
+                        latency[(int) (n * 0.99)] / 1000.0, latency[(int) (n * 0.999)] / 1000.0,
+                        latency[(int) (n * 0.9999)] / 1000.0, latency[n - 1] / 1000.0);
+            }
+        }
+    }
+
+    /**
+     * Compares the hash strategies: the cost of computing a bucket alone, over
+     * ten million hash codes, then n puts and n gets of random keys on a
+     * ChainHashMap hashed by each.
+     */
+    private static void benchmarkHashing(int[] sizes) throws IOException {
+        String[] names = {"mad", "powerOfTwo", "seeded"};
+        List<Supplier<HashStrategy>> strategies = List.of(
+                () -> HashStrategy.mad(109345121), HashStrategy::powerOfTwo, HashStrategy::seeded);
+        System.out.println("\n=== 10000000 bucket computations ===");
+        for (int s = 0; s < strategies.size(); s++) {
+            HashStrategy strategy = strategies.get(s).get();
+            int capacity = strategy.capacityAtLeast(1 << 20);
+            double best = Double.MAX_VALUE;
+            long sum = 0;
+            for (int round = 0; round < 5; round++) {
+                long start = System.nanoTime();
+                for (int h = 0; h < 10_000_000; h++) {
+                    sum += strategy.bucket(h * 0x9E3779B9, capacity);
+                }
+                best = Math.min(best, (System.nanoTime() - start) / 1_000_000.0);
+            }
+            System.out.printf("%-12s %8.3f ms, %5.2f ns per bucket (checksum %d)%n", names[s], best, best * 1e6 / 10_000_000, sum);
+        }
+        for (int n : sizes) {
+            System.out.println("\n=== ChainHashMap, n = " + n + " random keys ===");
+            Random random = new Random(42);
+            Integer[] keys = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = random.nextInt();
+            }
+            for (int s = 0; s < strategies.size(); s++) {
+                double bestPut = Double.MAX_VALUE, bestGet = Double.MAX_VALUE;
+                for (int round = 0; round < 3; round++) {
+                    ChainHashMap<Integer, Integer> map = new ChainHashMap<>(16, strategies.get(s).get());
+                    System.gc();
+                    long start = System.nanoTime();
+                    for (Integer key : keys) {
+                        map.put(key, key);
+                    }
+                    long mid = System.nanoTime();
+                    for (Integer key : keys) {
+                        map.get(key);
+                    }
+                    long end = System.nanoTime();
+                    bestPut = Math.min(bestPut, (mid - start) / 1_000_000.0);
+                    bestGet = Math.min(bestGet, (end - mid) / 1_000_000.0);
+                }
+                System.out.printf("%-12s put %9.3f ms, get %9.3f ms%n", names[s], bestPut, bestGet);
+            }
+        }
+    }
+
+    /**
+     * Measures the cost per write of n random keys on the hash tables: putting
+     * new keys, overwriting them, incrementing a counter per key both by a get
+     * followed by a put and by a single merge, and removing them.
+     */
+    private static void benchmarkWrites(int[] sizes) throws IOException {
+        String[] names = {"ChainHashMap", "Probe LINEAR", "Probe ROBIN_HOOD"};
+        List<Supplier<AbstractHashMap<Integer, Integer>>> kinds = List.of(
+                ChainHashMap::new, () -> new ProbeHashMap<>(ProbeHashMap.Probing.LINEAR),
+                () -> new ProbeHashMap<>(ProbeHashMap.Probing.ROBIN_HOOD));
+        for (int n : sizes) {
+            System.out.println("\n=== ns per write, n = " + n + " random keys ===");
+            Random random = new Random(42);
+            Integer[] keys = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = random.nextInt();
+            }
+            Integer one = 1;
+            for (int k = 0; k < kinds.size(); k++) {
+                double[] best = new double[5];
+                Arrays.fill(best, Double.MAX_VALUE);
+                for (int round = 0; round < Math.max(5, 1000000 / n); round++) {   // small n warm up the JIT
+                    AbstractHashMap<Integer, Integer> map = kinds.get(k).get();
+                    System.gc();
+                    long[] t = new long[6];
+                    t[0] = System.nanoTime();
+                    for (Integer key : keys) {
+                        map.put(key, one);
+                    }
+                    t[1] = System.nanoTime();
+                    for (Integer key : keys) {
+                        map.put(key, one);
+                    }
+                    t[2] = System.nanoTime();
+                    for (Integer key : keys) {
+                        Integer count = map.get(key);
+                        map.put(key, count == null ? one : count + 1);
+                    }
+                    t[3] = System.nanoTime();
+                    for (Integer key : keys) {
+                        map.merge(key, one, Integer::sum);
+                    }
+                    t[4] = System.nanoTime();
+                    for (Integer key : keys) {
+                        map.remove(key);
+                    }
+                    t[5] = System.nanoTime();
+                    for (int phase = 0; phase < 5; phase++) {
+                        best[phase] = Math.min(best[phase], (double) (t[phase + 1] - t[phase]) / n);
+                    }
+                }
+                System.out.printf("%-17s put new %6.1f, put again %6.1f, get+put %6.1f, merge %6.1f, remove %6.1f%n",
+                        names[k], best[0], best[1], best[2], best[3], best[4]);
+            }
+        }
+    }
+
+    /**
+     * Compares IntIntHashMap with the tables of boxed entries, counting n
+     * random keys: the heap retained per entry, the time per count (addTo, merge,
+     * or get followed by put) and per get, and the bytes allocated per
+     * operation. The bytes allocated while counting include growing the table.
+     * Run with -XX:+UseParallelGC for exact heap figures.
+     */
+    private static void benchmarkPrimitiveHash(int[] sizes) throws IOException {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        String[] names = {"java.util.HashMap", "ChainHashMap", "ProbeHashMap", "IntIntHashMap"};
+        for (int n : sizes) {
+            System.out.println("\n=== Counting " + n + " random keys ===");
+            Random random = new Random(42);
+            int[] keys = new int[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = random.nextInt();
+            }
+            for (int round = 0; round < 3; round++) {
+                for (int kind = 0; kind < names.length; kind++) {
+                    long before = heapAfterGc();
+                    long allocated = threads.getCurrentThreadAllocatedBytes();
+                    long start = System.nanoTime();
+                    Object table = countKeys(kind, keys);
+                    long mid = System.nanoTime();
+                    long countAllocated = threads.getCurrentThreadAllocatedBytes() - allocated;
+                    long sum = sumCounts(table, keys);
+                    long end = System.nanoTime();
+                    long getAllocated = threads.getCurrentThreadAllocatedBytes() - allocated - countAllocated;
+                    long retained = heapAfterGc() - before;
+                    System.out.printf("%-18s %5.1f bytes/entry, count %6.1f ns (%5.1f bytes allocated), get %6.1f ns (%4.1f bytes allocated) [%d, %s]%n",
+                            names[kind], (double) retained / n, (double) (mid - start) / n, (double) countAllocated / n,
+                            (double) (end - mid) / n, (double) getAllocated / n, sum, table.getClass().getSimpleName());
+                    table = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects the heap and returns the bytes in use afterwards, as recorded by
+     * the collector. The figures are exact under -XX:+UseParallelGC; G1 rounds
+     * them up to whole regions.
+     */
+    private static long heapAfterGc() {
+        System.gc();
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getCollectionUsage() != null) {
+                used += pool.getCollectionUsage().getUsed();
+            }
+        }
+        return used;
+    }
+
+    /** Returns a table of the given kind counting the occurrences of each key. */
+    private static Object countKeys(int kind, int[] keys) throws IOException {
+        switch (kind) {
+            case 0 -> {
+                HashMap<Integer, Integer> map = new HashMap<>();
+                for (int key : keys) {
+                    map.merge(key, 1, Integer::sum);
+                }
+                return map;
+            }
+            case 3 -> {
+                IntIntHashMap map = new IntIntHashMap();
+                for (int key : keys) {
+                    map.addTo(key, 1);
+                }
+                return map;
+            }
+            default -> {
+                AbstractMap<Integer, Integer> map = kind == 1 ? new ChainHashMap<>() : new ProbeHashMap<>();
+                for (int key : keys) {
+                    Integer count = map.get(key);
+                    map.put(key, count == null ? 1 : count + 1);
+                }
+                return map;
+            }
+        }
+    }
+
+    /** Returns the sum of the counts of the keys in a table made by countKeys. */
+    @SuppressWarnings("unchecked")
+    private static long sumCounts(Object table, int[] keys) throws IOException {
+        long sum = 0;
+        if (table instanceof IntIntHashMap map) {
+            for (int key : keys) {
+                sum += map.get(key);
+            }
+        } else if (table instanceof HashMap) {
+            HashMap<Integer, Integer> map = (HashMap<Integer, Integer>) table;
+            for (int key : keys) {
+                sum += map.get(key);
+            }
+        } else {
+            AbstractMap<Integer, Integer> map = (AbstractMap<Integer, Integer>) table;
+            for (int key : keys) {
+                sum += map.get(key);
+            }
+        }
+        return sum;
+    }
+
+    /** Returns the time in milliseconds taken by build, after collecting the heap. */
+    private static double timeBuild(Supplier<TreeMap<Integer, Integer>> build) {
+        System.gc();
+        long start = System.nanoTime();
+        build.get();
+        return (System.nanoTime() - start) / 1_000_000.0;
+    }
+}
@@ -0,0 +1,228 @@
+package tree;
+
+import interfaces.Entry;
+
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A thread-safe sorted map holding the current version of a PersistentTreap.
+ * <p>
+ * Versions are immutable. The current one is held in an AtomicReference, so a
+ * reader takes one volatile read and then works on a tree that can no longer
+ * change underneath it: get and the navigation methods are wait-free and never
+ * block writers. A writer derives a new version by path copying (O(log n)
+ * expected new nodes, every other subtree is shared) and installs it with a
+ * compare-and-set, retrying against the newer version if another writer got
+ * there first. snapshot() hands out the current version in O(1) for
+ * consistent point-in-time reads.
+ */
+public class ConcurrentTreap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V> {
+
+    private final AtomicReference<PersistentTreap<K, V>> current;
+
+    /** Constructs an empty map using the natural ordering of keys. */
+    public ConcurrentTreap() {
+        super();
+        current = new AtomicReference<>(new PersistentTreap<>());
+    }
+
+    /**
+     * Constructs an empty map using the given comparator to order keys.
+     *
+     * @param comp comparator defining the order of keys in the map
+     */
+    public ConcurrentTreap(Comparator<K> comp) {
+        super(comp);
+        current = new AtomicReference<>(new PersistentTreap<>(comp));
+    }
+
+    /**
+     * Returns the current version of the map. Later updates of this map do not
+     * affect the returned version.
+     *
+     * @return an immutable snapshot of the map
+     */
+    public PersistentTreap<K, V> snapshot() {
+        return current.get();
+    }
+
+    /**
+     * Returns the number of entries in the map.
+     *
+     * @return number of entries in the map
+     */
+    @Override
+    public int size() {
+        return current.get().size();
+    }
+
+    /**
+     * Returns the value associated with the specified key, or null if no such entry
+     * exists.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the associated value, or null if no such entry exists
+     */
+    @Override
+    public V get(K key) {
+        return current.get().get(key);
+    }
+
+    /**
+     * Associates the given value with the given key. If an entry with the key was
+     * already in the map, this replaced the previous value with the new one and
+     * returns the old value. Otherwise, a new entry is added and null is returned.
+     *
+     * @param key   key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with the key (or null, if no such
+     *         entry)
+     */
+    @Override
+    public V put(K key, V value) {
+        while (true) {
+            PersistentTreap<K, V> version = current.get();
+            PersistentTreap.Update<K, V> update = version.putUpdate(key, value);
+            if (current.compareAndSet(version, update.version())) {
+                return update.old();
+            }
+        }
+    }
+
+    /**
+     * Removes the entry with the specified key, if present, and returns its
+     * associated value. Otherwise does nothing and returns null.
+     *
+     * @param key the key whose entry is to be removed from the map
+     * @return the previous value associated with the removed key, or null if no
+     *         such entry exists
+     */
+    @Override
+    public V remove(K key) {
+        while (true) {
+            PersistentTreap<K, V> version = current.get();
+            PersistentTreap.Update<K, V> update = version.removeUpdate(key);
+            if (update.version() == version) {
+                return null;
+            }
+            if (current.compareAndSet(version, update.version())) {
+                return update.old();
+            }
+        }
+    }
+
+    // additional behaviors of the SortedMap interface
+
+    /**
+     * Returns the entry having the least key (or null if map is empty).
+     *
+     * @return entry with least key (or null if map is empty)
+     */
+    @Override
+    public Entry<K, V> firstEntry() {
+        return current.get().firstEntry();
+    }
+
+    /**
+     * Returns the entry having the greatest key (or null if map is empty).
+     *
+     * @return entry with greatest key (or null if map is empty)
+     */
+    @Override
+    public Entry<K, V> lastEntry() {
+        return current.get().lastEntry();
+    }
+
+    /**
+     * Returns the entry with least key greater than or equal to given key (or null
+     * if no such key exists).
+     *
+     * @return entry with least key greater than or equal to given (or null if no
+     *         such entry)
+     */
+    @Override
+    public Entry<K, V> ceilingEntry(K key) {
+        return current.get().ceilingEntry(key);
+    }
+
+    /**
+     * Returns the entry with greatest key less than or equal to given key (or null
+     * if no such key exists).
+     *
+     * @return entry with greatest key less than or equal to given (or null if no
+     *         such entry)
+     */
+    @Override
+    public Entry<K, V> floorEntry(K key) {
+        return current.get().floorEntry(key);
+    }
+
+    /**
+     * Returns the entry with greatest key strictly less than given key (or null if
+     * no such key exists).
+     *
+     * @return entry with greatest key strictly less than given (or null if no such
+     *         entry)
+     */
+    @Override
+    public Entry<K, V> lowerEntry(K key) {
+        return current.get().lowerEntry(key);
+    }
+
+    /**
+     * Returns the entry with least key strictly greater than given key (or null if
+     * no such key exists).
+     *
+     * @return entry with least key strictly greater than given (or null if no such
+     *         entry)
+     */
+    @Override
+    public Entry<K, V> higherEntry(K key) {
+        return current.get().higherEntry(key);
+    }
+
+    /**
+     * Returns an iterable collection of all key-value entries of the map, taken
+     * from a single version of the tree.
+     *
+     * @return iterable collection of the map's entries
+     */
+    @Override
+    public Iterable<Entry<K, V>> entrySet() {
+        return current.get().entrySet();
+    }
+
+    /**
+     * Returns an iterable containing all entries with keys in the range from
+     * <code>fromKey</code> inclusive to <code>toKey</code> exclusive, taken from
+     * a single version of the tree.
+     *
+     * @return iterable with keys in desired range
+     */
+    @Override
+    public Iterable<Entry<K, V>> subMap(K fromKey, K toKey) {
+        return current.get().subMap(fromKey, toKey);
+    }
+
+    @Override
+    public double loadFactor() {
+        return 0;
+    }
+
+    @Override
+    public int numCollisions() {
+        return 0;
+    }
+
+    /**
+     * Returns true if every node's priority is at least that of its children.
+     */
+    public boolean checkHeap() {
+        return current.get().checkHeap();
+    }
+
+    public String toString() {
+        return entrySet().toString();
+    }
+}
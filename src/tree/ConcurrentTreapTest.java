@@ -0,0 +1,122 @@
+package tree;
+
+import interfaces.Entry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentTreapTest {
+
+    private ConcurrentTreap<Integer, String> sample() {
+        ConcurrentTreap<Integer, String> map = new ConcurrentTreap<>();
+        Integer[] arr = new Integer[] {35, 26, 15, 24, 33, 4, 12, 1, 23, 21, 2, 5};
+        for (Integer i : arr) {
+            map.put(i, Integer.toString(i));
+        }
+        return map;
+    }
+
+    @Test
+    void size() {
+        ConcurrentTreap<Integer, String> map = sample();
+        assertEquals(12, map.size());
+        map.remove(35);
+        assertEquals(11, map.size());
+        map.remove(100);
+        assertEquals(11, map.size());
+    }
+
+    @Test
+    void putAndGet() {
+        ConcurrentTreap<Integer, String> map = new ConcurrentTreap<>();
+        assertNull(map.put(10, "A"));
+        assertEquals("A", map.put(10, "B"));
+        assertEquals("B", map.get(10));
+        assertNull(map.get(11));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void remove() {
+        ConcurrentTreap<Integer, String> map = sample();
+        assertEquals("12", map.remove(12));
+        assertNull(map.get(12));
+        assertNull(map.remove(12));
+        assertTrue(map.checkHeap());
+    }
+
+    @Test
+    void navigation() {
+        ConcurrentTreap<Integer, String> map = sample();
+        assertEquals(1, map.firstEntry().getKey());
+        assertEquals(35, map.lastEntry().getKey());
+        assertEquals(12, map.ceilingEntry(6).getKey());
+        assertEquals(12, map.ceilingEntry(12).getKey());
+        assertEquals(5, map.floorEntry(6).getKey());
+        assertEquals(5, map.lowerEntry(12).getKey());
+        assertEquals(15, map.higherEntry(12).getKey());
+        assertNull(map.higherEntry(35));
+        assertNull(map.lowerEntry(1));
+    }
+
+    @Test
+    void entrySetAndSubMap() {
+        ConcurrentTreap<Integer, String> map = sample();
+        List<Integer> keys = new ArrayList<>();
+        for (Entry<Integer, String> e : map.entrySet()) {
+            keys.add(e.getKey());
+        }
+        assertEquals(List.of(1, 2, 4, 5, 12, 15, 21, 23, 24, 26, 33, 35), keys);
+        assertEquals("[12, 15, 21, 23, 24, 26, 33]", map.subMap(12, 34).toString());
+        assertEquals("[]", map.subMap(34, 12).toString());
+    }
+
+    @Test
+    void concurrentWriters() throws InterruptedException {
+        ConcurrentTreap<Integer, Integer> map = new ConcurrentTreap<>();
+        int threads = 4;
+        int perThread = 2000;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int base = t * perThread;
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    map.put(base + i, base + i);
+                }
+                for (int i = 0; i < perThread; i += 2) {
+                    map.remove(base + i);
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread w : workers) {
+            w.join();
+        }
+        assertEquals(threads * perThread / 2, map.size());
+        assertTrue(map.checkHeap());
+        for (int k = 0; k < threads * perThread; k++) {
+            if (k % 2 == 0) {
+                assertNull(map.get(k));
+            } else {
+                assertEquals(k, map.get(k));
+            }
+        }
+    }
+
+    @Test
+    void snapshot() {
+        ConcurrentTreap<Integer, String> map = sample();
+        PersistentTreap<Integer, String> before = map.snapshot();
+        map.put(100, "100");
+        map.remove(1);
+
+        assertEquals(12, before.size());
+        assertEquals("1", before.get(1));
+        assertNull(before.get(100));
+        assertEquals(12, map.size());
+        assertEquals("100", map.get(100));
+    }
+}
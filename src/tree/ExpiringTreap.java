@@ -0,0 +1,317 @@
+package tree;
+
+import interfaces.AbstractMap;
+import interfaces.Entry;
+import utils.MapEntry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * A map whose entries expire. Every entry carries an expiry timestamp, and
+ * evictBefore(now) removes all entries that expired before now in one call.
+ * <p>
+ * The entries are held in a Treap ordered by expiry (ties broken by key), next
+ * to a hash index from each key to its expiry for lookups by key. Eviction
+ * splits the expired entries off the front of the treap in expected O(log n)
+ * time and then drops their k keys from the index, so it takes O(log n + k)
+ * instead of k separate O(log n) removals. get, put and remove take expected
+ * O(log n) time.
+ * <p>
+ * Timestamps are plain longs on whatever clock the caller uses. Expired entries
+ * stay visible until they are evicted, either explicitly or by the background
+ * sweeper started with startSweeper. All methods are synchronized, so the
+ * sweeper can run while other threads use the map. An iteration over
+ * entrySet() runs over a snapshot of the entries taken under the lock when the
+ * iterator is created, so it is unaffected by later sweeps and updates.
+ */
+public class ExpiringTreap<K extends Comparable<K>, V> extends AbstractMap<K, V> {
+
+    /** The expiry time of entries put without one: they are never evicted. */
+    public static final long NEVER = Long.MAX_VALUE;
+
+    private Treap<Deadline<K>, V> byExpiry;                         // the entries, ordered by expiry
+    private final HashMap<K, Deadline<K>> deadlines = new HashMap<>(); // the expiry of each key
+    private ScheduledExecutorService sweeper;                        // null unless sweeping
+
+    /** Constructs an empty map. */
+    public ExpiringTreap() {
+        this(PriorityGenerator.random());
+    }
+
+    /**
+     * Constructs an empty map whose treap draws its priorities from the given
+     * generator.
+     *
+     * @param priorities the source of priorities
+     */
+    public ExpiringTreap(PriorityGenerator<Object> priorities) {
+        this.byExpiry = new Treap<>(priorities, BalanceableBinaryTree.Leaves.NULL);
+    }
+
+    /**
+     * The position of an entry in expiry order: its expiry time, then its key.
+     * A deadline without a key precedes every other deadline with the same time,
+     * and serves to split the treap at that time.
+     */
+    private static final class Deadline<K extends Comparable<K>> implements Comparable<Deadline<K>> {
+        private final long time;
+        private final K key;
+
+        Deadline(long time, K key) {
+            this.time = time;
+            this.key = key;
+        }
+
+        @Override
+        public int compareTo(Deadline<K> other) {
+            int c = Long.compare(time, other.time);
+            if (c != 0 || key == other.key) {
+                return c;
+            }
+            if (key == null || other.key == null) {
+                return key == null ? -1 : 1;
+            }
+            return key.compareTo(other.key);
+        }
+
+        @Override
+        public String toString() {
+            return key + "@" + time;
+        }
+    }
+
+    /**
+     * Returns the number of entries in the map, expired or not, that have not
+     * been evicted yet.
+     *
+     * @return number of entries in the map
+     */
+    @Override
+    public synchronized int size() {
+        return deadlines.size();
+    }
+
+    /**
+     * Returns the value associated with the specified key, or null if no such entry
+     * exists.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the associated value, or null if no such entry exists
+     */
+    @Override
+    public synchronized V get(K key) throws IOException {
+        Deadline<K> d = deadlines.get(key);
+        return d == null ? null : byExpiry.get(d);
+    }
+
+    /**
+     * Returns the expiry time of the entry with the given key.
+     *
+     * @param key the key whose expiry time is to be returned
+     * @return the expiry time, or null if no such entry exists
+     */
+    public synchronized Long getExpiry(K key) {
+        Deadline<K> d = deadlines.get(key);
+        return d == null ? null : d.time;
+    }
+
+    /**
+     * Returns the earliest expiry time of the entries in the map.
+     *
+     * @return the earliest expiry time, or NEVER if the map is empty
+     */
+    public synchronized long nextExpiry() {
+        Entry<Deadline<K>, V> first = byExpiry.firstEntry();
+        return first == null ? NEVER : first.getKey().time;
+    }
+
+    /**
+     * Associates the given value with the given key, to be kept until it is
+     * removed; see put(key, value, expiresAt).
+     */
+    @Override
+    public V put(K key, V value) throws IOException {
+        return put(key, value, NEVER);
+    }
+
+    /**
+     * Associates the given value with the given key until the given time. If an
+     * entry with the key was already in the map, this replaces both its value
+     * and its expiry time and returns the old value. Otherwise, a new entry is
+     * added and null is returned.
+     *
+     * @param key       key with which the specified value is to be associated
+     * @param value     value to be associated with the specified key
+     * @param expiresAt the time from which evictBefore may evict the entry
+     * @return the previous value associated with the key (or null, if no such
+     *         entry)
+     * @throws IllegalArgumentException if key is null
+     */
+    public synchronized V put(K key, V value, long expiresAt) throws IllegalArgumentException, IOException {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        Deadline<K> d = new Deadline<>(expiresAt, key);
+        Deadline<K> old = deadlines.put(key, d);
+        V previous = old == null ? null : byExpiry.remove(old);
+        byExpiry.put(d, value);
+        return previous;
+    }
+
+    /**
+     * Removes the entry with the specified key, if present, and returns its
+     * associated value. Otherwise does nothing and returns null.
+     *
+     * @param key the key whose entry is to be removed from the map
+     * @return the previous value associated with the removed key, or null if no
+     *         such entry exists
+     */
+    @Override
+    public synchronized V remove(K key) throws IOException {
+        Deadline<K> d = deadlines.remove(key);
+        return d == null ? null : byExpiry.remove(d);
+    }
+
+    /**
+     * Removes every entry whose expiry time is less than now, in expected
+     * O(log n + k) time for k evicted entries.
+     *
+     * @param now the current time
+     * @return the number of entries evicted
+     */
+    public int evictBefore(long now) {
+        return evictBefore(now, null);
+    }
+
+    /**
+     * Removes every entry whose expiry time is less than now, as
+     * evictBefore(now) does, and passes each evicted entry to the given action
+     * in order of expiry.
+     *
+     * @param now     the current time
+     * @param evicted the action to perform on each evicted entry, or null
+     * @return the number of entries evicted
+     */
+    public synchronized int evictBefore(long now, Consumer<? super Entry<K, V>> evicted) {
+        if (byExpiry.isEmpty() || nextExpiry() >= now) {
+            return 0;
+        }
+        Treap.Parts<Deadline<K>, V> parts;
+        try {
+            parts = byExpiry.split(new Deadline<>(now, null));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byExpiry = parts.atOrAbove();
+        int count = 0;
+        for (Entry<Deadline<K>, V> e : parts.below().entrySet()) {
+            deadlines.remove(e.getKey().key);
+            if (evicted != null) {
+                evicted.accept(new MapEntry<>(e.getKey().key, e.getValue()));
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Starts a daemon thread that calls evictBefore(clock.getAsLong()) at the
+     * given period, until stopSweeper is called. A sweep that throws a
+     * RuntimeException is reported to the uncaught exception handler of the
+     * sweeper thread, and the next sweep runs as scheduled.
+     *
+     * @param period the time between two sweeps
+     * @param unit   the unit of period
+     * @param clock  the clock giving the current time, on the scale of the
+     *               expiry times of the entries
+     * @throws IllegalStateException if a sweeper is already running
+     */
+    public synchronized void startSweeper(long period, TimeUnit unit, LongSupplier clock) throws IllegalStateException {
+        if (sweeper != null) {
+            throw new IllegalStateException("Sweeper already running");
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ExpiringTreap-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        sweeper.scheduleAtFixedRate(() -> {
+            try {
+                evictBefore(clock.getAsLong());
+            } catch (RuntimeException e) {      // rethrowing would cancel every later sweep
+                Thread t = Thread.currentThread();
+                t.getUncaughtExceptionHandler().uncaughtException(t, e);
+            }
+        }, period, period, unit);
+    }
+
+    /** Stops the sweeper started by startSweeper, if any. A sweep in progress completes. */
+    public synchronized void stopSweeper() {
+        if (sweeper != null) {
+            sweeper.shutdown();
+            sweeper = null;
+        }
+    }
+
+    /**
+     * Returns an iterable collection of all key-value entries of the map, in
+     * order of expiry. Each iterator runs over a snapshot of the entries taken
+     * when it is created, in O(n) time, so other threads and the sweeper may
+     * modify the map during an iteration.
+     *
+     * @return iterable collection of the map's entries
+     */
+    @Override
+    public Iterable<Entry<K, V>> entrySet() {
+        return new EntryIterable();
+    }
+
+    /** Returns an iterator over a copy of the entries, in order of expiry. */
+    private synchronized Iterator<Entry<K, V>> snapshot() {
+        ArrayList<Entry<K, V>> entries = new ArrayList<>(byExpiry.size());
+        for (Entry<Deadline<K>, V> e : byExpiry.entrySet()) {
+            entries.add(new MapEntry<>(e.getKey().key, e.getValue()));
+        }
+        return Collections.unmodifiableList(entries).iterator();
+    }
+
+    // ---------------- nested EntryIterable class ----------------
+    private class EntryIterable implements Iterable<Entry<K, V>> {
+        public Iterator<Entry<K, V>> iterator() {
+            return snapshot();
+        }
+
+        public String toString() {
+            StringBuilder sb = new StringBuilder("[");
+            for (Entry<K, V> e : this) {
+                if (sb.length() > 1) sb.append(", ");
+                sb.append(e);
+            }
+            return sb.append("]").toString();
+        }
+    } // ----------- end of nested EntryIterable class -----------
+
+    public String toString() {
+        return entrySet().toString();
+    }
+
+    @Override
+    public double loadFactor() {
+        return 0;
+    }
+
+    @Override
+    public int numCollisions() {
+        return 0;
+    }
+}
@@ -0,0 +1,142 @@
+package tree;
+
+import interfaces.Entry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiringTreapTest {
+
+    @Test
+    void putGetAndRemove() throws IOException {
+        ExpiringTreap<String, Integer> map = new ExpiringTreap<>();
+        assertNull(map.put("a", 1, 30));
+        assertNull(map.put("b", 2));
+        assertEquals(1, map.put("a", 3, 10));      // replaces the value and the expiry
+        assertEquals(3, map.get("a"));
+        assertEquals(10L, map.getExpiry("a"));
+        assertEquals(ExpiringTreap.NEVER, map.getExpiry("b"));
+        assertNull(map.getExpiry("c"));
+        assertEquals(10, map.nextExpiry());
+        assertEquals(2, map.remove("b"));
+        assertNull(map.remove("b"));
+        assertEquals(1, map.size());
+        assertThrows(IllegalArgumentException.class, () -> map.put(null, 0, 0));
+    }
+
+    @Test
+    void evictBeforeMatchesScan() throws IOException {
+        Random random = new Random(17);
+        ExpiringTreap<Integer, String> map = new ExpiringTreap<>(PriorityGenerator.seeded(17));
+        java.util.HashMap<Integer, Long> expected = new java.util.HashMap<>();
+        long now = 0;
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < 200; i++) {
+                int key = random.nextInt(2000);
+                long expiry = now + random.nextInt(100);
+                map.put(key, "v" + key, expiry);
+                expected.put(key, expiry);
+            }
+            now += random.nextInt(40);
+            final long cutoff = now;
+            List<Integer> evicted = new ArrayList<>();
+            int count = map.evictBefore(cutoff, e -> evicted.add(e.getKey()));
+            List<Integer> due = new ArrayList<>();
+            expected.forEach((k, t) -> {
+                if (t < cutoff) due.add(k);
+            });
+            due.forEach(expected::remove);
+
+            assertEquals(due.size(), count);
+            assertEquals(due.size(), evicted.size());
+            for (Integer key : evicted) {
+                assertNull(map.getExpiry(key));
+            }
+            assertEquals(expected.size(), map.size());
+            for (Entry<Integer, String> e : map.entrySet()) {
+                assertEquals(expected.get(e.getKey()), map.getExpiry(e.getKey()));
+                assertTrue(map.getExpiry(e.getKey()) >= cutoff);
+            }
+        }
+        assertEquals(0, map.evictBefore(Long.MIN_VALUE));
+    }
+
+    @Test
+    void entrySetSurvivesEviction() throws IOException {
+        ExpiringTreap<Integer, Integer> map = new ExpiringTreap<>();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i, i);
+        }
+        Iterable<Entry<Integer, Integer>> entries = map.entrySet();
+        Iterator<Entry<Integer, Integer>> during = entries.iterator();
+        assertEquals(50, map.evictBefore(50));
+        int count = 0;
+        while (during.hasNext()) {              // the snapshot predates the eviction
+            during.next();
+            count++;
+        }
+        assertEquals(100, count);
+        List<Integer> keys = new ArrayList<>();
+        for (Entry<Integer, Integer> e : entries) {     // a new snapshot, after it
+            keys.add(e.getKey());
+        }
+        assertEquals(50, keys.size());
+        assertEquals(50, keys.get(0));
+    }
+
+    @Test
+    void toStringListsEntriesByExpiry() throws IOException {
+        ExpiringTreap<Integer, String> map = new ExpiringTreap<>();
+        map.put(2, "b", 10);
+        map.put(1, "a", 20);
+        assertEquals("[2, 1]", map.toString());
+    }
+
+    @Test
+    void sweeperEvictsInTheBackground() throws Exception {
+        ExpiringTreap<Integer, Integer> map = new ExpiringTreap<>();
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i, i);
+        }
+        AtomicLong clock = new AtomicLong(500);
+        map.startSweeper(1, TimeUnit.MILLISECONDS, clock::get);
+        assertThrows(IllegalStateException.class, () -> map.startSweeper(1, TimeUnit.MILLISECONDS, clock::get));
+        for (int i = 0; i < 5000 && map.size() > 500; i++) {
+            Thread.sleep(1);
+        }
+        assertEquals(500, map.size());
+        assertEquals(500, map.nextExpiry());
+        map.stopSweeper();
+        clock.set(1000);
+        Thread.sleep(20);
+        assertEquals(500, map.size());
+    }
+
+    @Test
+    void sweeperSurvivesFailingSweep() throws Exception {
+        ExpiringTreap<Integer, Integer> map = new ExpiringTreap<>();
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i, i);
+        }
+        AtomicLong calls = new AtomicLong();
+        map.startSweeper(1, TimeUnit.MILLISECONDS, () -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new IllegalStateException("clock unavailable");
+            }
+            return 500;
+        });
+        for (int i = 0; i < 5000 && map.size() > 500; i++) {
+            Thread.sleep(1);
+        }
+        map.stopSweeper();
+        assertEquals(500, map.size());
+    }
+}
@@ -0,0 +1,383 @@
+package tree;
+
+import interfaces.List;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * A list stored in a treap whose keys are implicit: the position of an element
+ * is the number of elements before it in an inorder traversal, which each node
+ * derives from the subtree sizes it keeps. Nodes are ordered by position and
+ * heap-ordered by random priorities, so the tree has expected O(log n) height,
+ * and get, set, add and remove at any index, split and concat all take expected
+ * O(log n) time, where the linked lists take O(n) to reach an index.
+ */
+public class ImplicitTreap<E> implements List<E> {
+
+    // ---------------- nested Node class ----------------
+    private static final class Node<E> {
+        E element;
+        final int priority;
+        Node<E> left;
+        Node<E> right;
+        int size = 1;           // number of nodes in the subtree rooted here
+
+        Node(E element, int priority) {
+            this.element = element;
+            this.priority = priority;
+        }
+
+        /** Recomputes the size of this subtree from those of its children; returns this node. */
+        Node<E> update() {
+            size = 1 + size(left) + size(right);
+            return this;
+        }
+
+        static int size(Node<?> n) {
+            return n == null ? 0 : n.size;
+        }
+    } // ----------- end of nested Node class -----------
+
+    /** The parts of a subtree before and from a position. */
+    private static final class Split<E> {
+        Node<E> before, after;
+    }
+
+    private final SplittableRandom random;
+    private Node<E> root;       // null if the list is empty
+
+    /** Constructs an empty list. */
+    public ImplicitTreap() {
+        this(new SplittableRandom());
+    }
+
+    /**
+     * Constructs an empty list drawing priorities from a generator with the given
+     * seed, so that the same operations give the same tree.
+     *
+     * @param seed the seed of the priorities
+     */
+    public ImplicitTreap(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    private ImplicitTreap(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * Builds a list holding the given elements in order, in O(n) time, with a
+     * stack holding the right spine of the tree. Each new element pops the
+     * nodes of lower priority off the spine, takes the last of them as its left
+     * subtree and becomes the right child of the node left on top; every node
+     * is pushed and popped at most once, and no rotations are made.
+     *
+     * @param elements the elements of the list
+     * @return a list holding the given elements
+     */
+    public static <E> ImplicitTreap<E> fromArray(E[] elements) {
+        ImplicitTreap<E> list = new ImplicitTreap<>();
+        ArrayList<Node<E>> spine = new ArrayList<>();           // the right spine, root first
+        for (E e : elements) {
+            Node<E> n = new Node<>(e, list.random.nextInt());
+            Node<E> last = null;
+            while (!spine.isEmpty() && spine.get(spine.size() - 1).priority < n.priority) {
+                last = spine.remove(spine.size() - 1).update();
+            }
+            n.left = last;
+            if (!spine.isEmpty()) {
+                spine.get(spine.size() - 1).right = n;
+            }
+            spine.add(n);
+        }
+        for (int i = spine.size() - 1; i >= 0; i--) {
+            spine.get(i).update();
+        }
+        list.root = spine.isEmpty() ? null : spine.get(0);
+        return list;
+    }
+
+    // utilities over the tree
+
+    /** Splits the subtree rooted at t into its first i nodes and the rest. */
+    private static <E> Split<E> split(Node<E> t, int i) {
+        if (t == null) {
+            return new Split<>();
+        }
+        Split<E> parts;
+        if (i <= Node.size(t.left)) {
+            parts = split(t.left, i);
+            t.left = parts.after;
+            parts.after = t.update();
+        } else {
+            parts = split(t.right, i - Node.size(t.left) - 1);
+            t.right = parts.before;
+            parts.before = t.update();
+        }
+        return parts;
+    }
+
+    /** Returns the root of a tree holding the nodes of a followed by those of b. */
+    private static <E> Node<E> merge(Node<E> a, Node<E> b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority >= b.priority) {
+            a.right = merge(a.right, b);
+            return a.update();
+        }
+        b.left = merge(a, b.left);
+        return b.update();
+    }
+
+    /** Returns the root of t with node n inserted at position i. */
+    private static <E> Node<E> insert(Node<E> t, int i, Node<E> n) {
+        if (t == null) {
+            return n;
+        }
+        if (n.priority > t.priority) {
+            Split<E> parts = split(t, i);       // n takes t's place, above both parts
+            n.left = parts.before;
+            n.right = parts.after;
+            return n.update();
+        }
+        int l = Node.size(t.left);
+        if (i <= l) {
+            t.left = insert(t.left, i, n);
+        } else {
+            t.right = insert(t.right, i - l - 1, n);
+        }
+        return t.update();
+    }
+
+    /** Returns the root of t without the node at position i, which is stored in removed[0]. */
+    private static <E> Node<E> delete(Node<E> t, int i, Object[] removed) {
+        int l = Node.size(t.left);
+        if (i == l) {
+            removed[0] = t.element;
+            return merge(t.left, t.right);
+        }
+        if (i < l) {
+            t.left = delete(t.left, i, removed);
+        } else {
+            t.right = delete(t.right, i - l - 1, removed);
+        }
+        return t.update();
+    }
+
+    /** Returns the node at position i, which must be valid. */
+    private Node<E> nodeAt(int i) {
+        Node<E> t = root;
+        while (true) {
+            int l = Node.size(t.left);
+            if (i < l) {
+                t = t.left;
+            } else if (i > l) {
+                i -= l + 1;
+                t = t.right;
+            } else {
+                return t;
+            }
+        }
+    }
+
+    /** Checks that i is in [0, n). */
+    private static void checkIndex(int i, int n) throws IndexOutOfBoundsException {
+        if (i < 0 || i >= n) {
+            throw new IndexOutOfBoundsException("Invalid index: " + i);
+        }
+    }
+
+    // public methods
+
+    /**
+     * Returns the number of elements in the list.
+     *
+     * @return number of elements in the list
+     */
+    @Override
+    public int size() {
+        return Node.size(root);
+    }
+
+    /**
+     * Tests whether the list is empty.
+     *
+     * @return true if the list is empty, false otherwise
+     */
+    @Override
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Returns the element at index i, in expected O(log n) time.
+     *
+     * @param i the index of the element
+     * @return the element at index i
+     * @throws IndexOutOfBoundsException if i is not in [0, size())
+     */
+    @Override
+    public E get(int i) throws IndexOutOfBoundsException {
+        checkIndex(i, size());
+        return nodeAt(i).element;
+    }
+
+    /**
+     * Replaces the element at index i, in expected O(log n) time.
+     *
+     * @param i the index of the element
+     * @param e the new element
+     * @return the element previously at index i
+     * @throws IndexOutOfBoundsException if i is not in [0, size())
+     */
+    public E set(int i, E e) throws IndexOutOfBoundsException {
+        checkIndex(i, size());
+        Node<E> n = nodeAt(i);
+        E old = n.element;
+        n.element = e;
+        return old;
+    }
+
+    /**
+     * Inserts element e at index i, shifting the elements from i onwards one
+     * position up, in expected O(log n) time.
+     *
+     * @param i the index at which to insert, from 0 to size()
+     * @param e the element to insert
+     * @throws IndexOutOfBoundsException if i is not in [0, size()]
+     */
+    @Override
+    public void add(int i, E e) throws IndexOutOfBoundsException {
+        checkIndex(i, size() + 1);
+        root = insert(root, i, new Node<>(e, random.nextInt()));
+    }
+
+    @Override
+    public void addFirst(E e) {
+        add(0, e);
+    }
+
+    @Override
+    public void addLast(E e) {
+        add(size(), e);
+    }
+
+    /**
+     * Removes and returns the element at index i, shifting the elements after i
+     * one position down, in expected O(log n) time.
+     *
+     * @param i the index of the element
+     * @return the removed element
+     * @throws IndexOutOfBoundsException if i is not in [0, size())
+     */
+    @Override
+    @SuppressWarnings({"unchecked"})
+    public E remove(int i) throws IndexOutOfBoundsException {
+        checkIndex(i, size());
+        Object[] removed = new Object[1];
+        root = delete(root, i, removed);
+        return (E) removed[0];
+    }
+
+    @Override
+    public E removeFirst() {
+        return isEmpty() ? null : remove(0);
+    }
+
+    @Override
+    public E removeLast() {
+        return isEmpty() ? null : remove(size() - 1);
+    }
+
+    /** The two lists a split leaves: the elements before the index, and those from it on. */
+    public record Parts<E>(ImplicitTreap<E> before, ImplicitTreap<E> after) {
+    }
+
+    /**
+     * Splits this list before index i. The first i elements are moved into the
+     * first list returned, the others into the second one; this list is left
+     * empty. Runs in expected O(log n) time.
+     *
+     * @param i the index at which to split, from 0 to size()
+     * @return the lists holding the elements before and from index i
+     * @throws IndexOutOfBoundsException if i is not in [0, size()]
+     */
+    public Parts<E> split(int i) throws IndexOutOfBoundsException {
+        checkIndex(i, size() + 1);
+        Split<E> parts = split(root, i);
+        Parts<E> lists = new Parts<>(new ImplicitTreap<>(random.split()), new ImplicitTreap<>(random.split()));
+        lists.before().root = parts.before;
+        lists.after().root = parts.after;
+        root = null;
+        return lists;
+    }
+
+    /**
+     * Concatenates two lists: the elements of first followed by those of second.
+     * Both arguments are left empty. Runs in expected O(log n) time.
+     *
+     * @param first  the list holding the leading elements
+     * @param second the list holding the trailing elements
+     * @return a list holding the elements of both arguments
+     * @throws IllegalArgumentException if first and second are the same list
+     */
+    public static <E> ImplicitTreap<E> concat(ImplicitTreap<E> first, ImplicitTreap<E> second) throws IllegalArgumentException {
+        if (first == second) {
+            throw new IllegalArgumentException("Cannot concatenate a list with itself");
+        }
+        ImplicitTreap<E> joined = new ImplicitTreap<>(first.random.split());
+        joined.root = merge(first.root, second.root);
+        first.root = null;
+        second.root = null;
+        return joined;
+    }
+
+    /**
+     * Returns an iterator over the elements in order. It keeps the path to the
+     * current node, O(log n) expected references; the list must not be modified
+     * during an iteration.
+     *
+     * @return an iterator over the elements of the list
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            private final ArrayList<Node<E>> path = new ArrayList<>();  // nodes whose left part is done or in progress
+
+            {
+                descendLeft(root);
+            }
+
+            private void descendLeft(Node<E> t) {
+                for (; t != null; t = t.left) {
+                    path.add(t);
+                }
+            }
+
+            public boolean hasNext() {
+                return !path.isEmpty();
+            }
+
+            public E next() {
+                if (path.isEmpty()) {
+                    throw new NoSuchElementException("No further elements");
+                }
+                Node<E> t = path.remove(path.size() - 1);
+                descendLeft(t.right);
+                return t.element;
+            }
+        };
+    }
+
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (E e : this) {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(e);
+        }
+        return sb.append("]").toString();
+    }
+}
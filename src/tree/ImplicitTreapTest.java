@@ -0,0 +1,86 @@
+package tree;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImplicitTreapTest {
+
+    @Test
+    void positionalOperations() {
+        ImplicitTreap<String> list = new ImplicitTreap<>(18);
+        assertTrue(list.isEmpty());
+        assertNull(list.removeFirst());
+        list.addLast("b");
+        list.addFirst("a");
+        list.addLast("d");
+        list.add(2, "c");
+        assertEquals("[a, b, c, d]", list.toString());
+        assertEquals("c", list.get(2));
+        assertEquals("c", list.set(2, "C"));
+        assertEquals("b", list.remove(1));
+        assertEquals("a", list.removeFirst());
+        assertEquals("d", list.removeLast());
+        assertEquals("[C]", list.toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.add(2, "x"));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.remove(-1));
+    }
+
+    @Test
+    void matchesArrayList() {
+        Random random = new Random(18);
+        ImplicitTreap<Integer> list = new ImplicitTreap<>(18);
+        List<Integer> expected = new ArrayList<>();
+        for (int step = 0; step < 20000; step++) {
+            int op = random.nextInt(4);
+            if (op < 2 || expected.isEmpty()) {
+                int i = random.nextInt(expected.size() + 1);
+                list.add(i, step);
+                expected.add(i, step);
+            } else if (op == 2) {
+                int i = random.nextInt(expected.size());
+                assertEquals(expected.remove(i), list.remove(i));
+            } else {
+                int i = random.nextInt(expected.size());
+                assertEquals(expected.get(i), list.get(i));
+            }
+            assertEquals(expected.size(), list.size());
+        }
+        assertEquals(expected.toString(), list.toString());
+    }
+
+    @Test
+    void splitAndConcat() {
+        Integer[] elements = new Integer[1000];
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = i;
+        }
+        ImplicitTreap<Integer> list = ImplicitTreap.fromArray(elements);
+        assertEquals(1000, list.size());
+        assertEquals(999, list.get(999));
+
+        ImplicitTreap.Parts<Integer> parts = list.split(300);
+        assertTrue(list.isEmpty());
+        assertEquals(300, parts.before().size());
+        assertEquals(700, parts.after().size());
+        assertEquals(299, parts.before().get(299));
+        assertEquals(300, parts.after().get(0));
+
+        // move the first 300 elements to the end
+        ImplicitTreap<Integer> rotated = ImplicitTreap.concat(parts.after(), parts.before());
+        assertTrue(parts.before().isEmpty() && parts.after().isEmpty());
+        int i = 0;
+        for (Integer e : rotated) {
+            assertEquals((i + 300) % 1000, e);
+            i++;
+        }
+        assertEquals(1000, i);
+        assertThrows(IllegalArgumentException.class, () -> ImplicitTreap.concat(rotated, rotated));
+        assertEquals(0, rotated.split(0).before().size());
+    }
+}
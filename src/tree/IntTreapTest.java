@@ -0,0 +1,84 @@
+package tree;
+
+import interfaces.Entry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntTreapTest {
+
+    private IntTreap<String> sample() {
+        IntTreap<String> map = new IntTreap<>();
+        int[] arr = new int[] {35, 26, 15, 24, 33, 4, 12, 1, 23, 21, 2, 5};
+        for (int i : arr) {
+            map.put(i, Integer.toString(i));
+        }
+        return map;
+    }
+
+    @Test
+    void putAndGet() {
+        IntTreap<String> map = sample();
+        assertEquals(12, map.size());
+        assertEquals("15", map.get(15));
+        assertNull(map.get(-1));
+        assertEquals("15", map.put(15, "fifteen"));
+        assertEquals("fifteen", map.get(15));
+        assertTrue(map.containsKey(33));
+        assertFalse(map.containsKey(34));
+    }
+
+    @Test
+    void remove() {
+        IntTreap<String> map = sample();
+        assertEquals("12", map.remove(12));
+        assertNull(map.remove(12));
+        assertEquals(11, map.size());
+        assertTrue(map.checkHeap());
+    }
+
+    @Test
+    void navigation() {
+        IntTreap<String> map = sample();
+        assertEquals(1, map.firstEntry().getKey());
+        assertEquals(35, map.lastEntry().getKey());
+        assertEquals(12, map.ceilingEntry(6).getKey());
+        assertEquals(5, map.floorEntry(6).getKey());
+        assertEquals(5, map.lowerEntry(12).getKey());
+        assertEquals(15, map.higherEntry(12).getKey());
+        assertNull(map.higherEntry(35));
+    }
+
+    @Test
+    void boxedInterface() throws IOException {
+        interfaces.SortedMap<Integer, String> map = sample();
+        assertEquals("24", map.get(Integer.valueOf(24)));
+        assertEquals(12, map.ceilingEntry(Integer.valueOf(6)).getKey());
+    }
+
+    @Test
+    void subMap() {
+        IntTreap<String> map = sample();
+        assertEquals("[12, 15, 21, 23, 24, 26, 33]", map.subMap(12, 34).toString());
+        List<Integer> keys = new ArrayList<>();
+        for (Entry<Integer, String> e : map.entrySet()) {
+            keys.add(e.getKey());
+        }
+        assertEquals(List.of(1, 2, 4, 5, 12, 15, 21, 23, 24, 26, 33, 35), keys);
+    }
+
+    @Test
+    void extremeKeys() {
+        IntTreap<String> map = new IntTreap<>();
+        map.put(Integer.MAX_VALUE, "max");
+        map.put(Integer.MIN_VALUE, "min");
+        map.put(0, "zero");
+        assertEquals(Integer.MIN_VALUE, map.firstEntry().getKey());
+        assertEquals(Integer.MAX_VALUE, map.lastEntry().getKey());
+        assertEquals("max", map.get(Integer.MAX_VALUE));
+    }
+}
@@ -10,9 +10,12 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 //import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Random;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 import java.util.stream.IntStream;
 import java.util.random.*;
 
@@ -110,84 +113,120 @@ public class LinkedBinaryTree<E extends Comparable<E>> implements BinaryTree<E>
     }
 
     /**
-     * Adds positions of the subtree rooted at Position p to the given
-     * snapshot using an inorder traversal
+     * Returns an iterable collection of positions of the tree, reported in preorder.
+     * Positions are produced lazily, one step at a time; see inorder().
      *
-     * @param p        Position serving as the root of a subtree
-     * @param snapshot a list to which results are appended
+     * @return iterable collection of the tree's positions in preorder
      */
-    private void inorderSubtree(Position<E> p, List<Position<E>> snapshot) {
-        if (left(p) != null) inorderSubtree(left(p), snapshot);
-        if (p.getElement() != null) snapshot.addLast(p);
-        if (right(p) != null) inorderSubtree(right(p), snapshot);
+    public Iterable<Position<E>> preorder() {
+        return new Traversal(() -> new StepIterator(root, this::preorderNext, true));
     }
 
     /**
-     * Adds positions of the subtree rooted at Position p to the given
-     * snapshot using a preorder traversal
+     * Returns an iterable collection of positions of the tree, reported in inorder.
+     * <p>
+     * Nothing is copied: each iterator starts at the leftmost position and
+     * computes every following one from the previous position through parent
+     * pointers, so it needs O(1) extra memory and reports its first position
+     * without visiting the rest of the tree. The tree must not be modified
+     * while an iteration is in progress.
      *
-     * @param p        Position serving as the root of a subtree
-     * @param snapshot a list to which results are appended
+     * @return iterable collection of the tree's positions reported in inorder
      */
-    private void preorderSubtree(Position<E> p, List<Position<E>> snapshot) {
-        if(p.getElement() != null) {
-            snapshot.addLast(p);
-        }// for preorder, we add position p before exploring subtrees
-        for (Position<E> c : children(p)) {
-            preorderSubtree(c, snapshot);
-        }
+    public Iterable<Position<E>> inorder() {
+        return new Traversal(() -> new StepIterator(root == null ? null : findMinimum(root), this::inorderNext, true));
     }
 
     /**
-     * Returns an iterable collection of positions of the tree, reported in preorder.
+     * Returns an iterable collection of positions of the tree, reported in postorder.
+     * Positions are produced lazily, one step at a time; see inorder().
      *
-     * @return iterable collection of the tree's positions in preorder
+     * @return iterable collection of the tree's positions in postorder
      */
-    public Iterable<Position<E>> preorder() {
-        //List<Position<E>> snapshot = new ArrayList<>();
-        List<Position<E>> snapshot = new SinglyLinkedList<>();
+    public Iterable<Position<E>> postorder() {
+        return new Traversal(() -> new StepIterator(root == null ? null : firstPostorder(root), this::postorderNext, false));
+    }
 
-        if (!isEmpty()) {
-            preorderSubtree(root(), snapshot);   // fill the snapshot recursively
+    /**
+     * Returns the Position following p in an inorder traversal of the tree (or
+     * null if p is the last one).
+     *
+     * @param p A valid Position within the tree
+     * @return the next Position in inorder (or null if p is the last one)
+     */
+    public Position<E> inorderNext(Position<E> p) {
+        Node<E> n = (Node<E>) p;
+        if (n.getRight() != null) {
+            return findMinimum(n.getRight());
         }
-        return snapshot;
+        while (n.getParent() != null && n == n.getParent().getRight()) {
+            n = n.getParent();          // climb out of finished right subtrees
+        }
+        return n.getParent();
     }
 
     /**
-     * Returns an iterable collection of positions of the tree, reported in inorder.
+     * Returns the Position preceding p in an inorder traversal of the tree (or
+     * null if p is the first one).
      *
-     * @return iterable collection of the tree's positions reported in inorder
+     * @param p A valid Position within the tree
+     * @return the previous Position in inorder (or null if p is the first one)
      */
-    public Iterable<Position<E>> inorder() {
-        List<Position<E>> snapshot = new SinglyLinkedList<>();
-        if (!isEmpty()) {
-            inorderSubtree(root(), snapshot);   // fill the snapshot recursively
+    public Position<E> inorderPrev(Position<E> p) {
+        Node<E> n = (Node<E>) p;
+        if (n.getLeft() != null) {
+            return findMaximum(n.getLeft());
         }
-        return snapshot;
+        while (n.getParent() != null && n == n.getParent().getLeft()) {
+            n = n.getParent();          // climb out of finished left subtrees
+        }
+        return n.getParent();
     }
 
     /**
-     * Adds positions of the subtree rooted at Position p to the given
-     * snapshot using a postorder traversal
+     * Returns the Position following p in a preorder traversal of the tree (or
+     * null if p is the last one).
      *
-     * @param p        Position serving as the root of a subtree
-     * @param snapshot a list to which results are appended
+     * @param p A valid Position within the tree
+     * @return the next Position in preorder (or null if p is the last one)
      */
-    private void postorderSubtree(Position<E> p, List<Position<E>> snapshot) {
-        for (Position<E> c : children(p))
-            postorderSubtree(c, snapshot);
-        snapshot.addLast(p);
+    public Position<E> preorderNext(Position<E> p) {
+        Node<E> n = (Node<E>) p;
+        if (n.getLeft() != null) return n.getLeft();
+        if (n.getRight() != null) return n.getRight();
+        while (n.getParent() != null) {
+            Node<E> parent = n.getParent();
+            if (n == parent.getLeft() && parent.getRight() != null) {
+                return parent.getRight();   // the nearest right subtree not yet explored
+            }
+            n = parent;
+        }
+        return null;
     }
 
     /**
-     * Returns an iterable collection of positions of the tree, reported in postorder.
+     * Returns the Position following p in a postorder traversal of the tree (or
+     * null if p is the last one).
      *
-     * @return iterable collection of the tree's positions in postorder
+     * @param p A valid Position within the tree
+     * @return the next Position in postorder (or null if p is the last one)
      */
-    public Iterable<Position<E>> postorder() {
-        List<Position<E>> snapshot = new SinglyLinkedList<>();
-        if (!isEmpty()) postorderSubtree(root(), snapshot);   // fill the snapshot recursively
-        return snapshot;
+    public Position<E> postorderNext(Position<E> p) {
+        Node<E> n = (Node<E>) p;
+        Node<E> parent = n.getParent();
+        if (parent == null) return null;
+        if (n == parent.getLeft() && parent.getRight() != null) {
+            return firstPostorder(parent.getRight());
+        }
+        return parent;
+    }
+
+    // Function to find the first node of a given subtree in postorder
+    private Node<E> firstPostorder(Node<E> n) {
+        while (n.left != null || n.right != null) {
+            n = n.left != null ? n.left : n.right;
+        }
+        return n;
     }
 
     public Iterable<Position<E>> positions() {
@@ -202,11 +241,12 @@ public class LinkedBinaryTree<E extends Comparable<E>> implements BinaryTree<E>
      * @throws IllegalArgumentException if p is not a valid Position for this tree.
      */
     public int depth(Position<E> p) throws IllegalArgumentException {
-        if (isRoot(p)) {
-            return 0;
-        } else {
-            return 1 + depth(parent(p));
+        int d = 0;
+        while (!isRoot(p)) {
+            p = parent(p);
+            d++;
         }
+        return d;
     }
 
     /**
@@ -231,9 +271,16 @@ public class LinkedBinaryTree<E extends Comparable<E>> implements BinaryTree<E>
      * @throws IllegalArgumentException if p is not a valid Position for this tree.
      */
     public int height(Position<E> p) throws IllegalArgumentException {
-        int h = 0;                          // base case if p is external
-        for (Position<E> c : children(p)) {
-            h = Math.max(h, 1 + height(c));
+        int h = 0;                          // 0 if p is external
+        ArrayList<Position<E>> level = new ArrayList<>();
+        children(p).forEach(level::add);
+        while (!level.isEmpty()) {          // one more level below p
+            h++;
+            ArrayList<Position<E>> next = new ArrayList<>();
+            for (Position<E> q : level) {
+                children(q).forEach(next::add);
+            }
+            level = next;
         }
         return h;
     }
@@ -282,10 +329,11 @@ public class LinkedBinaryTree<E extends Comparable<E>> implements BinaryTree<E>
      * @throws IllegalArgumentException if p is not a valid Position for this tree.
      */
     public int numChildren(Position<E> p) {
+        if (p == null) return 0;
+        Node<E> node = (Node<E>) p;
         int count = 0;
-        for (Position child : children(p)) {
-            count++;
-        }
+        if (node.getLeft() != null) count++;
+        if (node.getRight() != null) count++;
         return count;
     }
 
@@ -385,21 +433,13 @@ public class LinkedBinaryTree<E extends Comparable<E>> implements BinaryTree<E>
 
     /**
      * Returns an iterable collection of positions of the tree in breadth-first order.
+     * Positions are produced lazily; the queue of an iterator holds at most two
+     * levels of the tree at a time.
      *
      * @return iterable collection of the tree's positions in breadth-first order
      */
     public Iterable<Position<E>> breadthfirst() {
-        List<Position<E>> snapshot = new SinglyLinkedList<>();
-        if (!isEmpty()) {
-            java.util.Queue<Position<E>> q = new java.util.LinkedList<>();
-            q.add(root());                 // start with the root
-            while (!q.isEmpty()) {
-                Position<E> p = q.remove();     // remove from front of the queue
-                snapshot.addLast(p);                      // report this position
-                children(p).forEach(c -> q.add(c));           // add children to back of queue
-            }
-        }
-        return snapshot;
+        return new Traversal(BreadthFirstIterator::new);
     }
 
 
@@ -624,6 +664,36 @@ public class LinkedBinaryTree<E extends Comparable<E>> implements BinaryTree<E>
         return n.getElement();
     }
 
+    /**
+     * Attaches trees t1 and t2, respectively, as the left and right subtrees of the
+     * leaf Position p. As a side effect, t1 and t2 are set to empty trees.
+     *
+     * @param p  a leaf of the tree
+     * @param t1 an independent tree whose structure becomes the left child of p
+     * @param t2 an independent tree whose structure becomes the right child of p
+     * @throws IllegalArgumentException if p is not a valid Position for this tree
+     * @throws IllegalArgumentException if p is not a leaf
+     */
+    public void attach(Position<E> p, LinkedBinaryTree<E> t1, LinkedBinaryTree<E> t2) throws IllegalArgumentException {
+        Node<E> node = validate(p);
+        if (isInternal(p)) {
+            throw new IllegalArgumentException("p must be a leaf");
+        }
+        size += t1.size() + t2.size();
+        if (!t1.isEmpty()) {                      // attach t1 as left subtree of node
+            t1.root.setParent(node);
+            node.setLeft(t1.root);
+            t1.root = null;
+            t1.size = 0;
+        }
+        if (!t2.isEmpty()) {                      // attach t2 as right subtree of node
+            t2.root.setParent(node);
+            node.setRight(t2.root);
+            t2.root = null;
+            t2.size = 0;
+        }
+    }
+
     public String toString() {
         return positions().toString();
     }
@@ -732,6 +802,86 @@ public class LinkedBinaryTree<E extends Comparable<E>> implements BinaryTree<E>
         }
     }
 
+    /*
+     * An iterable over positions whose iterators are created on demand, so that
+     * no traversal takes place until iteration begins.
+     */
+    private class Traversal implements Iterable<Position<E>> {
+        private final Supplier<Iterator<Position<E>>> iterators;
+
+        Traversal(Supplier<Iterator<Position<E>>> iterators) {
+            this.iterators = iterators;
+        }
+
+        public Iterator<Position<E>> iterator() {
+            return iterators.get();
+        }
+
+        public String toString() {
+            StringBuilder sb = new StringBuilder("[");
+            for (Position<E> p : this) {
+                if (sb.length() > 1) sb.append(", ");
+                sb.append(p.getElement());
+            }
+            return sb.append("]").toString();
+        }
+    }
+
+    /*
+     * Iterates from a first position by repeatedly applying a step function,
+     * optionally skipping positions that hold no element (sentinel leaves).
+     */
+    private class StepIterator implements Iterator<Position<E>> {
+        private final UnaryOperator<Position<E>> step;
+        private final boolean elementsOnly;
+        private Position<E> cursor;
+
+        StepIterator(Position<E> first, UnaryOperator<Position<E>> step, boolean elementsOnly) {
+            this.step = step;
+            this.elementsOnly = elementsOnly;
+            this.cursor = skip(first);
+        }
+
+        private Position<E> skip(Position<E> p) {
+            while (elementsOnly && p != null && p.getElement() == null) {
+                p = step.apply(p);
+            }
+            return p;
+        }
+
+        public boolean hasNext() {
+            return cursor != null;
+        }
+
+        public Position<E> next() {
+            if (cursor == null) throw new NoSuchElementException();
+            Position<E> p = cursor;
+            cursor = skip(step.apply(p));
+            return p;
+        }
+    }
+
+    /* Iterates over the positions level by level, children queued as their parent is reported. */
+    private class BreadthFirstIterator implements Iterator<Position<E>> {
+        private final java.util.Queue<Node<E>> q = new java.util.ArrayDeque<>();
+
+        BreadthFirstIterator() {
+            if (root != null) q.add(root);     // start with the root
+        }
+
+        public boolean hasNext() {
+            return !q.isEmpty();
+        }
+
+        public Position<E> next() {
+            if (q.isEmpty()) throw new NoSuchElementException();
+            Node<E> n = q.remove();            // remove from front of the queue
+            if (n.getLeft() != null) q.add(n.getLeft());
+            if (n.getRight() != null) q.add(n.getRight());
+            return n;
+        }
+    }
+
     /* This class adapts the iteration produced by positions() to return elements. */
     private class ElementIterator implements Iterator<E> {
         Iterator<Position<E>> posIterator = positions().iterator();
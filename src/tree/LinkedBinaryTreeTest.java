@@ -135,6 +135,18 @@ class LinkedBinaryTreeTest {
         assertEquals("[8, 4, 9, 2, 10, 5, 11, 1, 12, 6, 3, 7]", bt.inorder().toString());
     }
 
+    @Test
+    void testTraversalOrders() {
+        LinkedBinaryTree<Integer> bt = new LinkedBinaryTree<Integer>();
+
+        Integer [] arr = new Integer[] {1,2,3,4,5,6,7,8,9,10,11,12};
+        bt.createLevelOrder(arr);
+        assertEquals("[1, 2, 4, 8, 9, 5, 10, 11, 3, 6, 12, 7]", bt.preorder().toString());
+        assertEquals("[8, 9, 4, 10, 11, 5, 2, 12, 6, 7, 3, 1]", bt.postorder().toString());
+        assertEquals("[1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12]", bt.breadthfirst().toString());
+        assertEquals("[]", new LinkedBinaryTree<Integer>().inorder().toString());
+    }
+
     @Test
     void testDepth() {
         LinkedBinaryTree<Integer> bt = new LinkedBinaryTree<Integer>();
@@ -155,4 +167,33 @@ class LinkedBinaryTreeTest {
         assertEquals(3, bt.height(bt.root()));
     }
 
+    @Test
+    void testDeepTree() {
+        LinkedBinaryTree<Integer> bt = new LinkedBinaryTree<Integer>();
+
+        // a path of 20000 right children, deeper than a recursive walk can go
+        int n = 20000;
+        Position<Integer> p = bt.addRoot(0);
+        for (int i = 1; i < n; i++) {
+            p = bt.addRight(p, i);
+        }
+
+        assertEquals(n - 1, bt.depth(p));
+        assertEquals(n - 1, bt.height(bt.root()));
+        int count = 0;
+        for (Position<Integer> q : bt.inorder()) {
+            assertEquals(count++, q.getElement());
+        }
+        assertEquals(n, count);
+        count = 0;
+        for (Position<Integer> q : bt.preorder()) {
+            assertEquals(count++, q.getElement());
+        }
+        assertEquals(n, count);
+        for (Position<Integer> q : bt.postorder()) {
+            assertEquals(--count, q.getElement());
+        }
+        assertEquals(0, count);
+    }
+
 }
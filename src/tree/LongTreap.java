@@ -0,0 +1,252 @@
+package tree;
+
+import interfaces.Entry;
+import utils.MapEntry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A sorted map from primitive long keys to values, using an array-backed treap.
+ * <p>
+ * Keys are stored unboxed in a long array and compared with primitive
+ * operators, so the search and rotation loops behind get(long), put(long, V),
+ * remove(long) and the navigation methods never allocate. The methods of the
+ * SortedMap interface taking Long keys delegate to the primitive versions;
+ * boxing only happens when an Entry is handed back to the caller.
+ */
+public class LongTreap<V> extends AbstractArrayTreap<Long, V> {
+
+    private long[] keys;
+
+    /** Constructs an empty map. */
+    public LongTreap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty map with room for the given number of entries before
+     * the arrays have to grow.
+     *
+     * @param capacity initial number of slots
+     */
+    public LongTreap(int capacity) {
+        super(capacity);
+        keys = new long[values.length];
+    }
+
+    @Override
+    protected void growKeys(int capacity) {
+        keys = Arrays.copyOf(keys, capacity);
+    }
+
+    @Override
+    protected void clearKey(int x) {
+        // nothing to release for a primitive key
+    }
+
+    @Override
+    protected Entry<Long, V> entry(int x) {
+        return x == NIL ? null : new MapEntry<>(keys[x], values[x]);
+    }
+
+    /** Returns the slot holding key, or NIL if there is none. */
+    private int find(long key) {
+        int x = root;
+        while (x != NIL && keys[x] != key) {
+            x = key < keys[x] ? left[x] : right[x];
+        }
+        return x;
+    }
+
+    /** Returns the slot with least key greater than (or equal to, if inclusive) key. */
+    private int ceiling(long key, boolean inclusive) {
+        int x = root;
+        int best = NIL;
+        while (x != NIL) {
+            if (key < keys[x] || (inclusive && key == keys[x])) {
+                best = x;
+                if (key == keys[x]) {
+                    break;
+                }
+                x = left[x];
+            } else {
+                x = right[x];
+            }
+        }
+        return best;
+    }
+
+    /** Returns the slot with greatest key less than (or equal to, if inclusive) key. */
+    private int floor(long key, boolean inclusive) {
+        int x = root;
+        int best = NIL;
+        while (x != NIL) {
+            if (key > keys[x] || (inclusive && key == keys[x])) {
+                best = x;
+                if (key == keys[x]) {
+                    break;
+                }
+                x = right[x];
+            } else {
+                x = left[x];
+            }
+        }
+        return best;
+    }
+
+    // primitive-keyed methods
+
+    /**
+     * Returns true if the map contains an entry with the given key.
+     *
+     * @param key the key to look for
+     * @return true if key is present
+     */
+    public boolean containsKey(long key) {
+        return find(key) != NIL;
+    }
+
+    /**
+     * Returns the value associated with the specified key, or null if no such entry
+     * exists.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the associated value, or null if no such entry exists
+     */
+    public V get(long key) {
+        int x = find(key);
+        return x == NIL ? null : values[x];
+    }
+
+    /**
+     * Associates the given value with the given key. If an entry with the key was
+     * already in the map, this replaced the previous value with the new one and
+     * returns the old value. Otherwise, a new entry is added and null is returned.
+     *
+     * @param key   key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with the key (or null, if no such
+     *         entry)
+     */
+    public V put(long key, V value) {
+        int p = NIL;
+        int x = root;
+        while (x != NIL) {
+            if (key == keys[x]) {
+                V old = values[x];
+                values[x] = value;
+                return old;
+            }
+            p = x;
+            x = key < keys[x] ? left[x] : right[x];
+        }
+        x = newNode(value);
+        keys[x] = key;
+        link(p, p != NIL && key < keys[p], x);
+        return null;
+    }
+
+    /**
+     * Removes the entry with the specified key, if present, and returns its
+     * associated value. Otherwise does nothing and returns null.
+     *
+     * @param key the key whose entry is to be removed from the map
+     * @return the previous value associated with the removed key, or null if no
+     *         such entry exists
+     */
+    public V remove(long key) {
+        int x = find(key);
+        return x == NIL ? null : removeNode(x);
+    }
+
+    /**
+     * Returns the entry with least key greater than or equal to given key (or null
+     * if no such key exists).
+     */
+    public Entry<Long, V> ceilingEntry(long key) {
+        return entry(ceiling(key, true));
+    }
+
+    /**
+     * Returns the entry with greatest key less than or equal to given key (or null
+     * if no such key exists).
+     */
+    public Entry<Long, V> floorEntry(long key) {
+        return entry(floor(key, true));
+    }
+
+    /**
+     * Returns the entry with greatest key strictly less than given key (or null if
+     * no such key exists).
+     */
+    public Entry<Long, V> lowerEntry(long key) {
+        return entry(floor(key, false));
+    }
+
+    /**
+     * Returns the entry with least key strictly greater than given key (or null if
+     * no such key exists).
+     */
+    public Entry<Long, V> higherEntry(long key) {
+        return entry(ceiling(key, false));
+    }
+
+    /**
+     * Returns an iterable containing all entries with keys in the range from
+     * <code>fromKey</code> inclusive to <code>toKey</code> exclusive.
+     *
+     * @return iterable with keys in desired range
+     */
+    public Iterable<Entry<Long, V>> subMap(long fromKey, long toKey) {
+        ArrayList<Entry<Long, V>> buffer = new ArrayList<>();
+        if (fromKey < toKey) {
+            for (int x = ceiling(fromKey, true); x != NIL && keys[x] < toKey; x = successor(x)) {
+                buffer.add(entry(x));
+            }
+        }
+        return buffer;
+    }
+
+    // methods of the SortedMap interface, delegating to the primitive versions
+
+    @Override
+    public V get(Long key) {
+        return get(key.longValue());
+    }
+
+    @Override
+    public V put(Long key, V value) {
+        return put(key.longValue(), value);
+    }
+
+    @Override
+    public V remove(Long key) {
+        return remove(key.longValue());
+    }
+
+    @Override
+    public Entry<Long, V> ceilingEntry(Long key) {
+        return ceilingEntry(key.longValue());
+    }
+
+    @Override
+    public Entry<Long, V> floorEntry(Long key) {
+        return floorEntry(key.longValue());
+    }
+
+    @Override
+    public Entry<Long, V> lowerEntry(Long key) {
+        return lowerEntry(key.longValue());
+    }
+
+    @Override
+    public Entry<Long, V> higherEntry(Long key) {
+        return higherEntry(key.longValue());
+    }
+
+    @Override
+    public Iterable<Entry<Long, V>> subMap(Long fromKey, Long toKey) {
+        return subMap(fromKey.longValue(), toKey.longValue());
+    }
+}
@@ -0,0 +1,46 @@
+package tree;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongTreapTest {
+
+    private LongTreap<String> sample() {
+        LongTreap<String> map = new LongTreap<>();
+        long[] arr = new long[] {35, 26, 15, 24, 33, 4, 12, 1, 23, 21, 2, 5};
+        for (long i : arr) {
+            map.put(i * 1_000_000_000_000L, Long.toString(i));
+        }
+        return map;
+    }
+
+    @Test
+    void putAndGet() {
+        LongTreap<String> map = sample();
+        assertEquals(12, map.size());
+        assertEquals("15", map.get(15_000_000_000_000L));
+        assertNull(map.get(15L));
+        assertEquals("15", map.put(15_000_000_000_000L, "fifteen"));
+        assertTrue(map.containsKey(33_000_000_000_000L));
+    }
+
+    @Test
+    void remove() {
+        LongTreap<String> map = sample();
+        assertEquals("12", map.remove(12_000_000_000_000L));
+        assertNull(map.remove(12_000_000_000_000L));
+        assertEquals(11, map.size());
+        assertTrue(map.checkHeap());
+    }
+
+    @Test
+    void navigation() {
+        LongTreap<String> map = sample();
+        assertEquals(1_000_000_000_000L, map.firstEntry().getKey());
+        assertEquals(35_000_000_000_000L, map.lastEntry().getKey());
+        assertEquals(12_000_000_000_000L, map.ceilingEntry(6_000_000_000_000L).getKey());
+        assertEquals(5_000_000_000_000L, map.floorEntry(6_000_000_000_000L).getKey());
+        assertEquals("[12, 15, 21]", map.subMap(12_000_000_000_000L, 23_000_000_000_000L).toString().replace("000000000000", ""));
+    }
+}
@@ -0,0 +1,452 @@
+package tree;
+
+import interfaces.Entry;
+import utils.DefaultComparator;
+import utils.MapEntry;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An immutable sorted map using a treap with path copying.
+ * <p>
+ * A PersistentTreap is one version of a map and never changes. put and remove
+ * leave it untouched and return a new version that shares every subtree off the
+ * changed path with this one, so an update allocates O(log n) expected nodes
+ * and keeping an old version around (a snapshot) costs nothing beyond holding
+ * the reference. The empty map is obtained with the public constructors.
+ * <p>
+ * Each node also stores the size of its subtree, so size() is O(1).
+ */
+public final class PersistentTreap<K extends Comparable<K>, V> implements Iterable<Entry<K, V>> {
+
+    // ---------------- nested Node class ----------------
+    static final class Node<K, V> {
+        final K key;
+        final V value;
+        final int priority;
+        final Node<K, V> left;
+        final Node<K, V> right;
+        final int size;         // number of nodes in the subtree rooted here
+
+        Node(K key, V value, int priority, Node<K, V> left, Node<K, V> right) {
+            this.key = key;
+            this.value = value;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            this.size = 1 + size(left) + size(right);
+        }
+
+        /** Returns a copy of this node with the given children. */
+        Node<K, V> with(Node<K, V> left, Node<K, V> right) {
+            return new Node<>(key, value, priority, left, right);
+        }
+
+        static int size(Node<?, ?> n) {
+            return n == null ? 0 : n.size;
+        }
+    } // ----------- end of nested Node class -----------
+
+    /** The comparator defining the ordering of keys in the map. */
+    private final Comparator<K> comp;
+
+    final Node<K, V> root;      // root of this version (null if empty)
+
+    /** Constructs an empty map using the natural ordering of keys. */
+    public PersistentTreap() {
+        this(new DefaultComparator<K>());
+    }
+
+    /**
+     * Constructs an empty map using the given comparator to order keys.
+     *
+     * @param comp comparator defining the order of keys in the map
+     */
+    public PersistentTreap(Comparator<K> comp) {
+        this(comp, null);
+    }
+
+    private PersistentTreap(Comparator<K> comp, Node<K, V> root) {
+        this.comp = comp;
+        this.root = root;
+    }
+
+    /** Returns the version holding the tree rooted at r (this, if r is unchanged). */
+    private PersistentTreap<K, V> version(Node<K, V> r) {
+        return r == root ? this : new PersistentTreap<>(comp, r);
+    }
+
+    // utilities over the tree
+
+    /** Returns the node holding key in the tree rooted at t, or null. */
+    private Node<K, V> find(Node<K, V> t, K key) {
+        while (t != null) {
+            int c = comp.compare(key, t.key);
+            if (c == 0) {
+                return t;
+            }
+            t = c < 0 ? t.left : t.right;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the root of a tree equal to t with key mapped to value, storing the
+     * node it replaces (if any) in replaced[0]. An existing node for key keeps its
+     * priority, and t itself is returned if it already maps key to value.
+     */
+    private Node<K, V> insert(Node<K, V> t, K key, V value, int priority, Object[] replaced) {
+        if (t == null) {
+            return new Node<>(key, value, priority, null, null);
+        }
+        int c = comp.compare(key, t.key);
+        if (c == 0) {
+            replaced[0] = t;
+            return t.value == value ? t : new Node<>(key, value, t.priority, t.left, t.right);
+        }
+        if (c < 0) {
+            Node<K, V> l = insert(t.left, key, value, priority, replaced);
+            if (l == t.left) {
+                return t;
+            }
+            if (l.priority > t.priority) {       // rotate right
+                return l.with(l.left, t.with(l.right, t.right));
+            }
+            return t.with(l, t.right);
+        } else {
+            Node<K, V> r = insert(t.right, key, value, priority, replaced);
+            if (r == t.right) {
+                return t;
+            }
+            if (r.priority > t.priority) {       // rotate left
+                return r.with(t.with(t.left, r.left), r.right);
+            }
+            return t.with(t.left, r);
+        }
+    }
+
+    /**
+     * Returns the root of a tree equal to t without key, storing the removed node
+     * (if any) in removed[0]. t itself is returned if key is not present.
+     */
+    private Node<K, V> delete(Node<K, V> t, K key, Object[] removed) {
+        if (t == null) {
+            return null;
+        }
+        int c = comp.compare(key, t.key);
+        if (c == 0) {
+            removed[0] = t;
+            return merge(t.left, t.right);
+        }
+        if (c < 0) {
+            Node<K, V> l = delete(t.left, key, removed);
+            return l == t.left ? t : t.with(l, t.right);
+        }
+        Node<K, V> r = delete(t.right, key, removed);
+        return r == t.right ? t : t.with(t.left, r);
+    }
+
+    /** Returns the value of the node held in found[0], or null if there is none. */
+    @SuppressWarnings({"unchecked"})
+    private static <K, V> V valueOf(Object[] found) {
+        return found[0] == null ? null : ((Node<K, V>) found[0]).value;
+    }
+
+    /**
+     * Returns the root of a tree holding the nodes of a followed by those of b.
+     * Every key of a must be less than every key of b.
+     */
+    private Node<K, V> merge(Node<K, V> a, Node<K, V> b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            return a.with(a.left, merge(a.right, b));
+        }
+        return b.with(merge(a, b.left), b.right);
+    }
+
+    /** Returns the node with least key greater than (or equal to, if inclusive) key. */
+    private Node<K, V> ceiling(K key, boolean inclusive) {
+        Node<K, V> t = root;
+        Node<K, V> best = null;
+        while (t != null) {
+            int c = comp.compare(key, t.key);
+            if (c < 0 || (inclusive && c == 0)) {
+                best = t;
+                if (c == 0) {
+                    break;
+                }
+                t = t.left;
+            } else {
+                t = t.right;
+            }
+        }
+        return best;
+    }
+
+    /** Returns the node with greatest key less than (or equal to, if inclusive) key. */
+    private Node<K, V> floor(K key, boolean inclusive) {
+        Node<K, V> t = root;
+        Node<K, V> best = null;
+        while (t != null) {
+            int c = comp.compare(key, t.key);
+            if (c > 0 || (inclusive && c == 0)) {
+                best = t;
+                if (c == 0) {
+                    break;
+                }
+                t = t.right;
+            } else {
+                t = t.left;
+            }
+        }
+        return best;
+    }
+
+    /** Wraps the contents of node t into an entry (or returns null for null). */
+    private static <K extends Comparable<K>, V> Entry<K, V> entry(Node<K, V> t) {
+        return t == null ? null : new MapEntry<>(t.key, t.value);
+    }
+
+    /**
+     * Adds the entries with keys in [fromKey, toKey) to buffer in key order; a
+     * null bound is unbounded.
+     */
+    private void inorder(K fromKey, K toKey, ArrayList<Entry<K, V>> buffer) {
+        ArrayList<Node<K, V>> stack = new ArrayList<>();
+        Node<K, V> t = root;
+        while (t != null || !stack.isEmpty()) {
+            while (t != null) {
+                if (fromKey != null && comp.compare(t.key, fromKey) < 0) {
+                    t = t.right;            // whole left subtree is below the range
+                } else {
+                    stack.add(t);
+                    t = t.left;
+                }
+            }
+            if (stack.isEmpty()) {
+                return;                     // every remaining key is below the range
+            }
+            t = stack.remove(stack.size() - 1);
+            if (toKey != null && comp.compare(t.key, toKey) >= 0) {
+                return;
+            }
+            buffer.add(entry(t));
+            t = t.right;
+        }
+    }
+
+    // public methods
+
+    /** The result of an update: the new version, and the value it replaced or removed. */
+    public record Update<K extends Comparable<K>, V>(PersistentTreap<K, V> version, V old) {
+    }
+
+    /**
+     * Returns the number of entries in the map.
+     *
+     * @return number of entries in the map
+     */
+    public int size() {
+        return Node.size(root);
+    }
+
+    /**
+     * Tests whether the map is empty.
+     *
+     * @return true if the map is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Returns the value associated with the specified key, or null if no such entry
+     * exists.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the associated value, or null if no such entry exists
+     */
+    public V get(K key) {
+        Node<K, V> t = find(root, key);
+        return t == null ? null : t.value;
+    }
+
+    /**
+     * Returns true if the map contains an entry with the given key.
+     *
+     * @param key the key to look for
+     * @return true if key is present
+     */
+    public boolean containsKey(K key) {
+        return find(root, key) != null;
+    }
+
+    /**
+     * Returns a version of the map in which the given key is associated with the
+     * given value. This version is left unchanged.
+     *
+     * @param key   key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the new version (or this one, if key was already mapped to value)
+     */
+    public PersistentTreap<K, V> put(K key, V value) {
+        return putUpdate(key, value).version();
+    }
+
+    /**
+     * Returns a version of the map in which the given key is associated with the
+     * given value, together with the value it replaces, in a single search of
+     * the tree. This version is left unchanged.
+     *
+     * @param key   key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the new version (or this one, if key was already mapped to value)
+     *         and the previous value associated with the key (or null, if no
+     *         such entry)
+     */
+    public Update<K, V> putUpdate(K key, V value) {
+        Object[] replaced = new Object[1];
+        Node<K, V> r = insert(root, key, value, ThreadLocalRandom.current().nextInt(), replaced);
+        return new Update<>(version(r), valueOf(replaced));
+    }
+
+    /**
+     * Returns a version of the map without an entry for the given key. This
+     * version is left unchanged.
+     *
+     * @param key the key whose entry is to be removed
+     * @return the new version (or this one, if key was not present)
+     */
+    public PersistentTreap<K, V> remove(K key) {
+        return removeUpdate(key).version();
+    }
+
+    /**
+     * Returns a version of the map without an entry for the given key, together
+     * with the value of the removed entry, in a single search of the tree. This
+     * version is left unchanged.
+     *
+     * @param key the key whose entry is to be removed
+     * @return the new version (or this one, if key was not present) and the value
+     *         of the removed entry (or null, if no such entry)
+     */
+    public Update<K, V> removeUpdate(K key) {
+        Object[] removed = new Object[1];
+        Node<K, V> r = delete(root, key, removed);
+        return new Update<>(version(r), valueOf(removed));
+    }
+
+    /**
+     * Returns the entry having the least key (or null if map is empty).
+     *
+     * @return entry with least key (or null if map is empty)
+     */
+    public Entry<K, V> firstEntry() {
+        Node<K, V> t = root;
+        while (t != null && t.left != null) {
+            t = t.left;
+        }
+        return entry(t);
+    }
+
+    /**
+     * Returns the entry having the greatest key (or null if map is empty).
+     *
+     * @return entry with greatest key (or null if map is empty)
+     */
+    public Entry<K, V> lastEntry() {
+        Node<K, V> t = root;
+        while (t != null && t.right != null) {
+            t = t.right;
+        }
+        return entry(t);
+    }
+
+    /**
+     * Returns the entry with least key greater than or equal to given key (or null
+     * if no such key exists).
+     */
+    public Entry<K, V> ceilingEntry(K key) {
+        return entry(ceiling(key, true));
+    }
+
+    /**
+     * Returns the entry with greatest key less than or equal to given key (or null
+     * if no such key exists).
+     */
+    public Entry<K, V> floorEntry(K key) {
+        return entry(floor(key, true));
+    }
+
+    /**
+     * Returns the entry with greatest key strictly less than given key (or null if
+     * no such key exists).
+     */
+    public Entry<K, V> lowerEntry(K key) {
+        return entry(floor(key, false));
+    }
+
+    /**
+     * Returns the entry with least key strictly greater than given key (or null if
+     * no such key exists).
+     */
+    public Entry<K, V> higherEntry(K key) {
+        return entry(ceiling(key, false));
+    }
+
+    /**
+     * Returns an iterable collection of all key-value entries of the map.
+     *
+     * @return iterable collection of the map's entries
+     */
+    public Iterable<Entry<K, V>> entrySet() {
+        ArrayList<Entry<K, V>> buffer = new ArrayList<>(size());
+        inorder(null, null, buffer);
+        return buffer;
+    }
+
+    /**
+     * Returns an iterable containing all entries with keys in the range from
+     * <code>fromKey</code> inclusive to <code>toKey</code> exclusive.
+     *
+     * @return iterable with keys in desired range
+     */
+    public Iterable<Entry<K, V>> subMap(K fromKey, K toKey) {
+        ArrayList<Entry<K, V>> buffer = new ArrayList<>();
+        if (comp.compare(fromKey, toKey) < 0) {
+            inorder(fromKey, toKey, buffer);
+        }
+        return buffer;
+    }
+
+    @Override
+    public Iterator<Entry<K, V>> iterator() {
+        return entrySet().iterator();
+    }
+
+    /**
+     * Returns true if every node's priority is at least that of its children.
+     */
+    public boolean checkHeap() {
+        ArrayList<Node<K, V>> stack = new ArrayList<>();
+        if (root != null) stack.add(root);
+        while (!stack.isEmpty()) {
+            Node<K, V> t = stack.remove(stack.size() - 1);
+            if ((t.left != null && t.left.priority > t.priority)
+                    || (t.right != null && t.right.priority > t.priority)) {
+                return false;
+            }
+            if (t.left != null) stack.add(t.left);
+            if (t.right != null) stack.add(t.right);
+        }
+        return true;
+    }
+
+    public String toString() {
+        return entrySet().toString();
+    }
+}
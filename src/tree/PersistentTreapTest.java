@@ -0,0 +1,113 @@
+package tree;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentTreapTest {
+
+    private PersistentTreap<Integer, String> sample() {
+        PersistentTreap<Integer, String> map = new PersistentTreap<>();
+        Integer[] arr = new Integer[] {35, 26, 15, 24, 33, 4, 12, 1, 23, 21, 2, 5};
+        for (Integer i : arr) {
+            map = map.put(i, Integer.toString(i));
+        }
+        return map;
+    }
+
+    @Test
+    void putLeavesOldVersionUnchanged() {
+        PersistentTreap<Integer, String> v0 = new PersistentTreap<>();
+        PersistentTreap<Integer, String> v1 = v0.put(10, "A");
+        PersistentTreap<Integer, String> v2 = v1.put(10, "B");
+
+        assertTrue(v0.isEmpty());
+        assertEquals("A", v1.get(10));
+        assertEquals("B", v2.get(10));
+        assertEquals(1, v2.size());
+    }
+
+    @Test
+    void removeLeavesOldVersionUnchanged() {
+        PersistentTreap<Integer, String> v1 = sample();
+        PersistentTreap<Integer, String> v2 = v1.remove(12);
+
+        assertEquals(12, v1.size());
+        assertEquals("12", v1.get(12));
+        assertEquals(11, v2.size());
+        assertNull(v2.get(12));
+        assertTrue(v2.checkHeap());
+        assertSame(v2, v2.remove(12));
+    }
+
+    @Test
+    void putOfSameValueReturnsSameVersion() {
+        String value = "A";
+        PersistentTreap<Integer, String> v1 = new PersistentTreap<Integer, String>().put(1, value);
+        assertSame(v1, v1.put(1, value));
+    }
+
+    @Test
+    void updatesReturnPreviousValue() {
+        PersistentTreap<Integer, String> v1 = sample();
+        PersistentTreap.Update<Integer, String> put = v1.putUpdate(12, "twelve");
+        assertEquals("12", put.old());
+        assertEquals("twelve", put.version().get(12));
+        assertEquals("12", v1.get(12));
+
+        PersistentTreap.Update<Integer, String> added = v1.putUpdate(13, "13");
+        assertNull(added.old());
+        assertEquals(13, added.version().size());
+
+        PersistentTreap.Update<Integer, String> removed = v1.removeUpdate(12);
+        assertEquals("12", removed.old());
+        assertNull(removed.version().get(12));
+        assertTrue(removed.version().checkHeap());
+
+        PersistentTreap.Update<Integer, String> absent = v1.removeUpdate(100);
+        assertNull(absent.old());
+        assertSame(v1, absent.version());
+    }
+
+    @Test
+    void updatesShareUnchangedSubtrees() {
+        PersistentTreap<Integer, Integer> v1 = new PersistentTreap<>();
+        for (int i = 0; i < 1000; i++) {
+            v1 = v1.put(i, i);
+        }
+        PersistentTreap<Integer, Integer> v2 = v1.put(500, -1);
+
+        // the side of the root not holding key 500 is shared as a whole
+        if (500 < v1.root.key) {
+            assertSame(v1.root.right, v2.root.right);
+        } else if (500 > v1.root.key) {
+            assertSame(v1.root.left, v2.root.left);
+        }
+        assertEquals(500, v1.get(500));
+        assertEquals(-1, v2.get(500));
+    }
+
+    @Test
+    void navigation() {
+        PersistentTreap<Integer, String> map = sample();
+        assertEquals(1, map.firstEntry().getKey());
+        assertEquals(35, map.lastEntry().getKey());
+        assertEquals(12, map.ceilingEntry(6).getKey());
+        assertEquals(5, map.floorEntry(6).getKey());
+        assertEquals(5, map.lowerEntry(12).getKey());
+        assertEquals(15, map.higherEntry(12).getKey());
+        assertNull(map.higherEntry(35));
+        assertEquals("[12, 15, 21, 23, 24, 26, 33]", map.subMap(12, 34).toString());
+        assertEquals("[]", map.subMap(36, 40).toString());
+    }
+
+    @Test
+    void iteration() {
+        List<Integer> keys = new ArrayList<>();
+        sample().forEach(e -> keys.add(e.getKey()));
+        assertEquals(List.of(1, 2, 4, 5, 12, 15, 21, 23, 24, 26, 33, 35), keys);
+    }
+}
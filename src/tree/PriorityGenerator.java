@@ -0,0 +1,62 @@
+package tree;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A source of the priorities a Treap assigns to newly inserted keys.
+ * <p>
+ * The shape of a treap is determined by its keys and their priorities, so the
+ * generator decides how the shape varies between runs: random() and
+ * threadLocal() give a different shape every run, seeded(seed) gives the same
+ * shape for the same sequence of insertions, and hashOfKey() makes the shape a
+ * function of the set of keys alone, whatever the order of insertion.
+ */
+@FunctionalInterface
+public interface PriorityGenerator<K> {
+
+    /**
+     * Returns the priority for a newly inserted key.
+     *
+     * @param key the key being inserted
+     * @return its priority
+     */
+    int priority(K key);
+
+    /** Returns a generator drawing from a java.util.Random (the original behavior of Treap). */
+    static <K> PriorityGenerator<K> random() {
+        Random random = new Random();
+        return key -> random.nextInt();
+    }
+
+    /** Returns a generator drawing from a SplittableRandom with the given seed. */
+    static <K> PriorityGenerator<K> seeded(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        return key -> random.nextInt();
+    }
+
+    /** Returns a generator drawing from the ThreadLocalRandom of the calling thread. */
+    static <K> PriorityGenerator<K> threadLocal() {
+        return key -> ThreadLocalRandom.current().nextInt();
+    }
+
+    /**
+     * Returns a generator deriving the priority from the key's hash code. The
+     * hash code is scrambled first, so that keys with consecutive hash codes
+     * (such as small Integers) still get unrelated priorities.
+     */
+    static <K> PriorityGenerator<K> hashOfKey() {
+        return key -> mix(key.hashCode());
+    }
+
+    /** The finalization step of MurmurHash3, which spreads every input bit over the output. */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
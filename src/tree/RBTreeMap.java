@@ -2,6 +2,7 @@ package tree;
 
 import interfaces.Entry;
 import interfaces.Position;
+import tree.BalanceableBinaryTree.Leaves;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -30,8 +31,16 @@ public class RBTreeMap<K extends Comparable<K>,V> extends TreeMap<K,V> {
      */
     public RBTreeMap(Comparator<K> comp) { super(comp); }
 
+    /**
+     * Constructs an empty map using the natural ordering of keys, whose tree
+     * represents missing children as given.
+     * @param leaves the representation of missing children
+     */
+    public RBTreeMap(Leaves leaves) { super(leaves); }
+
     // we use the inherited aux field with convention that 0=black and 1=red
-    // (note that new leaves will be black by default, as aux=0)
+    // (note that new leaves will be black by default, as aux=0, and so are
+    // missing children when the tree has no sentinel leaves)
     private boolean isBlack(Position<Entry<K,V>> p) { return tree.getAux(p)==0;}
 
     private boolean isRed(Position<Entry<K,V>> p) { return tree.getAux(p)==1; }
@@ -173,4 +173,28 @@ class RBTreeMapTest {
         assertEquals("[12, 15, 21, 23, 24, 26, 33]", map.subMap(12, 34).toString());
     }
 
+    @Test
+    void testNullLeaves() throws IOException {
+        RBTreeMap<Integer, String> map = new RBTreeMap<>(BalanceableBinaryTree.Leaves.NULL);
+        TreeMapTest.assertMatchesJdk(map, 7);
+        assertMatchesSentinelShape(new RBTreeMap<>(), new RBTreeMap<>(BalanceableBinaryTree.Leaves.NULL));
+    }
+
+    /** Both representations must rebalance into the same shape. */
+    private static void assertMatchesSentinelShape(RBTreeMap<Integer, String> sentinel, RBTreeMap<Integer, String> nulls) throws IOException {
+        for (int i = 0; i < 500; i++) {
+            int key = i * 37 % 211;
+            if (i % 4 == 3) {
+                sentinel.remove(key / 2);
+                nulls.remove(key / 2);
+            } else {
+                sentinel.put(key, "v");
+                nulls.put(key, "v");
+            }
+        }
+        assertEquals(sentinel.tree.root().getElement().getKey(), nulls.tree.root().getElement().getKey());
+        assertEquals(sentinel.tree.height(sentinel.tree.root()) - 1, nulls.tree.height(nulls.tree.root()));
+        assertEquals(sentinel.tree.getRotations(), nulls.tree.getRotations());
+    }
+
 }
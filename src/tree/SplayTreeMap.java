@@ -3,6 +3,7 @@ package tree;
 import interfaces.Entry;
 import interfaces.Map;
 import interfaces.Position;
+import tree.BalanceableBinaryTree.Leaves;
 
 
 import java.io.IOException;
@@ -28,6 +29,16 @@ public class SplayTreeMap<K extends Comparable<K>, V> extends TreeMap<K, V> {
         super(comp);
     }
 
+    /**
+     * Constructs an empty map using the natural ordering of keys, whose tree
+     * represents missing children as given.
+     *
+     * @param leaves the representation of missing children
+     */
+    public SplayTreeMap(Leaves leaves) {
+        super(leaves);
+    }
+
     /**
      * Utility used to rebalance after a map operation.
      */
@@ -44,9 +55,9 @@ public class SplayTreeMap<K extends Comparable<K>, V> extends TreeMap<K, V> {
                 rotate(parent);
                 rotate(p);
             } else {
-                rotate(p);
-                rotate(parent);
                 //zig-zag
+                rotate(p);
+                rotate(p);
             }
         }
 
@@ -167,4 +167,12 @@ class SplayTreeMapTest {
 		assertEquals("[12, 15, 21, 23, 24, 26, 33]", map.subMap(12, 34).toString());
 	}
 
+	@Test
+	void testNullLeaves() throws IOException {
+		SplayTreeMap<Integer, String> map = new SplayTreeMap<>(BalanceableBinaryTree.Leaves.NULL);
+		TreeMapTest.assertMatchesJdk(map, 11);
+		map.put(100, "v");
+		assertEquals(100, map.tree.root().getElement().getKey());    // the updated key is splayed to the root
+	}
+
 }
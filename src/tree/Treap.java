@@ -3,48 +3,71 @@ package tree;
 import interfaces.Entry;
 import interfaces.List;
 import interfaces.Position;
+import tree.BalanceableBinaryTree.Leaves;
 import utils.MapEntry;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Random;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class Treap <K extends Comparable<K>, V> extends TreeMap<K, V> {
     //protected BalanceableBinaryTree<K,V> tree = new BalanceableBinaryTree<>();
 
-    private final Random random;
+    private final PriorityGenerator<? super K> priorities;
 
     public Treap() {
-        super();
-        random = new Random();
+        this(PriorityGenerator.random());
+    }
+
+    /**
+     * Constructs an empty treap drawing the priorities of new keys from the given
+     * generator.
+     *
+     * @param priorities the source of priorities
+     */
+    public Treap(PriorityGenerator<? super K> priorities) {
+        this(priorities, Leaves.SENTINEL);
+    }
+
+    /**
+     * Constructs an empty treap drawing the priorities of new keys from the given
+     * generator, whose tree represents missing children as given.
+     *
+     * @param priorities the source of priorities
+     * @param leaves     the representation of missing children
+     */
+    public Treap(PriorityGenerator<? super K> priorities, Leaves leaves) {
+        super(leaves);
+        this.priorities = priorities;
     }
 
     @Override
     public V get(K key) throws IllegalArgumentException, IOException {
         Position<Entry<K, V>> p = treeSearch(tree.root(), key);
-        return tree.isExternal(p) ? null : p.getElement().getValue();
+        return holdsKey(p, key) ? p.getElement().getValue() : null;
     }
 
     @Override
     public V put(K key, V value) throws IOException {
         Entry<K, V> entry = new MapEntry<>(key, value);
-        if (tree.isEmpty()) {
-            tree.addRoot(entry);
-            return null;
-        }
         Position<Entry<K,V>> p = treeSearch(tree.root(), key);
-        if(tree.isExternal(p)){
-            expandExternal(p, entry);
-            tree.setAux(p, random.nextInt());
+        if(!holdsKey(p, key)){
+            TreeMetrics m = getMetrics();
+            long before = rotationsIf(m);
+            p = insertAt(p, entry);
+            tree.setAux(p, priorities.priority(key));
             rebalanceInsert(p);
+            if (m != null) {
+                m.recordInsert(tree.getRotations() - before);
+            }
             return null;
         } else {
             V old = p.getElement().getValue();
-            tree.set(p, entry);
-            tree.setAux(p, random.nextInt());
-            //rebalanceInsert(p);
+            tree.set(p, entry);                 // keep p's priority so the heap stays valid
             return old;
         }
     }
@@ -52,28 +75,27 @@ public class Treap <K extends Comparable<K>, V> extends TreeMap<K, V> {
     @Override
     public V remove(K key) throws IllegalArgumentException, IOException {
         Position<Entry<K, V>> p = treeSearch(tree.root(), key);
-        if (!tree.isExternal(p)) {
+        if (holdsKey(p, key)) {
             V oldValue = p.getElement().getValue();
-            if (tree.isInternal(tree.left(p)) && tree.isInternal(tree.right(p))) {
-                Position<Entry<K, V>> r = treeMin(tree.right(p));
-                tree.set(p, r.getElement());
-                p = r;
-            }
-            Position<Entry<K, V>> leaf = tree.isExternal(tree.left(p)) ? tree.left(p) : tree.right(p);
-            Position<Entry<K, V>> sibling = tree.sibling(leaf);
-            tree.remove(leaf);
-            tree.remove(p);
-            priorityBalance(sibling);
+            TreeMetrics m = getMetrics();
+            long before = rotationsIf(m);
+            // rotate p down below its higher-priority child until it has a leaf
+            // child; every other node keeps its priority, so the shape stays
+            // that of the remaining keys and priorities
+            while (tree.isInternal(tree.left(p)) && tree.isInternal(tree.right(p))) {
+                tree.rotate(higherChild(tree, p));
+            }
+            if (tree.hasSentinels()) {
+                tree.remove(tree.isExternal(tree.left(p)) ? tree.left(p) : tree.right(p));
+            }
+            tree.remove(p);                     // splicing p out keeps the heap ordered
+            if (m != null) {
+                m.recordDelete(tree.getRotations() - before);
+            }
             return oldValue;
         }
         return null;
     }
-    private void priorityBalance(Position<Entry<K, V>> p) {
-        // Loop as long as p is not the root and the parent has less priority than p
-        while (!tree.isRoot(p) && tree.getAux(tree.parent(p)) < tree.getAux(p)) {
-            tree.rotate(p);
-        }
-    }
 
     public void checkHeapSubTree(Position<Entry<K,V>> position, ArrayList<String> list){
         if (tree.isInternal(position)) {
@@ -118,8 +140,820 @@ public class Treap <K extends Comparable<K>, V> extends TreeMap<K, V> {
         return true;
     }
 
+    /**
+     * The two treaps a split leaves: the entries with keys below the splitting
+     * key, and those with keys at or above it.
+     */
+    public record Parts<K extends Comparable<K>, V>(Treap<K, V> below, Treap<K, V> atOrAbove) {
+    }
+
+    /**
+     * Splits this treap around the given key. Entries with keys strictly less
+     * than key are moved into the first treap returned, all other entries into
+     * the second one; this treap is left empty. The node holding key (or a
+     * temporary node, if the key is absent) is rotated up to the root, so the
+     * split runs in expected O(log n) time.
+     *
+     * @param key the key at which to split
+     * @return the treaps holding the keys below and at or above key
+     */
+    public Parts<K, V> split(K key) throws IOException {
+        Leaves leaves = tree.getLeaves();
+        Parts<K, V> parts = new Parts<>(new Treap<K, V>(priorities, leaves), new Treap<K, V>(priorities, leaves));
+        Position<Entry<K, V>> p = treeSearch(tree.root(), key);
+        boolean found = holdsKey(p, key);
+        if (!found) {
+            p = insertAt(p, new MapEntry<>(key, null));     // temporary splitting node
+        }
+        while (!tree.isRoot(p)) {
+            tree.rotate(p);
+        }
+        parts.below().tree = cut(tree.left(p));
+        if (found) {
+            // p stays with the upper part; sink it back to its place in the heap
+            sink(p);
+            parts.atOrAbove().tree = tree;
+        } else {
+            parts.atOrAbove().tree = cut(tree.right(p));
+        }
+        reset();
+        return parts;
+    }
+
+    /**
+     * Joins two treaps where every key of left is less than every key of right.
+     * Both arguments are left empty. Runs in expected O(log n) time.
+     *
+     * @param left  treap holding the smaller keys
+     * @param right treap holding the larger keys
+     * @return a treap holding the entries of both arguments
+     * @throws IllegalArgumentException if the key ranges of the treaps overlap, or
+     *                                  if their trees represent leaves differently
+     */
+    public static <K extends Comparable<K>, V> Treap<K, V> join(Treap<K, V> left, Treap<K, V> right) throws IllegalArgumentException {
+        if (!left.isEmpty() && !right.isEmpty() && left.compare(left.lastEntry(), right.firstEntry()) >= 0) {
+            throw new IllegalArgumentException("Keys of the left treap must precede those of the right treap");
+        }
+        if (left.tree.getLeaves() != right.tree.getLeaves()) {
+            throw new IllegalArgumentException("Treaps with sentinel and null leaves cannot be joined");
+        }
+        Treap<K, V> joined = new Treap<K, V>(left.priorities, left.tree.getLeaves());
+        BalanceableBinaryTree<K, V> t = joined.tree;
+        // the sentinel root (or a new node holding no entry) serves as temporary joining node
+        Position<Entry<K, V>> d = t.isEmpty() ? t.addRoot(null) : t.root();
+        t.attach(d, left.tree, right.tree);
+        // rotate the joining node down until both of its children are leaves
+        while (t.isInternal(t.left(d)) || t.isInternal(t.right(d))) {
+            t.rotate(higherChild(t, d));
+        }
+        if (t.left(d) != null) {
+            t.remove(t.left(d));                // a sentinel leaf
+        }
+        t.remove(d);
+        left.reset();
+        right.reset();
+        return joined;
+    }
+
+    /**
+     * Builds a treap from keys given in strictly increasing order, pairing
+     * keys[i] with values[i]. Runs in O(n) time; see fromSorted(Iterable).
+     *
+     * @param keys   the keys, in strictly increasing order
+     * @param values the values associated with the keys
+     * @return a treap holding the given entries
+     * @throws IllegalArgumentException if the arrays differ in length or the keys
+     *                                  are not strictly increasing
+     */
+    public static <K extends Comparable<K>, V> Treap<K, V> fromSorted(K[] keys, V[] values) throws IllegalArgumentException {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("Keys and values differ in length");
+        }
+        return fromSorted(() -> new Iterator<Entry<K, V>>() {
+            private int i = 0;
+
+            public boolean hasNext() {
+                return i < keys.length;
+            }
+
+            public Entry<K, V> next() {
+                Entry<K, V> e = new MapEntry<>(keys[i], values[i]);
+                i++;
+                return e;
+            }
+        });
+    }
+
+    /**
+     * Builds a treap from entries given in strictly increasing key order.
+     * <p>
+     * Each entry gets a freshly drawn priority and is appended to the right spine
+     * of the tree built so far: spine nodes of lower priority are popped and
+     * become its left subtree, and it becomes the right child of the remaining
+     * spine node (a Cartesian tree construction). Every node is pushed and popped
+     * at most once, so the treap is built in O(n) time instead of the
+     * O(n log n) of n insertions.
+     *
+     * @param entries the entries, in strictly increasing key order
+     * @return a treap holding the given entries
+     * @throws IllegalArgumentException if the keys are not strictly increasing
+     */
+    public static <K extends Comparable<K>, V> Treap<K, V> fromSorted(Iterable<Entry<K, V>> entries) throws IllegalArgumentException {
+        return fromSorted(entries, PriorityGenerator.random());
+    }
+
+    /**
+     * Builds a treap from entries given in strictly increasing key order, drawing
+     * priorities from the given generator; see fromSorted(Iterable).
+     *
+     * @param entries    the entries, in strictly increasing key order
+     * @param priorities the source of priorities
+     * @return a treap holding the given entries
+     * @throws IllegalArgumentException if the keys are not strictly increasing
+     */
+    public static <K extends Comparable<K>, V> Treap<K, V> fromSorted(Iterable<Entry<K, V>> entries, PriorityGenerator<? super K> priorities) throws IllegalArgumentException {
+        return fromSorted(entries, priorities, Leaves.SENTINEL);
+    }
+
+    /**
+     * Builds a treap from entries given in strictly increasing key order, drawing
+     * priorities from the given generator, whose tree represents missing children
+     * as given; see fromSorted(Iterable).
+     *
+     * @param entries    the entries, in strictly increasing key order
+     * @param priorities the source of priorities
+     * @param leaves     the representation of missing children
+     * @return a treap holding the given entries
+     * @throws IllegalArgumentException if the keys are not strictly increasing
+     */
+    public static <K extends Comparable<K>, V> Treap<K, V> fromSorted(Iterable<Entry<K, V>> entries, PriorityGenerator<? super K> priorities, Leaves leaves) throws IllegalArgumentException {
+        Treap<K, V> treap = new Treap<K, V>(priorities, leaves);
+        BalanceableBinaryTree<K, V> t = treap.tree;
+        ArrayList<LinkedBinaryTree.Node<Entry<K, V>>> spine = new ArrayList<>();   // right spine, root first
+        Entry<K, V> previous = null;
+        for (Entry<K, V> e : entries) {
+            if (previous != null && treap.compare(previous, e) >= 0) {
+                throw new IllegalArgumentException("Keys must be in strictly increasing order");
+            }
+            previous = e;
+            LinkedBinaryTree.Node<Entry<K, V>> x = t.createNode(e, null, null, null);
+            t.setAux(x, treap.priorities.priority(e.getKey()));
+            appendToSpine(t, spine, x);
+        }
+        if (!spine.isEmpty()) {
+            t.install(spine.get(0));
+        }
+        return treap;
+    }
+
+    /**
+     * Appends node x, holding a key greater than all others so far, to the
+     * Cartesian tree whose right spine is given: spine nodes of lower priority
+     * are popped and become the left subtree of x, which becomes the right
+     * child of the remaining spine node.
+     */
+    private static <K extends Comparable<K>, V> void appendToSpine(BalanceableBinaryTree<K, V> t, ArrayList<LinkedBinaryTree.Node<Entry<K, V>>> spine, LinkedBinaryTree.Node<Entry<K, V>> x) {
+        int priority = t.getAux(x);
+        LinkedBinaryTree.Node<Entry<K, V>> last = null;
+        while (!spine.isEmpty() && t.getAux(spine.get(spine.size() - 1)) < priority) {
+            last = spine.remove(spine.size() - 1);
+        }
+        if (last != null) {
+            x.setLeft(last);
+            last.setParent(x);
+        }
+        if (!spine.isEmpty()) {
+            LinkedBinaryTree.Node<Entry<K, V>> top = spine.get(spine.size() - 1);
+            top.setRight(x);
+            x.setParent(top);
+        }
+        spine.add(x);
+    }
+
+    /**
+     * Builds a treap from keys given in strictly increasing order, pairing
+     * keys[i] with values[i] as fromSorted(K[], V[]) does, with the work spread
+     * over the given pool.
+     *
+     * @param keys   the keys, in strictly increasing order
+     * @param values the values associated with the keys
+     * @param pool   the pool running the build
+     * @return a treap holding the given entries
+     * @throws IllegalArgumentException if the arrays differ in length or the keys
+     *                                  are not strictly increasing
+     */
+    public static <K extends Comparable<K>, V> Treap<K, V> fromSorted(K[] keys, V[] values, ForkJoinPool pool) throws IllegalArgumentException {
+        return fromSorted(keys, values, PriorityGenerator.random(), Leaves.SENTINEL, pool);
+    }
+
+    /**
+     * Builds a treap from keys given in strictly increasing order on the given
+     * pool, drawing priorities from the given generator, whose tree represents
+     * missing children as given.
+     * <p>
+     * The priorities are drawn in key order before the build starts, so that a
+     * seeded generator gives the same treap as fromSorted(Iterable, ...). The
+     * key range is then halved recursively by ForkJoin tasks; ranges of up to
+     * PARALLEL_GRAIN keys are built into Cartesian trees sequentially, and
+     * neighbouring ranges are merged along their facing spines in expected
+     * O(log n) time, so the total work stays O(n).
+     *
+     * @param keys       the keys, in strictly increasing order
+     * @param values     the values associated with the keys
+     * @param priorities the source of priorities
+     * @param leaves     the representation of missing children
+     * @param pool       the pool running the build
+     * @return a treap holding the given entries
+     * @throws IllegalArgumentException if the arrays differ in length or the keys
+     *                                  are not strictly increasing
+     */
+    public static <K extends Comparable<K>, V> Treap<K, V> fromSorted(K[] keys, V[] values, PriorityGenerator<? super K> priorities, Leaves leaves, ForkJoinPool pool) throws IllegalArgumentException {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("Keys and values differ in length");
+        }
+        Treap<K, V> treap = new Treap<K, V>(priorities, leaves);
+        if (keys.length > 0) {
+            int[] priority = new int[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                priority[i] = priorities.priority(keys[i]);
+            }
+            treap.tree.setRootNode(pool.invoke(ForkJoinTask.adapt(() -> treap.build(keys, values, priority, 0, keys.length))));
+        }
+        return treap;
+    }
+
+    /** Returns the root of a treap built from the entries with indices in [lo, hi); see fromSorted. */
+    private LinkedBinaryTree.Node<Entry<K, V>> build(K[] keys, V[] values, int[] priority, int lo, int hi) {
+        if (hi - lo <= PARALLEL_GRAIN) {
+            ArrayList<LinkedBinaryTree.Node<Entry<K, V>>> spine = new ArrayList<>();
+            for (int i = lo; i < hi; i++) {
+                if (i > 0 && compare(keys[i - 1], keys[i]) >= 0) {
+                    throw new IllegalArgumentException("Keys must be in strictly increasing order");
+                }
+                LinkedBinaryTree.Node<Entry<K, V>> x = tree.createNode(new MapEntry<>(keys[i], values[i]), null, null, null);
+                tree.setAux(x, priority[i]);
+                appendToSpine(tree, spine, x);
+            }
+            return tree.complete(spine.get(0));
+        }
+        int mid = (lo + hi) >>> 1;
+        ForkJoinTask<LinkedBinaryTree.Node<Entry<K, V>>> left = ForkJoinTask.adapt(() -> build(keys, values, priority, lo, mid)).fork();
+        LinkedBinaryTree.Node<Entry<K, V>> right = build(keys, values, priority, mid, hi);
+        return merge(left.join(), right);
+    }
+
+    // batch updates
+
+    /**
+     * Puts every keys[i] / values[i] pair into the map. If the batch holds a key
+     * more than once, its last value wins, as with repeated calls to put.
+     * <p>
+     * The batch is sorted, built into a treap of its own with fromSorted, and
+     * merged with this treap in one pass, as by union. Subtrees of this treap
+     * that no batch key falls into are never visited, so a batch of m keys
+     * costs expected O(m log(n/m + 1)) time, rather than the O(m log n) of m
+     * calls to put, and no rotations.
+     *
+     * @param keys   the keys to put
+     * @param values the values associated with the keys
+     * @throws IllegalArgumentException if the arrays differ in length
+     */
+    public void putAll(K[] keys, V[] values) throws IllegalArgumentException {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("Keys and values differ in length");
+        }
+        tree.setRootNode(combine(SetOperation.UNION, node(tree.root()), batch(keys, values), false));
+    }
+
+    /**
+     * Removes every key of the batch that is in the map. The batch is sorted and
+     * merged with this treap in one pass, as in putAll, in expected
+     * O(m log(n/m + 1)) time.
+     *
+     * @param keys the keys to remove
+     * @return the number of entries removed
+     */
+    public int removeAll(K[] keys) {
+        int before = size();
+        tree.setRootNode(combine(SetOperation.DIFFERENCE, node(tree.root()), batch(keys, null), false));
+        return before - size();
+    }
+
+    /**
+     * Returns the root of a treap holding the batch in key order, keeping only
+     * the last value given for each key (values may be null for a batch of keys
+     * alone).
+     */
+    private LinkedBinaryTree.Node<Entry<K, V>> batch(K[] keys, V[] values) {
+        ArrayList<Entry<K, V>> sorted = new ArrayList<>(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            sorted.add(new MapEntry<>(keys[i], values == null ? null : values[i]));
+        }
+        sorted.sort((a, b) -> compare(a, b));       // stable, so equal keys keep batch order
+        ArrayList<Entry<K, V>> distinct = new ArrayList<>(sorted.size());
+        for (Entry<K, V> e : sorted) {
+            if (!distinct.isEmpty() && compare(distinct.get(distinct.size() - 1), e) == 0) {
+                distinct.set(distinct.size() - 1, e);
+            } else {
+                distinct.add(e);
+            }
+        }
+        return node(fromSorted(distinct, priorities, tree.getLeaves()).tree.root());
+    }
+
+    // set operations
+
+    /** The set operations that combine two treaps; see combine. */
+    private enum SetOperation { UNION, INTERSECTION, DIFFERENCE }
+
+    /** The number of nodes below which parallel builds and set operations stop forking tasks. */
+    private static final int PARALLEL_GRAIN = 1 << 13;
+
+    /**
+     * Returns a treap holding the entries of both arguments; on equal keys the
+     * entry of b wins. Both arguments are left empty. Runs in expected
+     * O(m log(n/m + 1)) time, where m and n are the smaller and larger sizes.
+     *
+     * @param a a treap
+     * @param b a treap whose entries override those of a
+     * @return the union of the treaps
+     * @throws IllegalArgumentException if the treaps are the same, or if their
+     *                                  trees represent leaves differently
+     */
+    public static <K extends Comparable<K>, V> Treap<K, V> union(Treap<K, V> a, Treap<K, V> b) throws IllegalArgumentException {
+        return combine(SetOperation.UNION, a, b, null);
+    }
+
+    /**
+     * Returns union(a, b), forking the recursive halves of large subtrees onto
+     * the given pool.
+     */
+    public static <K extends Comparable<K>, V> Treap<K, V> union(Treap<K, V> a, Treap<K, V> b, ForkJoinPool pool) throws IllegalArgumentException {
+        return combine(SetOperation.UNION, a, b, pool);
+    }
+
+    /**
+     * Returns a treap holding the entries of a whose keys are also in b. Both
+     * arguments are left empty. Runs in the time bound of union.
+     *
+     * @param a a treap
+     * @param b a treap
+     * @return the intersection of the treaps, with the values of a
+     * @throws IllegalArgumentException if the treaps are the same, or if their
+     *                                  trees represent leaves differently
+     */
+    public static <K extends Comparable<K>, V> Treap<K, V> intersection(Treap<K, V> a, Treap<K, V> b) throws IllegalArgumentException {
+        return combine(SetOperation.INTERSECTION, a, b, null);
+    }
+
+    /**
+     * Returns intersection(a, b), forking the recursive halves of large subtrees
+     * onto the given pool.
+     */
+    public static <K extends Comparable<K>, V> Treap<K, V> intersection(Treap<K, V> a, Treap<K, V> b, ForkJoinPool pool) throws IllegalArgumentException {
+        return combine(SetOperation.INTERSECTION, a, b, pool);
+    }
+
+    /**
+     * Returns a treap holding the entries of a whose keys are not in b. Both
+     * arguments are left empty. Runs in the time bound of union.
+     *
+     * @param a a treap
+     * @param b a treap whose keys are to be removed from a
+     * @return the difference of the treaps
+     * @throws IllegalArgumentException if the treaps are the same, or if their
+     *                                  trees represent leaves differently
+     */
+    public static <K extends Comparable<K>, V> Treap<K, V> difference(Treap<K, V> a, Treap<K, V> b) throws IllegalArgumentException {
+        return combine(SetOperation.DIFFERENCE, a, b, null);
+    }
+
+    /**
+     * Returns difference(a, b), forking the recursive halves of large subtrees
+     * onto the given pool.
+     */
+    public static <K extends Comparable<K>, V> Treap<K, V> difference(Treap<K, V> a, Treap<K, V> b, ForkJoinPool pool) throws IllegalArgumentException {
+        return combine(SetOperation.DIFFERENCE, a, b, pool);
+    }
+
+    /** Applies op to the two treaps, on the given pool if it is not null. */
+    private static <K extends Comparable<K>, V> Treap<K, V> combine(SetOperation op, Treap<K, V> a, Treap<K, V> b, ForkJoinPool pool) throws IllegalArgumentException {
+        if (a == b) {
+            throw new IllegalArgumentException("A treap cannot be combined with itself");
+        }
+        if (a.tree.getLeaves() != b.tree.getLeaves()) {
+            throw new IllegalArgumentException("Treaps with sentinel and null leaves cannot be combined");
+        }
+        LinkedBinaryTree.Node<Entry<K, V>> ra = node(a.tree.root());
+        LinkedBinaryTree.Node<Entry<K, V>> rb = node(b.tree.root());
+        LinkedBinaryTree.Node<Entry<K, V>> r = pool == null
+                ? a.combine(op, ra, rb, false)
+                : pool.invoke(ForkJoinTask.adapt(() -> a.combine(op, ra, rb, true)));
+        Treap<K, V> result = new Treap<K, V>(a.priorities, a.tree.getLeaves());
+        result.tree.setRootNode(r);
+        a.reset();
+        b.reset();
+        return result;
+    }
+
+    /**
+     * Returns the root of the result of op on the subtrees rooted at a and b.
+     * Sentinel leaves and null both stand for an empty subtree, and either may
+     * be returned for one.
+     * <p>
+     * The root of higher priority (for a difference, always the root of a) is
+     * kept as the pivot; the other subtree is split around its key, the parts
+     * on either side are combined recursively, and the pivot is linked above
+     * them if op keeps its key, or the two results are merged otherwise. The
+     * two recursive calls touch disjoint nodes, so if fork is true and the
+     * subtrees are large, the left one runs as a separate ForkJoin task.
+     */
+    private LinkedBinaryTree.Node<Entry<K, V>> combine(SetOperation op, LinkedBinaryTree.Node<Entry<K, V>> a, LinkedBinaryTree.Node<Entry<K, V>> b, boolean fork) {
+        if (vacant(a)) {
+            return op == SetOperation.UNION ? b : a;
+        }
+        if (vacant(b)) {
+            return op == SetOperation.INTERSECTION ? b : a;
+        }
+        boolean bOnTop = op != SetOperation.DIFFERENCE && tree.getAux(b) > tree.getAux(a);
+        LinkedBinaryTree.Node<Entry<K, V>> pivot = bOnTop ? b : a;
+        Split parts = split(bOnTop ? a : b, pivot.getElement().getKey());
+        LinkedBinaryTree.Node<Entry<K, V>> aLeft = bOnTop ? parts.less : a.getLeft();
+        LinkedBinaryTree.Node<Entry<K, V>> bLeft = bOnTop ? b.getLeft() : parts.less;
+        LinkedBinaryTree.Node<Entry<K, V>> aRight = bOnTop ? parts.greater : a.getRight();
+        LinkedBinaryTree.Node<Entry<K, V>> bRight = bOnTop ? b.getRight() : parts.greater;
+
+        LinkedBinaryTree.Node<Entry<K, V>> left, right;
+        if (fork && tree.subtreeSize(a) + tree.subtreeSize(b) >= PARALLEL_GRAIN) {
+            ForkJoinTask<LinkedBinaryTree.Node<Entry<K, V>>> task = ForkJoinTask.adapt(() -> combine(op, aLeft, bLeft, true)).fork();
+            right = combine(op, aRight, bRight, true);
+            left = task.join();
+        } else {
+            left = combine(op, aLeft, bLeft, fork);
+            right = combine(op, aRight, bRight, fork);
+        }
+
+        boolean found = parts.equal != null;
+        boolean keep = switch (op) {
+            case UNION -> true;
+            case INTERSECTION -> found;
+            case DIFFERENCE -> !found;
+        };
+        if (!keep) {
+            return merge(left, right);
+        }
+        if (found && bOnTop == (op == SetOperation.INTERSECTION)) {
+            pivot.setElement(parts.equal.getElement());    // the entry of b wins a union, that of a an intersection
+        }
+        return tree.link(pivot, left, right);
+    }
+
+    /** The parts of a subtree holding keys less than, equal to and greater than a key. */
+    private final class Split {
+        LinkedBinaryTree.Node<Entry<K, V>> less, equal, greater;
+    }
+
+    /** Splits the subtree rooted at t around the given key, relinking its nodes. */
+    private Split split(LinkedBinaryTree.Node<Entry<K, V>> t, K key) {
+        if (vacant(t)) {
+            Split parts = new Split();
+            parts.less = t;                         // reuse the sentinel leaf, if any
+            return parts;
+        }
+        int comp = compare(key, t.getElement());
+        Split parts;
+        if (comp < 0) {
+            parts = split(t.getLeft(), key);
+            parts.greater = tree.link(t, parts.greater, t.getRight());
+        } else if (comp > 0) {
+            parts = split(t.getRight(), key);
+            parts.less = tree.link(t, t.getLeft(), parts.less);
+        } else {
+            parts = new Split();
+            parts.less = t.getLeft();
+            parts.greater = t.getRight();
+            parts.equal = t;
+        }
+        return parts;
+    }
+
+    /**
+     * Returns the root of the merge of the subtrees rooted at l and r, where every
+     * key of l is less than every key of r.
+     */
+    private LinkedBinaryTree.Node<Entry<K, V>> merge(LinkedBinaryTree.Node<Entry<K, V>> l, LinkedBinaryTree.Node<Entry<K, V>> r) {
+        if (vacant(l)) {
+            return r;
+        }
+        if (vacant(r)) {
+            return l;
+        }
+        if (tree.getAux(l) >= tree.getAux(r)) {
+            return tree.link(l, l.getLeft(), merge(l.getRight(), r));
+        }
+        return tree.link(r, merge(l, r.getLeft()), r.getRight());
+    }
+
+    /** Returns true if p is a sentinel leaf or a missing child. */
+    private static boolean vacant(Position<?> p) {
+        return p == null || p.getElement() == null;
+    }
+
+    /** Returns p as a node. */
+    private static <E> LinkedBinaryTree.Node<E> node(Position<E> p) {
+        return (LinkedBinaryTree.Node<E>) p;
+    }
+
+    // order statistics, using the subtree sizes kept by BalanceableBinaryTree
+
+    /** Returns the number of entries (sentinel leaves excluded) in the subtree rooted at p. */
+    private int entries(Position<Entry<K, V>> p) {
+        return tree.entryCount(p);
+    }
+
+    /**
+     * Returns the number of keys in the map strictly less than the given key.
+     * Runs in expected O(log n) time.
+     *
+     * @param key the key whose rank is to be returned
+     * @return the number of keys less than key
+     */
+    public int rank(K key) {
+        Position<Entry<K, V>> p = tree.root();
+        int r = 0;
+        while (tree.isInternal(p)) {
+            if (compare(key, p.getElement()) <= 0) {
+                p = tree.left(p);
+            } else {
+                r += entries(tree.left(p)) + 1;
+                p = tree.right(p);
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Returns the entry with the i-th smallest key, counting from 0. Runs in
+     * expected O(log n) time.
+     *
+     * @param i the index of the entry in key order
+     * @return the entry with exactly i smaller keys in the map
+     * @throws IndexOutOfBoundsException if i is not in [0, size())
+     */
+    public Entry<K, V> select(int i) throws IndexOutOfBoundsException {
+        if (i < 0 || i >= size()) {
+            throw new IndexOutOfBoundsException("Invalid index: " + i);
+        }
+        Position<Entry<K, V>> p = tree.root();
+        while (true) {
+            int l = entries(tree.left(p));
+            if (i < l) {
+                p = tree.left(p);
+            } else if (i > l) {
+                i -= l + 1;
+                p = tree.right(p);
+            } else {
+                return p.getElement();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of keys in the range from <code>fromKey</code> inclusive
+     * to <code>toKey</code> exclusive. Runs in expected O(log n) time.
+     *
+     * @return number of keys in the desired range
+     */
+    public int countRange(K fromKey, K toKey) {
+        return compare(fromKey, toKey) < 0 ? rank(toKey) - rank(fromKey) : 0;
+    }
+
+    // finger search
+
+    /**
+     * Returns a cursor on the entry with the least key (past the end, if the
+     * treap is empty).
+     *
+     * @return a new cursor
+     */
+    public Cursor cursor() {
+        Cursor c = new Cursor();
+        c.moveTo(first(), true);
+        return c;
+    }
+
+    /**
+     * Returns a cursor on the entry with the least key greater than or equal to
+     * the given key (past the end, if there is none), found from the root.
+     *
+     * @param key the key to look for
+     * @return a new cursor
+     */
+    public Cursor cursor(K key) {
+        Cursor c = new Cursor();
+        c.moveTo(above(key, true), true);
+        return c;
+    }
+
+    /** Returns the position with the least key, or null if the treap is empty. */
+    private Position<Entry<K, V>> first() {
+        return isEmpty() ? null : treeMin(tree.root());
+    }
+
+    /** Returns the position with the greatest key, or null if the treap is empty. */
+    private Position<Entry<K, V>> last() {
+        return isEmpty() ? null : treeMax(tree.root());
+    }
+
+    /**
+     * Returns the position with the least key greater than or equal to key, or
+     * null if there is none, searching from internal position f instead of the
+     * root. The search climbs from f only until it reaches a subtree that must
+     * hold the answer, which is the lowest common ancestor of f and the answer
+     * or its parent, and then walks down. In a treap both stretches take
+     * expected O(log d) steps, where d is the difference in rank between the
+     * key of f and key.
+     */
+    private Position<Entry<K, V>> fingerSearch(Position<Entry<K, V>> f, K key) {
+        int c = compare(key, f.getElement());
+        if (c == 0) {
+            return f;
+        }
+        LinkedBinaryTree.Node<Entry<K, V>> u = node(f);
+        Position<Entry<K, V>> best = null;
+        while (u.getParent() != null) {
+            LinkedBinaryTree.Node<Entry<K, V>> parent = u.getParent();
+            if (c > 0 && u == parent.getLeft() && compare(key, parent.getElement()) < 0) {
+                best = parent;                  // key lies below parent, in u's subtree or just after it
+                break;
+            }
+            if (c < 0 && u == parent.getRight() && compare(key, parent.getElement()) > 0) {
+                break;                          // key lies above parent, and f in u's subtree is greater
+            }
+            u = parent;
+        }
+        while (!vacant(u)) {
+            int comp = compare(key, u.getElement());
+            if (comp == 0) {
+                return u;
+            }
+            if (comp < 0) {
+                best = u;                       // a candidate; look for a smaller one
+                u = u.getLeft();
+            } else {
+                u = u.getRight();
+            }
+        }
+        return best;
+    }
+
+    /**
+     * A finger into the treap: a position on one of its entries, or just past
+     * either end, from which nearby entries are reached without starting over
+     * at the root. A run of next() or previous() calls takes amortized O(1) time
+     * per step, and seek(key) takes expected O(log d) time, where d is the
+     * difference in rank between the current key and the target, rather than
+     * O(log n).
+     * <p>
+     * The treap may be modified while a cursor is in use. Insertions and
+     * rotations leave the cursor where it is; after a removal or a bulk
+     * operation, the cursor finds its key again from the root at its next use
+     * (landing on the next greater key, if its own key was removed).
+     */
+    public class Cursor {
+        private BalanceableBinaryTree<K, V> owner;  // the tree that p belongs to
+        private long unlinks;                       // owner.getUnlinks() when p was reached
+        private Position<Entry<K, V>> p;            // the current entry, or null past an end
+        private boolean pastLast;                   // if p is null, whether past the last entry or before the first
+        private K key;                              // the key at p, to find p again
+
+        private Cursor() {
+        }
+
+        /**
+         * Returns the entry under the cursor.
+         *
+         * @return the current entry, or null if the cursor is past either end
+         */
+        public Entry<K, V> entry() {
+            sync();
+            return p == null ? null : p.getElement();
+        }
+
+        /**
+         * Moves the cursor to the entry with the next greater key. From before
+         * the first entry, it moves to the first.
+         *
+         * @return the new current entry, or null if the cursor moved past the last
+         */
+        public Entry<K, V> next() {
+            sync();
+            if (p != null) {
+                moveTo(successor(p), true);
+            } else if (!pastLast) {
+                moveTo(first(), true);
+            }
+            return entry();
+        }
+
+        /**
+         * Moves the cursor to the entry with the next smaller key. From past the
+         * last entry, it moves to the last.
+         *
+         * @return the new current entry, or null if the cursor moved before the first
+         */
+        public Entry<K, V> previous() {
+            sync();
+            if (p != null) {
+                moveTo(predecessor(p), false);
+            } else if (pastLast) {
+                moveTo(last(), false);
+            }
+            return entry();
+        }
+
+        /**
+         * Moves the cursor to the entry with the least key greater than or equal
+         * to the given key, searching from the current entry.
+         *
+         * @param key the key to look for
+         * @return the new current entry, or null if the cursor moved past the last
+         */
+        public Entry<K, V> seek(K key) {
+            sync();
+            moveTo(p == null ? above(key, true) : fingerSearch(p, key), true);
+            return entry();
+        }
+
+        /**
+         * Returns the value associated with the given key, or null if there is
+         * no such entry, leaving the cursor where seek(key) would.
+         *
+         * @param key the key whose associated value is to be returned
+         * @return the associated value, or null if no such entry exists
+         */
+        public V get(K key) {
+            Entry<K, V> e = seek(key);
+            return e != null && compare(key, e) == 0 ? e.getValue() : null;
+        }
+
+        /** Places the cursor at q; if q is null, past the last entry if forward, else before the first. */
+        private void moveTo(Position<Entry<K, V>> q, boolean forward) {
+            p = q;
+            if (q != null) {
+                key = q.getElement().getKey();
+            } else {
+                pastLast = forward;
+            }
+            owner = tree;
+            unlinks = tree.getUnlinks();
+        }
+
+        /** Finds the current key again from the root if nodes may have left the tree since p was reached. */
+        private void sync() {
+            if (owner == tree && unlinks == tree.getUnlinks()) {
+                return;
+            }
+            moveTo(p == null ? null : above(key, true), p == null ? pastLast : true);
+        }
+    } // ----------- end of nested Cursor class -----------
+
+    /** Returns the child of p with the highest priority, ignoring sentinel leaves. */
+    private static <K extends Comparable<K>, V> Position<Entry<K, V>> higherChild(BalanceableBinaryTree<K, V> t, Position<Entry<K, V>> p) {
+        Position<Entry<K, V>> left = t.left(p);
+        Position<Entry<K, V>> right = t.right(p);
+        if (t.isExternal(left)) {
+            return right;
+        }
+        if (t.isExternal(right)) {
+            return left;
+        }
+        return t.getAux(left) >= t.getAux(right) ? left : right;
+    }
+
+    /** Rotates p below its children until the heap property holds at p. */
+    private void sink(Position<Entry<K, V>> p) {
+        while (tree.isInternal(tree.left(p)) || tree.isInternal(tree.right(p))) {
+            Position<Entry<K, V>> c = higherChild(tree, p);
+            if (tree.getAux(c) <= tree.getAux(p)) {
+                break;
+            }
+            tree.rotate(c);
+        }
+    }
+
+    /** Replaces the underlying tree with an empty one (a single sentinel leaf, if any). */
+    private void reset() {
+        tree = BalanceableBinaryTree.empty(tree.getLeaves());
+    }
+
+    /** Detaches the subtree rooted at p, which may be a missing (null) child, as a tree of its own. */
+    private BalanceableBinaryTree<K, V> cut(Position<Entry<K, V>> p) {
+        return p == null ? BalanceableBinaryTree.empty(tree.getLeaves()) : tree.detach(p);
+    }
+
     public BalanceableBinaryTree<K,V> makeTree(){
-        return new BalanceableBinaryTree<>();
+        return new BalanceableBinaryTree<>(tree.getLeaves());
     }
 
     @Override
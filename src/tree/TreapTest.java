@@ -139,4 +139,492 @@ class TreapTest {
         assertEquals(6, treap.treeMax(treap.tree.root()).getElement().getKey());
     }
 
-   }
\ No newline at end of file
+    @Test
+    public void split() throws IOException {
+        Treap<Integer, String> treap = new Treap<>();
+        for (int i = 1; i <= 20; i++) {
+            treap.put(i * 10, Integer.toString(i));
+        }
+
+        Treap.Parts<Integer, String> parts = treap.split(105);
+
+        assertTrue(treap.isEmpty());
+        assertEquals(10, parts.below().size());
+        assertEquals(10, parts.atOrAbove().size());
+        assertEquals(100, parts.below().lastEntry().getKey());
+        assertEquals(110, parts.atOrAbove().firstEntry().getKey());
+        assertTrue(parts.below().checkHeap());
+        assertTrue(parts.atOrAbove().checkHeap());
+    }
+
+    @Test
+    public void splitAtExistingKey() throws IOException {
+        Treap<Integer, String> treap = new Treap<>();
+        for (int i = 1; i <= 20; i++) {
+            treap.put(i, Integer.toString(i));
+        }
+
+        Treap.Parts<Integer, String> parts = treap.split(8);
+
+        assertEquals(7, parts.below().size());
+        assertEquals(13, parts.atOrAbove().size());
+        assertEquals(7, parts.below().lastEntry().getKey());
+        assertEquals("8", parts.atOrAbove().get(8));
+        assertNull(parts.below().get(8));
+        assertTrue(parts.atOrAbove().checkHeap());
+    }
+
+    @Test
+    public void join() throws IOException {
+        Treap<Integer, String> left = new Treap<>();
+        Treap<Integer, String> right = new Treap<>();
+        for (int i = 0; i < 10; i++) {
+            left.put(i, Integer.toString(i));
+            right.put(i + 10, Integer.toString(i + 10));
+        }
+
+        Treap<Integer, String> joined = Treap.join(left, right);
+
+        assertTrue(left.isEmpty());
+        assertTrue(right.isEmpty());
+        assertEquals(20, joined.size());
+        assertTrue(joined.checkHeap());
+        List<Integer> keys = new ArrayList<>();
+        for (Integer k : joined.keySet()) {
+            keys.add(k);
+        }
+        assertEquals(20, keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(i, keys.get(i));
+        }
+    }
+
+    @Test
+    public void joinOverlapping() throws IOException {
+        Treap<Integer, String> left = new Treap<>();
+        Treap<Integer, String> right = new Treap<>();
+        left.put(5, "five");
+        right.put(3, "three");
+
+        assertThrows(IllegalArgumentException.class, () -> Treap.join(left, right));
+    }
+
+    @Test
+    public void fromSorted() throws IOException {
+        Integer[] keys = new Integer[1000];
+        String[] values = new String[1000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = 2 * i;
+            values[i] = Integer.toString(2 * i);
+        }
+
+        Treap<Integer, String> treap = Treap.fromSorted(keys, values);
+
+        assertEquals(1000, treap.size());
+        assertTrue(treap.checkHeap());
+        assertEquals("500", treap.get(500));
+        assertNull(treap.get(501));
+        assertEquals(0, treap.firstEntry().getKey());
+        assertEquals(1998, treap.lastEntry().getKey());
+
+        // the result is an ordinary treap that accepts further updates
+        treap.put(501, "501");
+        treap.remove(500);
+        assertEquals(1000, treap.size());
+        assertTrue(treap.checkHeap());
+        assertEquals("501", treap.get(501));
+        assertNull(treap.get(500));
+    }
+
+    @Test
+    public void fromSortedEmpty() throws IOException {
+        Treap<Integer, String> treap = Treap.fromSorted(new Integer[0], new String[0]);
+
+        assertTrue(treap.isEmpty());
+        treap.put(1, "one");
+        assertEquals("one", treap.get(1));
+    }
+
+    @Test
+    public void fromSortedRejectsUnsorted() {
+        assertThrows(IllegalArgumentException.class,
+                () -> Treap.fromSorted(new Integer[]{1, 3, 2}, new String[]{"1", "3", "2"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> Treap.fromSorted(new Integer[]{1, 1}, new String[]{"1", "1"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> Treap.fromSorted(new Integer[]{1, 2}, new String[]{"1"}));
+    }
+
+    @Test
+    public void rankAndSelect() throws IOException {
+        Treap<Integer, String> treap = new Treap<>();
+        Integer[] arr = new Integer[] {35, 26, 15, 24, 33, 4, 12, 1, 23, 21, 2, 5};
+        for (Integer i : arr) {
+            treap.put(i, Integer.toString(i));
+        }
+        treap.remove(24);
+
+        // 1, 2, 4, 5, 12, 15, 21, 23, 26, 33, 35
+        assertEquals(0, treap.rank(1));
+        assertEquals(0, treap.rank(0));
+        assertEquals(4, treap.rank(12));
+        assertEquals(8, treap.rank(24));
+        assertEquals(11, treap.rank(100));
+        assertEquals(1, treap.select(0).getKey());
+        assertEquals(12, treap.select(4).getKey());
+        assertEquals(26, treap.select(8).getKey());
+        assertEquals(35, treap.select(10).getKey());
+        assertThrows(IndexOutOfBoundsException.class, () -> treap.select(11));
+        assertThrows(IndexOutOfBoundsException.class, () -> treap.select(-1));
+    }
+
+    @Test
+    public void countRange() throws IOException {
+        Treap<Integer, String> treap = new Treap<>();
+        for (int i = 0; i < 100; i++) {
+            treap.put(2 * i, Integer.toString(2 * i));
+        }
+
+        assertEquals(100, treap.countRange(0, 200));
+        assertEquals(5, treap.countRange(10, 20));
+        assertEquals(5, treap.countRange(9, 19));
+        assertEquals(0, treap.countRange(20, 10));
+        for (int i = 0; i < treap.size(); i++) {
+            assertEquals(i, treap.rank(treap.select(i).getKey()));
+        }
+    }
+
+    @Test
+    public void seededPrioritiesGiveSameShape() throws IOException {
+        Treap<Integer, String> a = new Treap<>(PriorityGenerator.seeded(42));
+        Treap<Integer, String> b = new Treap<>(PriorityGenerator.seeded(42));
+        for (int i = 0; i < 200; i++) {
+            a.put(i * 7 % 200, "v");
+            b.put(i * 7 % 200, "v");
+        }
+
+        assertTrue(a.checkHeap());
+        assertEquals(a.tree.height(a.tree.root()), b.tree.height(b.tree.root()));
+        assertEquals(a.tree.getRotations(), b.tree.getRotations());
+        assertEquals(a.tree.root().getElement().getKey(), b.tree.root().getElement().getKey());
+    }
+
+    @Test
+    public void hashPrioritiesIgnoreInsertionOrder() throws IOException {
+        Treap<Integer, String> ascending = new Treap<>(PriorityGenerator.hashOfKey());
+        Treap<Integer, String> descending = new Treap<>(PriorityGenerator.hashOfKey());
+        for (int i = 0; i < 200; i++) {
+            ascending.put(i, "v");
+            descending.put(199 - i, "v");
+        }
+
+        assertTrue(ascending.checkHeap());
+        assertTrue(descending.checkHeap());
+        assertEquals(preorderKeys(ascending), preorderKeys(descending));
+    }
+
+    @Test
+    public void hashPrioritiesIgnoreRemovals() throws IOException {
+        Treap<Integer, String> removed = new Treap<>(PriorityGenerator.hashOfKey());
+        Treap<Integer, String> fresh = new Treap<>(PriorityGenerator.hashOfKey());
+        for (int i = 0; i < 200; i++) {
+            removed.put(i, "v");
+        }
+        for (int i = 0; i < 200; i++) {
+            if (i % 3 == 0) {
+                assertEquals("v", removed.remove(i));
+            } else {
+                fresh.put(i, "v");
+            }
+        }
+
+        assertTrue(removed.checkHeap());
+        assertEquals(preorderKeys(fresh), preorderKeys(removed));
+    }
+
+    @Test
+    public void nullLeaves() throws IOException {
+        Treap<Integer, String> treap = new Treap<>(PriorityGenerator.seeded(1), BalanceableBinaryTree.Leaves.NULL);
+        TreeMapTest.assertMatchesJdk(treap, 3);
+        assertTrue(treap.checkHeap());
+        for (int i = 0; i < treap.size(); i++) {
+            assertEquals(i, treap.rank(treap.select(i).getKey()));
+        }
+
+        int n = treap.size();
+        int below = treap.rank(100);
+        Treap.Parts<Integer, String> parts = treap.split(100);
+        assertEquals(below, parts.below().size());
+        assertEquals(n - below, parts.atOrAbove().size());
+        assertEquals(parts.below().size(), parts.below().tree.size());
+        assertTrue(parts.below().checkHeap());
+        assertTrue(parts.atOrAbove().checkHeap());
+
+        Treap<Integer, String> joined = Treap.join(parts.below(), parts.atOrAbove());
+        assertEquals(n, joined.size());
+        assertEquals(n, joined.tree.size());
+        assertTrue(joined.checkHeap());
+        assertThrows(IllegalArgumentException.class, () -> Treap.join(joined, new Treap<>()));
+
+        Treap<Integer, String> left = new Treap<>(PriorityGenerator.random(), BalanceableBinaryTree.Leaves.NULL);
+        Treap<Integer, String> right = new Treap<>(PriorityGenerator.random(), BalanceableBinaryTree.Leaves.NULL);
+        Treap<Integer, String> empty = Treap.join(left, right);
+        assertTrue(empty.isEmpty());
+        assertEquals(0, empty.tree.size());
+    }
+
+    @Test
+    public void parallelFromSorted() throws IOException {
+        Integer[] keys = new Integer[100_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = 3 * i;
+        }
+        java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(4);
+        for (BalanceableBinaryTree.Leaves leaves : BalanceableBinaryTree.Leaves.values()) {
+            Treap<Integer, Integer> parallel = Treap.fromSorted(keys, keys, PriorityGenerator.seeded(17), leaves, pool);
+            Treap<Integer, Integer> sequential = Treap.fromSorted(entries(keys), PriorityGenerator.seeded(17), leaves);
+
+            assertEquals(keys.length, parallel.size());
+            assertTrue(parallel.checkHeap());
+            assertEquals(preorderKeys(sequential), preorderKeys(parallel));
+            assertEquals(300, parallel.get(300));
+            assertEquals(1000, parallel.rank(3000));
+        }
+        Integer[] unsorted = keys.clone();
+        unsorted[60_000] = 0;
+        assertThrows(IllegalArgumentException.class, () -> Treap.fromSorted(unsorted, unsorted, pool));
+        assertTrue(Treap.fromSorted(new Integer[0], new Integer[0], pool).isEmpty());
+        pool.shutdown();
+    }
+
+    private static List<Entry<Integer, Integer>> entries(Integer[] keys) {
+        List<Entry<Integer, Integer>> entries = new ArrayList<>();
+        for (Integer k : keys) {
+            entries.add(new utils.MapEntry<>(k, k));
+        }
+        return entries;
+    }
+
+    @Test
+    public void putAllMatchesPut() throws IOException {
+        for (BalanceableBinaryTree.Leaves leaves : BalanceableBinaryTree.Leaves.values()) {
+            Treap<Integer, String> treap = new Treap<>(PriorityGenerator.seeded(5), leaves);
+            java.util.TreeMap<Integer, String> expected = new java.util.TreeMap<>();
+            java.util.Random random = new java.util.Random(5);
+            for (int round = 0; round < 20; round++) {
+                int m = 1 + random.nextInt(300);
+                Integer[] keys = new Integer[m];
+                String[] values = new String[m];
+                for (int i = 0; i < m; i++) {
+                    keys[i] = random.nextInt(2000);     // unsorted, with repeats
+                    values[i] = round + "/" + i;
+                    expected.put(keys[i], values[i]);
+                }
+                treap.putAll(keys, values);
+
+                assertEquals(expected.size(), treap.size());
+                assertTrue(treap.checkHeap());
+                for (java.util.Map.Entry<Integer, String> e : expected.entrySet()) {
+                    assertEquals(e.getValue(), treap.get(e.getKey()));
+                }
+            }
+            assertEquals(expected.keySet().toString(), treap.entrySet().toString());
+            assertEquals(expected.size(), treap.rank(Integer.MAX_VALUE));
+        }
+    }
+
+    @Test
+    public void removeAllMatchesRemove() throws IOException {
+        for (BalanceableBinaryTree.Leaves leaves : BalanceableBinaryTree.Leaves.values()) {
+            Treap<Integer, String> treap = new Treap<>(PriorityGenerator.seeded(9), leaves);
+            java.util.TreeMap<Integer, String> expected = new java.util.TreeMap<>();
+            for (int i = 0; i < 1000; i++) {
+                treap.put(i, Integer.toString(i));
+                expected.put(i, Integer.toString(i));
+            }
+            java.util.Random random = new java.util.Random(9);
+            for (int round = 0; round < 10; round++) {
+                Integer[] keys = new Integer[50];
+                int present = 0;
+                for (int i = 0; i < keys.length; i++) {
+                    keys[i] = random.nextInt(1200);     // some absent, some repeated
+                }
+                for (Integer k : new java.util.TreeSet<>(List.of(keys))) {
+                    if (expected.remove(k) != null) {
+                        present++;
+                    }
+                }
+                assertEquals(present, treap.removeAll(keys));
+                assertEquals(expected.size(), treap.size());
+                assertTrue(treap.checkHeap());
+            }
+            assertEquals(expected.keySet().toString(), treap.entrySet().toString());
+            assertEquals(0, treap.removeAll(new Integer[0]));
+        }
+    }
+
+    @Test
+    public void putAllRejectsMismatchedArrays() {
+        Treap<Integer, String> treap = new Treap<>();
+        assertThrows(IllegalArgumentException.class, () -> treap.putAll(new Integer[]{1, 2}, new String[]{"1"}));
+    }
+
+    @Test
+    public void setOperations() {
+        for (BalanceableBinaryTree.Leaves leaves : BalanceableBinaryTree.Leaves.values()) {
+            for (String op : List.of("union", "intersection", "difference")) {
+                java.util.Random random = new java.util.Random(op.hashCode());
+                java.util.TreeMap<Integer, String> ma = new java.util.TreeMap<>();
+                java.util.TreeMap<Integer, String> mb = new java.util.TreeMap<>();
+                Treap<Integer, String> a = randomTreap(random, 500, "a", ma, leaves);
+                Treap<Integer, String> b = randomTreap(random, 300, "b", mb, leaves);
+
+                java.util.TreeMap<Integer, String> expected = new java.util.TreeMap<>(ma);
+                Treap<Integer, String> result;
+                switch (op) {
+                    case "union" -> {
+                        expected.putAll(mb);
+                        result = Treap.union(a, b);
+                    }
+                    case "intersection" -> {
+                        expected.keySet().retainAll(mb.keySet());
+                        result = Treap.intersection(a, b);
+                    }
+                    default -> {
+                        expected.keySet().removeAll(mb.keySet());
+                        result = Treap.difference(a, b);
+                    }
+                }
+                assertTrue(a.isEmpty());
+                assertTrue(b.isEmpty());
+                assertSameEntries(expected, result);
+            }
+        }
+    }
+
+    @Test
+    public void parallelSetOperations() {
+        java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(4);
+        java.util.Random random = new java.util.Random(13);
+        java.util.TreeMap<Integer, String> ma = new java.util.TreeMap<>();
+        java.util.TreeMap<Integer, String> mb = new java.util.TreeMap<>();
+        Treap<Integer, String> a = randomTreap(random, 100_000, "a", ma, BalanceableBinaryTree.Leaves.NULL);
+        Treap<Integer, String> b = randomTreap(random, 100_000, "b", mb, BalanceableBinaryTree.Leaves.NULL);
+        java.util.TreeMap<Integer, String> common = new java.util.TreeMap<>(ma);
+        common.keySet().retainAll(mb.keySet());
+
+        Treap<Integer, String> union = Treap.union(a, b, pool);
+        ma.putAll(mb);
+        assertSameEntries(ma, union);
+
+        Treap<Integer, String> onlyCommon = Treap.intersection(union, Treap.fromSorted(entries(common), PriorityGenerator.random(), BalanceableBinaryTree.Leaves.NULL), pool);
+        common.replaceAll((k, v) -> mb.get(k));     // the values of the union
+        assertSameEntries(common, onlyCommon);
+        pool.shutdown();
+    }
+
+    @Test
+    public void setOperationsRejectInvalidArguments() {
+        Treap<Integer, String> a = new Treap<>();
+        Treap<Integer, String> nulls = new Treap<>(PriorityGenerator.random(), BalanceableBinaryTree.Leaves.NULL);
+        assertThrows(IllegalArgumentException.class, () -> Treap.union(a, a));
+        assertThrows(IllegalArgumentException.class, () -> Treap.difference(a, nulls));
+    }
+
+    @Test
+    public void cursorMatchesNavigation() throws IOException {
+        java.util.Random random = new java.util.Random(16);
+        for (BalanceableBinaryTree.Leaves leaves : BalanceableBinaryTree.Leaves.values()) {
+            java.util.TreeMap<Integer, String> expected = new java.util.TreeMap<>();
+            Treap<Integer, String> treap = randomTreap(random, 1000, "v", expected, leaves);
+
+            // a full walk in either direction
+            Treap<Integer, String>.Cursor cursor = treap.cursor();
+            for (Integer key : expected.keySet()) {
+                assertEquals(key, cursor.entry().getKey());
+                cursor.next();
+            }
+            assertNull(cursor.entry());
+            for (Integer key : expected.descendingKeySet()) {
+                assertEquals(key, cursor.previous().getKey());
+            }
+            assertNull(cursor.previous());
+            assertEquals(expected.firstKey(), cursor.next().getKey());
+
+            // local and far seeks from wherever the cursor is
+            int key = 1500;
+            for (int i = 0; i < 2000; i++) {
+                key = i % 100 == 0 ? random.nextInt(3100) : Math.max(0, key + random.nextInt(21) - 10);
+                assertEquals(expected.ceilingKey(key), keyOf(cursor.seek(key)));
+                assertEquals(expected.get(key), cursor.get(key));
+            }
+        }
+    }
+
+    @Test
+    public void cursorSurvivesModification() throws IOException {
+        Treap<Integer, String> treap = new Treap<>(PriorityGenerator.seeded(16), BalanceableBinaryTree.Leaves.NULL);
+        for (int i = 0; i < 100; i++) {
+            treap.put(2 * i, "v" + i);
+        }
+        Treap<Integer, String>.Cursor cursor = treap.cursor(50);
+        treap.put(51, "new");                   // an insertion leaves the cursor in place
+        assertEquals(51, cursor.next().getKey());
+        treap.remove(51);                       // the current key is gone: land on the next one
+        assertEquals(52, cursor.entry().getKey());
+        assertEquals(50, cursor.previous().getKey());
+        treap.putAll(new Integer[]{49, 150}, new String[]{"a", "b"});
+        assertEquals(150, cursor.seek(149).getKey());
+        assertEquals("b", cursor.get(150));
+        assertNull(cursor.get(151));
+        assertNull(cursor.seek(1000));
+        assertEquals(198, cursor.previous().getKey());
+
+        Treap<Integer, String>.Cursor empty = new Treap<Integer, String>().cursor();
+        assertNull(empty.entry());
+        assertNull(empty.previous());
+        assertNull(empty.next());
+    }
+
+    private static Integer keyOf(Entry<Integer, ?> e) {
+        return e == null ? null : e.getKey();
+    }
+
+    private static Treap<Integer, String> randomTreap(java.util.Random random, int n, String tag,
+                                                      java.util.TreeMap<Integer, String> expected,
+                                                      BalanceableBinaryTree.Leaves leaves) {
+        while (expected.size() < n) {
+            int key = random.nextInt(3 * n);
+            expected.put(key, tag + key);
+        }
+        return Treap.fromSorted(entries(expected), PriorityGenerator.random(), leaves);
+    }
+
+    private static List<Entry<Integer, String>> entries(java.util.TreeMap<Integer, String> map) {
+        List<Entry<Integer, String>> entries = new ArrayList<>();
+        map.forEach((k, v) -> entries.add(new utils.MapEntry<>(k, v)));
+        return entries;
+    }
+
+    private static void assertSameEntries(java.util.TreeMap<Integer, String> expected, Treap<Integer, String> treap) {
+        assertEquals(expected.size(), treap.size());
+        assertTrue(treap.checkHeap());
+        java.util.Iterator<java.util.Map.Entry<Integer, String>> it = expected.entrySet().iterator();
+        for (Entry<Integer, String> e : treap.entrySet()) {
+            java.util.Map.Entry<Integer, String> x = it.next();
+            assertEquals(x.getKey(), e.getKey());
+            assertEquals(x.getValue(), e.getValue());
+        }
+        assertEquals(expected.size(), treap.rank(Integer.MAX_VALUE));
+    }
+
+    private static <V> List<Integer> preorderKeys(Treap<Integer, V> treap) {
+        List<Integer> keys = new ArrayList<>();
+        for (Position<Entry<Integer, V>> p : treap.tree.preorder()) {
+            if (treap.tree.isInternal(p)) {
+                keys.add(p.getElement().getKey());
+            }
+        }
+        return keys;
+    }
+}
@@ -2,6 +2,7 @@ package tree;
 
 import interfaces.Entry;
 import interfaces.Position;
+import tree.BalanceableBinaryTree.Leaves;
 import utils.MapEntry;
 
 import java.io.IOException;
@@ -9,7 +10,10 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Random;
+import java.util.Spliterator;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -20,12 +24,13 @@ import java.util.stream.Collectors;
 public class TreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V> {
 
 
-	protected BalanceableBinaryTree<K, V> tree = new BalanceableBinaryTree<>();
+	protected BalanceableBinaryTree<K, V> tree;
+
+	private TreeMetrics metrics;    // null unless metrics are enabled
 
 	/** Constructs an empty map using the natural ordering of keys. */
 	public TreeMap() {
-		super(); // the AbstractSortedMap constructor
-		tree.addRoot(null); // create a sentinel leaf as root
+		this(Leaves.SENTINEL);
 	}
 
 	/**
@@ -34,8 +39,31 @@ public class TreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V>
 	 * @param comp comparator defining the order of keys in the map
 	 */
 	public TreeMap(Comparator<K> comp) {
+		this(comp, Leaves.SENTINEL);
+	}
+
+	/**
+	 * Constructs an empty map using the natural ordering of keys, whose tree
+	 * represents missing children as given. Leaves.NULL stores no sentinel
+	 * leaves, which halves the number of nodes.
+	 *
+	 * @param leaves the representation of missing children
+	 */
+	public TreeMap(Leaves leaves) {
+		super(); // the AbstractSortedMap constructor
+		tree = BalanceableBinaryTree.empty(leaves); // a sentinel leaf as root, if any
+	}
+
+	/**
+	 * Constructs an empty map using the given comparator to order keys, whose
+	 * tree represents missing children as given.
+	 *
+	 * @param comp   comparator defining the order of keys in the map
+	 * @param leaves the representation of missing children
+	 */
+	public TreeMap(Comparator<K> comp, Leaves leaves) {
 		super(comp); // the AbstractSortedMap constructor
-		tree.addRoot(null); // create a sentinel leaf as root
+		tree = BalanceableBinaryTree.empty(leaves); // a sentinel leaf as root, if any
 	}
 
 	/**
@@ -45,7 +73,39 @@ public class TreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V>
 	 */
 	@Override
 	public int size() {
-		return (tree.size() - 1) / 2; // only internal nodes have entries
+		return tree.entryCount(tree.root()); // sentinel leaves have no entries
+	}
+
+	/**
+	 * Starts recording searches and rotations in a TreeMetrics, which is returned
+	 * (the one already recording, if metrics are enabled).
+	 *
+	 * @return the metrics of this map
+	 */
+	public TreeMetrics enableMetrics() {
+		if (metrics == null) {
+			metrics = new TreeMetrics(this::size);
+		}
+		return metrics;
+	}
+
+	/** Stops recording metrics; the TreeMetrics last returned keeps its counts. */
+	public void disableMetrics() {
+		metrics = null;
+	}
+
+	/**
+	 * Returns the metrics of this map, or null if they are not enabled.
+	 *
+	 * @return the metrics being recorded, or null
+	 */
+	public TreeMetrics getMetrics() {
+		return metrics;
+	}
+
+	/** Returns the number of rotations so far, if metrics are enabled (0 otherwise). */
+	long rotationsIf(TreeMetrics m) {
+		return m == null ? 0 : tree.getRotations();
 	}
 
 	protected Position<Entry<K, V>> restructure(Position<Entry<K, V>> x) throws IOException {
@@ -66,6 +126,10 @@ public class TreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V>
 	 * Rebalances the tree after a child of specified position has been removed.
 	 * This version of the method does not do anything, but it can be overridden by
 	 * subclasses.
+	 * <p>
+	 * Without sentinel leaves, a removed node with no children is passed here
+	 * with its entry cleared and its aux field reset to 0, standing in for the
+	 * sentinel leaf that would have taken its place; it is unlinked afterwards.
 	 *
 	 * @param p the position of the sibling of the removed leaf
 	 */
@@ -93,9 +157,30 @@ public class TreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V>
 		tree.addRight(p, null);
 	}
 
+	/**
+	 * Utility used when inserting a new entry where a search for its key ended.
+	 * With sentinel leaves the entry is stored at the leaf p; otherwise it gets a
+	 * new node below p (or becomes the root, if p is null).
+	 *
+	 * @param p     the position returned by treeSearch for the entry's key
+	 * @param entry the new entry
+	 * @return the position of the new entry
+	 */
+	Position<Entry<K, V>> insertAt(Position<Entry<K, V>> p, Entry<K, V> entry) throws IOException {
+		if (tree.hasSentinels()) {
+			expandExternal(p, entry);
+			return p;
+		}
+		if (p == null) {
+			return tree.addRoot(entry);
+		}
+		return compare(entry, p.getElement()) < 0 ? tree.addLeft(p, entry) : tree.addRight(p, entry);
+	}
+
 	/**
 	 * Returns the position in p's subtree having the given key (or else the
-	 * terminal leaf).
+	 * terminal leaf). Without sentinel leaves there is no terminal leaf, and the
+	 * last entry visited is returned instead (null if the tree is empty).
 	 *
 	 * @param key a target key
 	 * @param p   a position of the tree serving as root of a subtree
@@ -103,10 +188,29 @@ public class TreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V>
 	 */
 	// Searches Tree for match
     Position<Entry<K, V>> treeSearch(Position<Entry<K, V>> p, K key) {
-		if (tree.isExternal(p)) return p;
-		else if (key.compareTo(p.getElement().getKey()) == 0) return p;
-		else if (key.compareTo(p.getElement().getKey()) < 0) return treeSearch(tree.left(p), key);
-		else return treeSearch(tree.right(p), key);
+		Position<Entry<K, V>> last = p;
+		int depth = 0;
+		while (tree.isInternal(p)) {
+			depth++;
+			int comp = compare(key, p.getElement());
+			if (comp == 0) break;
+			last = p;
+			p = comp < 0 ? tree.left(p) : tree.right(p);
+		}
+		if (metrics != null) {
+			metrics.recordSearch(depth);
+		}
+		return tree.hasSentinels() || tree.isInternal(p) ? p : last;
+	}
+
+	/**
+	 * Returns true if Position p, as returned by treeSearch for key, holds key.
+	 */
+	boolean holdsKey(Position<Entry<K, V>> p, K key) {
+		if (tree.hasSentinels()) {
+			return tree.isInternal(p);
+		}
+		return p != null && compare(key, p.getElement()) == 0;
 	}
 
 	/**
@@ -116,10 +220,10 @@ public class TreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V>
 	 * @return Position with minimal key in subtree
 	 */
 	protected Position<Entry<K, V>> treeMin(Position<Entry<K, V>> p) {
-		if(tree.isExternal(tree.left(p))){
-			return p;
+		while (tree.isInternal(tree.left(p))) {
+			p = tree.left(p);
 		}
-		return treeMin(tree.left(p));
+		return p;
 	}
 
 	/**
@@ -129,10 +233,10 @@ public class TreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V>
 	 * @return Position with maximum key in subtree
 	 */
 	protected Position<Entry<K, V>> treeMax(Position<Entry<K, V>> p) {
-		if(tree.isExternal(tree.right(p))){
-			return p;
+		while (tree.isInternal(tree.right(p))) {
+			p = tree.right(p);
 		}
-		return treeMax(tree.right(p));
+		return p;
 	}
 
 	/**
@@ -149,8 +253,16 @@ public class TreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V>
 			return null;
 		}
 		Position<Entry<K,V>> p = treeSearch(tree.root(), key);
+		if (p == null) {
+			return null;  // empty tree without sentinel leaves
+		}
+		TreeMetrics m = metrics;
+		long before = rotationsIf(m);
 		rebalanceAccess(p);
-		if(tree.isExternal(p)){
+		if (m != null) {
+			m.recordAccess(tree.getRotations() - before);
+		}
+		if(!holdsKey(p, key)){
 			return null;  // Key not found
 		}
 		return p.getElement().getValue();
@@ -169,22 +281,22 @@ public class TreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V>
 	@Override
 	public V put(K key, V value) throws IllegalArgumentException, IOException {
 		Entry<K, V> entry = new MapEntry<>(key, value);
-		if (tree.isEmpty()) {
-			Position<Entry<K,V>> p = tree.addRoot(entry);
-			rebalanceInsert(p);
-			return null;
-		}
 		Position<Entry<K,V>> p = treeSearch(tree.root(), key);
-		if(tree.isExternal(p)){
-			//System.out.println("Was external");
-			expandExternal(p, entry);
-			rebalanceInsert(p);
-			//System.out.println(tree.root());
+		TreeMetrics m = metrics;
+		long before = rotationsIf(m);
+		if(!holdsKey(p, key)){
+			rebalanceInsert(insertAt(p, entry));
+			if (m != null) {
+				m.recordInsert(tree.getRotations() - before);
+			}
 			return null;
 		} else {
 			V old = p.getElement().getValue();
 			tree.set(p, entry);
 			rebalanceAccess(p);
+			if (m != null) {
+				m.recordAccess(tree.getRotations() - before);
+			}
 			return old;
 		}
 
@@ -202,8 +314,15 @@ public class TreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V>
 	@Override
 	public V remove(K key) throws IllegalArgumentException, IOException {
 		Position<Entry<K, V>> p = treeSearch(tree.root(), key);
-		if(tree.isExternal(p)){
-			rebalanceAccess(p);
+		TreeMetrics m = metrics;
+		long before = rotationsIf(m);
+		if(!holdsKey(p, key)){
+			if (p != null) {
+				rebalanceAccess(p);
+			}
+			if (m != null) {
+				m.recordAccess(tree.getRotations() - before);
+			}
 			return null;
 		} else {
 			V old = p.getElement().getValue();
@@ -213,11 +332,25 @@ public class TreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V>
 				p = r;
 			}
 
-			Position<Entry<K,V>> leaf = tree.isExternal(tree.left(p)) ? tree.left(p) : tree.right(p);
-			Position<Entry<K,V>> sib = tree.sibling(leaf);
-			tree.remove(leaf);
-			tree.remove(p);
-			rebalanceDelete(sib);
+			if (tree.hasSentinels()) {
+				Position<Entry<K,V>> leaf = tree.isExternal(tree.left(p)) ? tree.left(p) : tree.right(p);
+				Position<Entry<K,V>> sib = tree.sibling(leaf);
+				tree.remove(leaf);
+				tree.remove(p);
+				rebalanceDelete(sib);
+			} else if (tree.isInternal(tree.left(p)) || tree.isInternal(tree.right(p))) {
+				Position<Entry<K,V>> child = tree.isInternal(tree.left(p)) ? tree.left(p) : tree.right(p);
+				tree.remove(p);
+				rebalanceDelete(child);
+			} else {
+				tree.set(p, null);                 // p stands in for a sentinel leaf while rebalancing
+				tree.setAux(p, 0);
+				rebalanceDelete(p);
+				tree.remove(p);
+			}
+			if (m != null) {
+				m.recordDelete(tree.getRotations() - before);
+			}
 			return old;
 		}
 
@@ -261,17 +394,7 @@ public class TreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V>
 	 */
 	@Override
 	public Entry<K, V> ceilingEntry(K key) throws IllegalArgumentException {
-		Position<Entry<K,V>> p = treeSearch(tree.root(), key);
-		if(tree.isInternal(p)) {
-			return p.getElement();
-		}
-		while(!tree.isRoot(p)) {
-			if(p == tree.left(tree.parent(p))) {
-				return tree.parent(p).getElement();
-			}
-			p = tree.parent(p);
-		}
-		return null;
+		return entryAt(above(key, true));
 	}
 
 	/**
@@ -284,17 +407,7 @@ public class TreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V>
 	 */
 	@Override
 	public Entry<K, V> floorEntry(K key) throws IllegalArgumentException {
-		Position<Entry<K,V>> p = treeSearch(tree.root(), key);
-		if(tree.isInternal(p)) {
-			return p.getElement();
-		}
-		while(!tree.isRoot(p)) {
-			if(p == tree.right(tree.parent(p))) {
-				return tree.parent(p).getElement();
-			}
-			p = tree.parent(p);
-		}
-		return null;
+		return entryAt(below(key, true));
 	}
 
 	/**
@@ -307,19 +420,7 @@ public class TreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V>
 	 */
 	@Override
 	public Entry<K, V> lowerEntry(K key) throws IllegalArgumentException {
-		Position<Entry<K,V>> p = treeSearch(tree.root(), key);
-		if(tree.isInternal(p)) {
-			if(tree.left(p) != null) {
-				return treeMax(tree.left(p)).getElement();
-			}
-			while(!tree.isRoot(p)) {
-				if(p == tree.right(tree.parent(p))) {
-					return tree.parent(p).getElement();
-				}
-				p = tree.parent(p);
-			}
-		}
-		return null;
+		return entryAt(below(key, false));
 	}
 
 	/**
@@ -332,37 +433,96 @@ public class TreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V>
 	 */
 	@Override
 	public Entry<K, V> higherEntry(K key) throws IllegalArgumentException {
-		Position<Entry<K,V>> p = treeSearch(tree.root(), key);
-		if(tree.isInternal(p)) {
-			if(tree.right(p) != null) {
-				return treeMin(tree.right(p)).getElement();
+		return entryAt(above(key, false));
+	}
+
+	/** Returns the entry at position p, or null if p is null. */
+	private Entry<K, V> entryAt(Position<Entry<K, V>> p) {
+		return p == null ? null : p.getElement();
+	}
+
+	/**
+	 * Returns the position with least key greater than (or, if inclusive, equal
+	 * to) the given key, or null if no such key exists. Walks down from the root
+	 * only, so it works with sentinel and with null leaves alike.
+	 */
+	Position<Entry<K, V>> above(K key, boolean inclusive) {
+		Position<Entry<K, V>> p = tree.root();
+		Position<Entry<K, V>> best = null;
+		while (tree.isInternal(p)) {
+			int comp = compare(key, p.getElement());
+			if (comp < 0 || (comp == 0 && inclusive)) {
+				best = p;                       // a candidate; look for a smaller one
+				p = tree.left(p);
+			} else {
+				p = tree.right(p);
 			}
-			while(!tree.isRoot(p)) {
-				if(p == tree.left(tree.parent(p))) {
-					return tree.parent(p).getElement();
-				}
-				p = tree.parent(p);
+		}
+		return best;
+	}
+
+	/**
+	 * Returns the position with greatest key less than (or, if inclusive, equal
+	 * to) the given key, or null if no such key exists.
+	 */
+	private Position<Entry<K, V>> below(K key, boolean inclusive) {
+		Position<Entry<K, V>> p = tree.root();
+		Position<Entry<K, V>> best = null;
+		while (tree.isInternal(p)) {
+			int comp = compare(key, p.getElement());
+			if (comp > 0 || (comp == 0 && inclusive)) {
+				best = p;                       // a candidate; look for a greater one
+				p = tree.right(p);
+			} else {
+				p = tree.left(p);
 			}
 		}
-		return null;
+		return best;
 	}
 
 	// Support for iteration
 
+	/**
+	 * Returns the position with the next greater key after internal position p (or
+	 * null if p holds the greatest key).
+	 */
+	protected Position<Entry<K, V>> successor(Position<Entry<K, V>> p) {
+		do {
+			p = tree.inorderNext(p);
+		} while (p != null && tree.isExternal(p));   // step over sentinel leaves
+		return p;
+	}
+
+	/**
+	 * Returns the position with the next smaller key before internal position p
+	 * (or null if p holds the least key).
+	 */
+	protected Position<Entry<K, V>> predecessor(Position<Entry<K, V>> p) {
+		do {
+			p = tree.inorderPrev(p);
+		} while (p != null && tree.isExternal(p));   // step over sentinel leaves
+		return p;
+	}
+
 	/**
 	 * Returns an iterable collection of all key-value entries of the map.
+	 * Entries are produced lazily in key order by walking the tree, so iteration
+	 * needs O(1) extra memory; the map must not be modified during an iteration.
 	 *
 	 * @return iterable collection of the map's entries
 	 */
 	@Override
 	public Iterable<Entry<K, V>> entrySet() {
-		ArrayList<Entry<K,V>> buffer = new ArrayList<>(size());
-		for(Position<Entry<K,V>> p : tree.inorder()) {
-			if(tree.isInternal(p)) {
-				buffer.add(p.getElement());
-			}
-		}
-		return buffer;
+		return new EntryIterable(null, null);
+	}
+
+	/**
+	 * Returns the splitting spliterator of entrySet(), so that the streams of a
+	 * tree map are SORTED and divide at subtree roots rather than by copying.
+	 */
+	@Override
+	protected Spliterator<Entry<K, V>> entrySpliterator() {
+		return new EntryIterable(null, null).spliterator();
 	}
 
 	@Override
@@ -391,28 +551,167 @@ public class TreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V>
 	 */
 	@Override
 	public Iterable<Entry<K, V>> subMap(K fromKey, K toKey) throws IllegalArgumentException {
-		ArrayList<Entry<K,V>> buffer = new ArrayList<>();
-		if(compare(fromKey, toKey) < 0) {
-			subMapRecurse(fromKey, toKey, tree.root(), buffer);
-		}
-		return buffer;
+		return new EntryIterable(fromKey, toKey);
 	}
 
-	// utility to fill subMap buffer recursively (while maintaining order)
-	private void subMapRecurse(K fromKey, K toKey, Position<Entry<K, V>> p,
-							   ArrayList<Entry<K, V>> buffer) {
-		if(tree.isInternal(p)) {
-			if(compare(p.getElement().getKey(), fromKey) < 0) {
-				subMapRecurse(fromKey, toKey, tree.right(p), buffer);
-			} else {
-				subMapRecurse(fromKey, toKey, tree.left(p), buffer);
-				if(compare(p.getElement().getKey(), toKey) < 0) {
-					buffer.add(p.getElement());
-					subMapRecurse(fromKey, toKey, tree.right(p), buffer);
-				}
+	// ---------------- nested EntryIterator class ----------------
+	private class EntryIterator implements Iterator<Entry<K, V>> {
+		private final K toKey;                      // exclusive upper bound, or null
+		private Position<Entry<K, V>> cursor;       // position of the next entry, or null
+
+		EntryIterator(K fromKey, K toKey) {
+			this.toKey = toKey;
+			if (fromKey == null) {
+				cursor = isEmpty() ? null : treeMin(tree.root());
+			} else if (compare(fromKey, toKey) < 0) {
+				cursor = above(fromKey, true);
 			}
+			checkBound();
 		}
-	}
+
+		private void checkBound() {
+			if (cursor != null && toKey != null && compare(cursor.getElement(), toKey) >= 0) {
+				cursor = null;
+			}
+		}
+
+		public boolean hasNext() {
+			return cursor != null;
+		}
+
+		public Entry<K, V> next() {
+			if (cursor == null) {
+				throw new NoSuchElementException();
+			}
+			Entry<K, V> e = cursor.getElement();
+			cursor = successor(cursor);
+			checkBound();
+			return e;
+		}
+	} // ----------- end of nested EntryIterator class -----------
+
+	// ---------------- nested EntrySpliterator class ----------------
+	/**
+	 * Covers the entries from current up to (but excluding) fence, or to the end
+	 * of the map if fence is null. A split cuts the range at the root of a
+	 * subtree inside it: the whole tree's root at first, then the right child of
+	 * current for a part split off on the right, or the left child of fence for
+	 * one split off on the left. Like java.util.TreeMap's spliterators, the
+	 * halves are only balanced to the extent that the tree is, and the size is
+	 * exact only before the first split of the whole map.
+	 */
+	private class EntrySpliterator implements Spliterator<Entry<K, V>> {
+		private Position<Entry<K, V>> current;      // position of the next entry, or null
+		private final Position<Entry<K, V>> fence;  // position of the first entry past the range, or null
+		private int side;                           // 0 if never split, -1 if split off on the left, 1 otherwise
+		private int est;                            // estimated number of entries
+		private boolean sized;                      // whether est is exact
+
+		EntrySpliterator(Position<Entry<K, V>> current, Position<Entry<K, V>> fence, int side, int est, boolean sized) {
+			this.current = current == fence ? null : current;
+			this.fence = fence;
+			this.side = side;
+			this.est = est;
+			this.sized = sized;
+		}
+
+		public boolean tryAdvance(Consumer<? super Entry<K, V>> action) {
+			if (current == null) {
+				return false;
+			}
+			Entry<K, V> e = current.getElement();
+			current = successor(current);
+			if (current == fence) {
+				current = null;
+			}
+			if (sized) {
+				est--;
+			}
+			action.accept(e);
+			return true;
+		}
+
+		public void forEachRemaining(Consumer<? super Entry<K, V>> action) {
+			for (Position<Entry<K, V>> p = current; p != null && p != fence; p = successor(p)) {
+				action.accept(p.getElement());
+			}
+			current = null;
+			est = 0;
+		}
+
+		public Spliterator<Entry<K, V>> trySplit() {
+			Position<Entry<K, V>> e = current, f = fence;
+			if (e == null) {
+				return null;
+			}
+			Position<Entry<K, V>> s = side == 0 ? tree.root()
+					: side > 0 ? tree.right(e)
+					: f != null ? tree.left(f) : null;
+			if (s == null || s.getElement() == null || s == e || s == f
+					|| compare(e.getElement(), s.getElement()) >= 0
+					|| (f != null && compare(s.getElement(), f.getElement()) >= 0)) {
+				return null;
+			}
+			side = 1;
+			sized = false;
+			current = s;
+			est >>>= 1;
+			return new EntrySpliterator(e, s, -1, est, false);
+		}
+
+		public long estimateSize() {
+			return est;
+		}
+
+		public int characteristics() {
+			return (sized ? Spliterator.SIZED : 0) | Spliterator.DISTINCT | Spliterator.SORTED
+					| Spliterator.ORDERED | Spliterator.NONNULL;
+		}
+
+		public Comparator<? super Entry<K, V>> getComparator() {
+			return (a, b) -> compare(a, b);
+		}
+	} // ----------- end of nested EntrySpliterator class -----------
+
+	// ---------------- nested EntryIterable class ----------------
+	private class EntryIterable implements Iterable<Entry<K, V>> {
+		private final K fromKey, toKey;             // both null for the whole map
+
+		EntryIterable(K fromKey, K toKey) {
+			this.fromKey = fromKey;
+			this.toKey = toKey;
+		}
+
+		public Iterator<Entry<K, V>> iterator() {
+			return new EntryIterator(fromKey, toKey);
+		}
+
+		/**
+		 * Returns a spliterator over the entries that splits at subtree roots, so
+		 * that parallel streams over a large map divide the work without copying.
+		 */
+		@Override
+		public Spliterator<Entry<K, V>> spliterator() {
+			boolean whole = fromKey == null;
+			Position<Entry<K, V>> first = null;
+			if (whole) {
+				first = isEmpty() ? null : treeMin(tree.root());
+			} else if (compare(fromKey, toKey) < 0) {
+				first = above(fromKey, true);
+			}
+			Position<Entry<K, V>> fence = whole ? null : above(toKey, true);
+			return new EntrySpliterator(first, fence, 0, size(), whole);
+		}
+
+		public String toString() {
+			StringBuilder sb = new StringBuilder("[");
+			for (Entry<K, V> e : this) {
+				if (sb.length() > 1) sb.append(", ");
+				sb.append(e);
+			}
+			return sb.append("]").toString();
+		}
+	} // ----------- end of nested EntryIterable class -----------
 
 	protected void rotate(Position<Entry<K, V>> p) {
 		tree.rotate(p);
@@ -441,4 +740,4 @@ public class TreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V>
 	}
 
 
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -4,8 +4,16 @@ import org.junit.jupiter.api.Test;
 import interfaces.Entry;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.StreamSupport;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class TreeMapTest {
 
@@ -199,6 +207,129 @@ class TreeMapTest {
 		}
 				
 		assertEquals("[12, 15, 21, 23, 24, 26, 33]", map.subMap(12, 34).toString());
+		assertEquals("[]", map.subMap(36, 40).toString());
+	}
+
+	@Test
+	void testSubMapIsLazy() throws IOException {
+		TreeMap<Integer, String> map = new TreeMap<>();
+		for (int i = 0; i < 100; i++) {
+			map.put(2 * i, Integer.toString(2 * i));
+		}
+
+		Iterable<Entry<Integer, String>> range = map.subMap(11, 17);
+		map.put(13, "13");                      // visible, as nothing was copied
+		assertEquals("[12, 13, 14, 16]", range.toString());
+		assertEquals("[]", map.subMap(17, 11).toString());
+		Iterator<Entry<Integer, String>> it = map.entrySet().iterator();
+		assertEquals(0, it.next().getKey());
+		assertEquals(2, it.next().getKey());
+	}
+
+	@Test
+	void testNullLeaves() throws IOException {
+		TreeMap<Integer, String> map = new TreeMap<>(BalanceableBinaryTree.Leaves.NULL);
+		assertMatchesJdk(map, 42);
+	}
+
+	@Test
+	void testSpliteratorSplitsAtSubtreeRoots() throws IOException {
+		for (BalanceableBinaryTree.Leaves leaves : BalanceableBinaryTree.Leaves.values()) {
+			TreeMap<Integer, String> map = new AVLTreeMap<>(leaves);
+			for (int i = 0; i < 1000; i++) {
+				map.put(i, Integer.toString(i));
+			}
+			Spliterator<Entry<Integer, String>> all = map.entrySet().spliterator();
+			assertEquals(1000, all.getExactSizeIfKnown());
+			assertTrue(all.hasCharacteristics(Spliterator.SORTED | Spliterator.ORDERED | Spliterator.DISTINCT));
+			Spliterator<Entry<Integer, String>> prefix = all.trySplit();
+			assertNotNull(prefix);
+			assertEquals(map.tree.root().getElement().getKey(), firstKey(all));
+
+			// splitting repeatedly and draining the parts in order visits every entry once
+			List<Integer> keys = new ArrayList<>();
+			drain(map.entrySet().spliterator(), keys, 6);
+			assertEquals(1000, keys.size());
+			for (int i = 0; i < keys.size(); i++) {
+				assertEquals(i, keys.get(i));
+			}
+
+			long sum = StreamSupport.stream(map.entrySet().spliterator(), true).mapToLong(Entry::getKey).sum();
+			assertEquals(999L * 1000 / 2, sum);
+			List<Integer> range = new ArrayList<>();
+			drain(map.subMap(100, 200).spliterator(), range, 4);
+			assertEquals(100, range.size());
+			assertEquals(100, range.get(0));
+			assertEquals(199, range.get(99));
+		}
+	}
+
+	@Test
+	void testStreams() throws IOException {
+		TreeMap<Integer, String> map = new RBTreeMap<>();
+		for (int i = 999; i >= 0; i--) {
+			map.put(i, Integer.toString(i));
+		}
+		assertTrue(map.entrySpliterator().hasCharacteristics(Spliterator.SORTED | Spliterator.SIZED));
+		assertEquals(1000, map.entryStream().count());
+		assertEquals(List.of(0, 1, 2), map.keyStream().limit(3).toList());
+		assertEquals(map.keyStream().toList(), map.parallelKeyStream().toList());
+		assertEquals(999L * 1000 / 2, map.parallelValueStream().mapToLong(Long::parseLong).sum());
+		assertEquals(0, new TreeMap<Integer, String>().parallelEntryStream().count());
+	}
+
+	private static Integer firstKey(Spliterator<Entry<Integer, String>> s) {
+		Integer[] key = new Integer[1];
+		s.tryAdvance(e -> key[0] = e.getKey());
+		return key[0];
+	}
+
+	private static void drain(Spliterator<Entry<Integer, String>> s, List<Integer> keys, int depth) {
+		Spliterator<Entry<Integer, String>> prefix = depth > 0 ? s.trySplit() : null;
+		if (prefix != null) {
+			drain(prefix, keys, depth - 1);
+			drain(s, keys, depth - 1);
+		} else {
+			s.forEachRemaining(e -> keys.add(e.getKey()));
+		}
+	}
+
+	/**
+	 * Applies the same random puts and removes to map and to a java.util.TreeMap
+	 * and checks that lookups, navigation and iteration agree. With null leaves,
+	 * the tree must also hold exactly one node per entry.
+	 */
+	static void assertMatchesJdk(TreeMap<Integer, String> map, long seed) throws IOException {
+		java.util.TreeMap<Integer, String> expected = new java.util.TreeMap<>();
+		Random random = new Random(seed);
+		for (int i = 0; i < 2000; i++) {
+			int key = random.nextInt(200);
+			if (random.nextInt(3) == 0) {
+				assertEquals(expected.remove(key), map.remove(key));
+			} else {
+				assertEquals(expected.put(key, "v" + i), map.put(key, "v" + i));
+			}
+			assertEquals(expected.size(), map.size());
+			assertEquals(expected.get(key), map.get(key));
+		}
+		for (int key = -1; key <= 200; key++) {
+			assertEquals(keyOf(expected.ceilingEntry(key)), keyOf(map.ceilingEntry(key)));
+			assertEquals(keyOf(expected.floorEntry(key)), keyOf(map.floorEntry(key)));
+			assertEquals(keyOf(expected.higherEntry(key)), keyOf(map.higherEntry(key)));
+			assertEquals(keyOf(expected.lowerEntry(key)), keyOf(map.lowerEntry(key)));
+		}
+		assertEquals(expected.keySet().toString(), map.entrySet().toString());
+		if (!map.tree.hasSentinels()) {
+			assertEquals(map.size(), map.tree.size());
+		}
+	}
+
+	private static Integer keyOf(java.util.Map.Entry<Integer, ?> e) {
+		return e == null ? null : e.getKey();
+	}
+
+	private static Integer keyOf(Entry<Integer, ?> e) {
+		return e == null ? null : e.getKey();
 	}
 
 }
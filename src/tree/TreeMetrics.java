@@ -0,0 +1,272 @@
+package tree;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.function.IntSupplier;
+
+/**
+ * Counters recording how a TreeMap spends its time: the comparisons and depth
+ * of its searches and the rotations made by its insertions, removals and other
+ * accesses. A map keeps no counters until TreeMap.enableMetrics is called, and
+ * then pays one field read per search and per update while they are off.
+ * <p>
+ * The counters are plain fields updated by the thread using the map, so a
+ * reading taken from another thread, such as a JMX client, may lag slightly
+ * behind. snapshot() copies them at once into an immutable Snapshot.
+ */
+public class TreeMetrics implements TreeMetricsMBean {
+
+    private final IntSupplier nodeCount;
+    private ObjectName name;        // under which this is registered, or null
+
+    private long searches, comparisons;
+    private int lastDepth, maxDepth;
+    private long inserts, deletes;
+    private long insertRotations, deleteRotations, accessRotations;
+
+    /**
+     * Constructs counters, all zero, for a map of the given size.
+     *
+     * @param nodeCount the source of the number of entries in the map
+     */
+    TreeMetrics(IntSupplier nodeCount) {
+        this.nodeCount = nodeCount;
+    }
+
+    // recording, called by the instrumented map
+
+    /** Records a search that compared depth entries along its path. */
+    void recordSearch(int depth) {
+        searches++;
+        comparisons += depth;
+        lastDepth = depth;
+        if (depth > maxDepth) {
+            maxDepth = depth;
+        }
+    }
+
+    /** Records an insertion that made the given number of rotations. */
+    void recordInsert(long rotations) {
+        inserts++;
+        insertRotations += rotations;
+    }
+
+    /** Records a removal that made the given number of rotations. */
+    void recordDelete(long rotations) {
+        deletes++;
+        deleteRotations += rotations;
+    }
+
+    /** Records the rotations made by any other access. */
+    void recordAccess(long rotations) {
+        accessRotations += rotations;
+    }
+
+    // the management interface
+
+    @Override
+    public int getNodeCount() {
+        return nodeCount.getAsInt();
+    }
+
+    @Override
+    public long getSearches() {
+        return searches;
+    }
+
+    @Override
+    public long getComparisons() {
+        return comparisons;
+    }
+
+    @Override
+    public int getLastDepth() {
+        return lastDepth;
+    }
+
+    @Override
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    @Override
+    public long getInserts() {
+        return inserts;
+    }
+
+    @Override
+    public long getDeletes() {
+        return deletes;
+    }
+
+    @Override
+    public long getInsertRotations() {
+        return insertRotations;
+    }
+
+    @Override
+    public long getDeleteRotations() {
+        return deleteRotations;
+    }
+
+    @Override
+    public long getAccessRotations() {
+        return accessRotations;
+    }
+
+    @Override
+    public double getComparisonsPerSearch() {
+        return ratio(comparisons, searches);
+    }
+
+    @Override
+    public double getRotationsPerInsert() {
+        return ratio(insertRotations, inserts);
+    }
+
+    @Override
+    public double getRotationsPerDelete() {
+        return ratio(deleteRotations, deletes);
+    }
+
+    @Override
+    public void reset() {
+        searches = comparisons = 0;
+        lastDepth = maxDepth = 0;
+        inserts = deletes = 0;
+        insertRotations = deleteRotations = accessRotations = 0;
+    }
+
+    private static double ratio(long count, long events) {
+        return events == 0 ? 0 : (double) count / events;
+    }
+
+    /**
+     * Returns a copy of the current counters.
+     *
+     * @return an immutable snapshot of the counters
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * Registers these counters with the platform MBean server under the name
+     * tree:type=TreeMetrics,name=&lt;name&gt;, replacing any registration made
+     * earlier by this object.
+     *
+     * @param name the value of the name key, identifying the map
+     * @return the object name registered
+     * @throws JMException if the name is malformed or already taken
+     */
+    public synchronized ObjectName register(String name) throws JMException {
+        unregister();
+        ObjectName objectName = new ObjectName("tree:type=TreeMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        this.name = objectName;
+        return objectName;
+    }
+
+    /**
+     * Removes the registration made by register, if any.
+     *
+     * @throws JMException if the MBean server refuses
+     */
+    public synchronized void unregister() throws JMException {
+        if (name != null) {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            name = null;
+        }
+    }
+
+    public String toString() {
+        return snapshot().toString();
+    }
+
+    // ---------------- nested Snapshot class ----------------
+    /** The counters of a TreeMetrics at one moment. */
+    public static final class Snapshot {
+        private final int nodeCount;
+        private final long searches, comparisons;
+        private final int lastDepth, maxDepth;
+        private final long inserts, deletes;
+        private final long insertRotations, deleteRotations, accessRotations;
+
+        private Snapshot(TreeMetrics m) {
+            nodeCount = m.getNodeCount();
+            searches = m.searches;
+            comparisons = m.comparisons;
+            lastDepth = m.lastDepth;
+            maxDepth = m.maxDepth;
+            inserts = m.inserts;
+            deletes = m.deletes;
+            insertRotations = m.insertRotations;
+            deleteRotations = m.deleteRotations;
+            accessRotations = m.accessRotations;
+        }
+
+        public int getNodeCount() {
+            return nodeCount;
+        }
+
+        public long getSearches() {
+            return searches;
+        }
+
+        public long getComparisons() {
+            return comparisons;
+        }
+
+        public int getLastDepth() {
+            return lastDepth;
+        }
+
+        public int getMaxDepth() {
+            return maxDepth;
+        }
+
+        public long getInserts() {
+            return inserts;
+        }
+
+        public long getDeletes() {
+            return deletes;
+        }
+
+        public long getInsertRotations() {
+            return insertRotations;
+        }
+
+        public long getDeleteRotations() {
+            return deleteRotations;
+        }
+
+        public long getAccessRotations() {
+            return accessRotations;
+        }
+
+        public double getComparisonsPerSearch() {
+            return ratio(comparisons, searches);
+        }
+
+        public double getRotationsPerInsert() {
+            return ratio(insertRotations, inserts);
+        }
+
+        public double getRotationsPerDelete() {
+            return ratio(deleteRotations, deletes);
+        }
+
+        public String toString() {
+            return String.format("nodes=%d searches=%d comparisons/search=%.2f depth=%d maxDepth=%d "
+                            + "inserts=%d rotations/insert=%.2f deletes=%d rotations/delete=%.2f accessRotations=%d",
+                    nodeCount, searches, getComparisonsPerSearch(), lastDepth, maxDepth,
+                    inserts, getRotationsPerInsert(), deletes, getRotationsPerDelete(), accessRotations);
+        }
+    } // ----------- end of nested Snapshot class -----------
+}
@@ -0,0 +1,50 @@
+package tree;
+
+/**
+ * The management interface of TreeMetrics, through which JMX clients read the
+ * counters of an instrumented TreeMap.
+ */
+public interface TreeMetricsMBean {
+
+    /** Returns the number of entries in the map. */
+    int getNodeCount();
+
+    /** Returns the number of key searches, each descending one path of the tree. */
+    long getSearches();
+
+    /** Returns the number of key comparisons made by those searches. */
+    long getComparisons();
+
+    /** Returns the depth at which the last search stopped: the entries compared along its path. */
+    int getLastDepth();
+
+    /** Returns the greatest depth at which a search stopped. */
+    int getMaxDepth();
+
+    /** Returns the number of entries inserted. */
+    long getInserts();
+
+    /** Returns the number of entries removed. */
+    long getDeletes();
+
+    /** Returns the number of rotations made to rebalance after insertions. */
+    long getInsertRotations();
+
+    /** Returns the number of rotations made to rebalance after removals. */
+    long getDeleteRotations();
+
+    /** Returns the number of rotations made after other accesses, such as splaying on a get. */
+    long getAccessRotations();
+
+    /** Returns the mean number of comparisons per search. */
+    double getComparisonsPerSearch();
+
+    /** Returns the mean number of rotations per insertion. */
+    double getRotationsPerInsert();
+
+    /** Returns the mean number of rotations per removal. */
+    double getRotationsPerDelete();
+
+    /** Sets every counter back to zero. */
+    void reset();
+}
@@ -0,0 +1,86 @@
+package tree;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TreeMetricsTest {
+
+    @Test
+    void disabledUntilEnabled() throws Exception {
+        Treap<Integer, Integer> map = new Treap<>();
+        map.put(1, 1);
+        assertNull(map.getMetrics());
+        TreeMetrics metrics = map.enableMetrics();
+        assertSame(metrics, map.enableMetrics());
+        map.get(1);
+        map.disableMetrics();
+        map.get(1);
+        assertNull(map.getMetrics());
+        assertEquals(1, metrics.getSearches());
+        assertEquals(1, metrics.getNodeCount());
+    }
+
+    @Test
+    void countsEveryKindOfTree() throws Exception {
+        List<TreeMap<Integer, Integer>> maps = List.of(new Treap<>(PriorityGenerator.seeded(20)),
+                new AVLTreeMap<>(), new RBTreeMap<>(), new SplayTreeMap<>());
+        for (TreeMap<Integer, Integer> map : maps) {
+            String name = map.getClass().getSimpleName();
+            TreeMetrics metrics = map.enableMetrics();
+            for (int i = 0; i < 1000; i++) {
+                map.put(i, i);                              // ascending keys force rebalancing
+            }
+            for (int i = 0; i < 1000; i++) {
+                map.get(i);
+            }
+            for (int i = 0; i < 1000; i += 2) {
+                map.remove(i);
+            }
+            TreeMetrics.Snapshot s = metrics.snapshot();
+            assertEquals(500, s.getNodeCount(), name);
+            assertEquals(1000, s.getInserts(), name);
+            assertEquals(500, s.getDeletes(), name);
+            assertEquals(2500, s.getSearches(), name);
+            assertTrue(s.getComparisons() >= s.getSearches(), name);
+            assertTrue(s.getMaxDepth() >= 10 && s.getMaxDepth() >= s.getLastDepth(), name);
+            assertTrue(s.getInsertRotations() > 0, name);
+            if (!(map instanceof SplayTreeMap)) {
+                assertTrue(s.getRotationsPerInsert() <= 2, name);
+                assertEquals(0, s.getAccessRotations(), name);
+            } else {
+                assertTrue(s.getAccessRotations() > 0, name);
+            }
+
+            metrics.reset();
+            assertEquals(0, metrics.getSearches());
+            assertEquals(0, metrics.getComparisonsPerSearch());
+        }
+    }
+
+    @Test
+    void readableThroughJmx() throws Exception {
+        AVLTreeMap<Integer, Integer> map = new AVLTreeMap<>();
+        TreeMetrics metrics = map.enableMetrics();
+        ObjectName name = metrics.register("readableThroughJmx");
+        try {
+            for (int i = 0; i < 100; i++) {
+                map.put(i, i);
+            }
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(100L, server.getAttribute(name, "Inserts"));
+            assertEquals(100, server.getAttribute(name, "NodeCount"));
+            assertEquals(metrics.getRotationsPerInsert(), server.getAttribute(name, "RotationsPerInsert"));
+            server.invoke(name, "reset", null, null);
+            assertEquals(0L, metrics.getInserts());
+        } finally {
+            metrics.unregister();
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+}